@@ -7,6 +7,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
+import wader.util.DukeException;
 
 /**
  * A GUI for Duke using FXML.
@@ -27,7 +28,8 @@ public class Main extends Application {
             fxmlLoader.<MainWindow>getController().setWader(wader); // inject the Duke
             // instance
             stage.show();
-        } catch (IOException e) {
+            wader.watchStorage();
+        } catch (IOException | DukeException e) {
             e.printStackTrace();
         }
     }
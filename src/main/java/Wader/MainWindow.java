@@ -32,9 +32,12 @@ public class MainWindow extends AnchorPane {
         scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
     }
 
-    /** Injects the Duke instance */
+    /** Injects the Duke instance and shows anything it had to report while loading */
     public void setWader(Wader w) {
         wader = w;
+        if (wader.getStartupMessage() != null) {
+            dialogContainer.getChildren().add(DialogBox.getDukeDialog(wader.getStartupMessage(), dukeImage));
+        }
     }
 
     /**
@@ -15,6 +15,18 @@ public class DeadlineTask extends Task {
         this.time = LocalTime.parse(timeString);
     }
 
+    /**
+     * Constructs a DeadlineTask due at the given date and time.
+     *
+     * @param description the description of the task
+     * @param dateTime the date and time the task is due
+     */
+    public DeadlineTask(String description, LocalDateTime dateTime) {
+        super(description);
+        this.date = dateTime.toLocalDate();
+        this.time = dateTime.toLocalTime();
+    }
+
     /**
      * Gets the date of the deadline task.
      *
@@ -34,6 +46,16 @@ public class DeadlineTask extends Task {
         return time.format(DateTimeFormatter.ofPattern("ha"));
     }
 
+    @Override
+    public Task copy() {
+        Task task = new DeadlineTask(getDescription(), getDateTime());
+        if (isDone()) {
+            task.markAsDone();
+        }
+        task.setId(getId());
+        return task;
+    }
+
     @Override
     public String toString() {
         return String.format("[D]%s (by: %s)", super.toString(), getDate() + " " + getTime());
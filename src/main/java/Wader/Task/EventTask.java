@@ -21,6 +21,21 @@ public class EventTask extends Task {
         this.fromTime = LocalTime.parse(fromTimeString);
     }
 
+    /**
+     * Constructs an EventTask spanning the given start and end date-times.
+     *
+     * @param description the description of the task
+     * @param from the date and time the event starts
+     * @param to the date and time the event ends
+     */
+    public EventTask(String description, LocalDateTime from, LocalDateTime to) {
+        super(description);
+        this.toDate = to.toLocalDate();
+        this.toTime = to.toLocalTime();
+        this.fromDate = from.toLocalDate();
+        this.fromTime = from.toLocalTime();
+    }
+
     /**
      * Gets the from time of the event task.
      *
@@ -58,6 +73,16 @@ public class EventTask extends Task {
         return toDate.format(DateTimeFormatter.ofPattern("MMM d yyyy"));
     }
 
+    @Override
+    public Task copy() {
+        Task task = new EventTask(getDescription(), getDateTime(), getEndDateTime());
+        if (isDone()) {
+            task.markAsDone();
+        }
+        task.setId(getId());
+        return task;
+    }
+
     @Override
     public String toString() {
         return String.format("[E]%s (from: %s to: %s)", super.toString(),
@@ -86,4 +111,13 @@ public class EventTask extends Task {
         return java.time.LocalDateTime.of(fromDate, fromTime);
     }
 
+    /**
+     * Gets the LocalDateTime of when this event ends.
+     *
+     * @return the LocalDateTime of when the event ends
+     */
+    public LocalDateTime getEndDateTime() {
+        return LocalDateTime.of(toDate, toTime);
+    }
+
 }
@@ -3,8 +3,12 @@ package wader.task;
 import java.time.LocalDateTime;
 
 public class Task {
+    /** The id of a task that has not been added to a list yet. */
+    public static final long UNASSIGNED_ID = -1;
+
     private String description;
     private boolean isDone;
+    private long id = UNASSIGNED_ID;
 
     public Task(String description) {
         this.description = description;
@@ -30,6 +34,25 @@ public class Task {
         return isDone;
     }
 
+    /**
+     * Gets the id that identifies this Task in its list. Ids are assigned when the Task is added
+     * and never reused for another Task in the same list.
+     *
+     * @return The id of the Task, or {@link #UNASSIGNED_ID} if it has none yet
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id that identifies this Task in its list
+     *
+     * @param id The id to assign
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
     /**
      * Marks the Task as done
      */
@@ -44,6 +67,18 @@ public class Task {
         this.isDone = false;
     }
 
+    /**
+     * Returns a copy of this Task with the same description, status and id.
+     *
+     * @return an independent copy of the Task
+     */
+    public Task copy() {
+        Task task = new Task(description);
+        task.isDone = isDone;
+        task.id = id;
+        return task;
+    }
+
     /**
      * Returns a string representation of the Task e.g. [E][X] event (from: Jan 1
      * 2022 5pm to: Jan 2
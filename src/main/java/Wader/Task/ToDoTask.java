@@ -5,6 +5,16 @@ public class ToDoTask extends Task {
         super(description);
     }
 
+    @Override
+    public Task copy() {
+        Task task = new ToDoTask(getDescription());
+        if (isDone()) {
+            task.markAsDone();
+        }
+        task.setId(getId());
+        return task;
+    }
+
     @Override
     public String toString() {
         return String.format("[T]%s", super.toString());
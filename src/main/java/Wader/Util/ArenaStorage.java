@@ -0,0 +1,113 @@
+package wader.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Persists a WaderList as an {@link OffHeapTaskList} mapped onto a file, so the loaded list lives
+ * in the file's pages rather than on the Java heap, and loading costs no parsing at all. Changes
+ * reach the file as they are made; recording or saving a change only forces them to disk.
+ *
+ * <p>The first load returns the list held in the file. Later loads, such as a reload after a
+ * conflict, return a copy on the heap, so applying one to the other never reads and writes the
+ * same memory. Saving any list other than the mapped one writes its tasks to a new arena file,
+ * which is forced to disk and then moved over the old one, so a crash leaves one or the other.
+ * A list mapped onto the old file is then moved into memory and no longer persisted, and the next
+ * load maps the new file.
+ *
+ * <p>The mapped list is the storage, so it must only be saved by the thread changing it; handing a
+ * copy to a background saver would replace the file under the live list. Wader therefore always
+ * makes changes to an arena durable as they are made.
+ */
+public class ArenaStorage implements StorageBackend {
+    private final Path path;
+    private OffHeapTaskList arena;
+    private WaderList mappedList;
+
+    /**
+     * Constructs an ArenaStorage that keeps its arena in a file next to the given path.
+     *
+     * @param filePath the path the arena file is derived from
+     */
+    public ArenaStorage(String filePath) {
+        this.path = Path.of(filePath + ".arena");
+    }
+
+    /**
+     * Maps the arena file and returns the list held in it.
+     *
+     * @return the mapped list on the first load, and a copy of it afterwards
+     * @throws DukeException if the arena file cannot be mapped
+     */
+    @Override
+    public synchronized WaderList load() throws DukeException {
+        if (mappedList != null) {
+            return mappedList.copy();
+        }
+        if (arena == null) {
+            try {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                arena = OffHeapTaskList.map(path);
+            } catch (IOException e) {
+                throw new DukeException("An error occurred while mapping the task arena: " + e.getMessage());
+            }
+        }
+        mappedList = new WaderList(arena, arena.nextId());
+        return mappedList;
+    }
+
+    /**
+     * Makes the change durable. The mapped list already holds it, so only the file's pages need
+     * to be written.
+     *
+     * @param command the full command line that was applied
+     * @param waderList the list after the command was applied
+     * @throws DukeException if the change cannot be written
+     */
+    @Override
+    public synchronized void record(String command, WaderList waderList) throws DukeException {
+        save(waderList);
+    }
+
+    /**
+     * Writes the given list to the arena file. The mapped list is only forced to disk; any other
+     * list is written to a new arena that atomically replaces the file.
+     *
+     * @param waderList the list to persist
+     * @throws DukeException if the arena cannot be written
+     */
+    @Override
+    public synchronized void save(WaderList waderList) throws DukeException {
+        if (waderList == mappedList) {
+            try {
+                arena.force();
+            } catch (UncheckedIOException e) {
+                throw new DukeException("An error occurred while saving the task arena: " + e.getMessage());
+            }
+            return;
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.deleteIfExists(temp);
+            OffHeapTaskList replacement = OffHeapTaskList.map(temp);
+            replacement.addAll(waderList.tasksView());
+            replacement.force();
+            replacement.moveTo(path);
+            if (arena != null) {
+                // The old list may still be in use, but must no longer change the file
+                arena.detach();
+            }
+            arena = replacement;
+            mappedList = null;
+        } catch (IOException | UncheckedIOException e) {
+            throw new DukeException("An error occurred while saving the task arena: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package wader.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Persists a task list from a dedicated writer thread so that commands are acknowledged without
+ * waiting on disk. Changes are group-committed: a burst of changes is coalesced into a single save
+ * once either the maximum delay since the first unsaved change has passed or the maximum batch
+ * size is reached. Each save works on an immutable snapshot of the list taken by the writer
+ * thread itself.
+ *
+ * <p>A save that fails, for instance because the disk is full, leaves its changes pending and is
+ * tried again after {@link #RETRY_DELAY_MILLIS}, together with any changes made in the meantime.
+ * Once the saver is closed the writer thread gives up after {@code MAX_ATTEMPTS_AFTER_CLOSE}
+ * failures, so that a broken disk cannot keep the program from exiting. Changes notified after
+ * closing are saved on the calling thread.
+ *
+ * <p>A save rejected because another process changed the storage first is not retried, since it
+ * would overwrite that process's changes. The saver instead reports the conflict through
+ * {@link #hasConflict()} and holds its changes until the owner has reloaded the list and calls
+ * {@link #reset()}.
+ */
+public class AsyncSaver {
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 200;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    public static final long RETRY_DELAY_MILLIS = 1000;
+
+    private static final int MAX_ATTEMPTS_AFTER_CLOSE = 3;
+
+    private final StorageBackend storage;
+    private final Supplier<WaderList> snapshotSupplier;
+    private final Runnable onSaved;
+    /** Held for the whole of each save, so that a reset can wait for one in progress. */
+    private final Object saveLock = new Object();
+    private final long maxDelayMillis;
+    private final int maxBatchSize;
+    private final Thread writer;
+
+    private int pendingChanges;
+    private long firstPendingAt;
+    private long requestedSaves;
+    private long completedSaves;
+    private boolean isClosed;
+    private boolean hasConflict;
+    /** When a failed save may next be tried, or 0 if the last save did not fail. */
+    private long retryAt;
+    private int failuresSinceClose;
+    /** Moves on with every reset; a snapshot taken before a reset is dropped rather than saved. */
+    private long epoch;
+
+    /**
+     * Constructs an AsyncSaver and starts its writer thread.
+     *
+     * @param storage the storage snapshots are saved to
+     * @param snapshotSupplier supplies an immutable snapshot of the current list; it is called on
+     *        the writer thread and must synchronise with command processing itself
+     * @param maxDelayMillis the longest time a change may stay unsaved
+     * @param maxBatchSize the number of changes that triggers a save without further delay
+     */
+    public AsyncSaver(StorageBackend storage, Supplier<WaderList> snapshotSupplier, long maxDelayMillis,
+            int maxBatchSize) {
+        this(storage, snapshotSupplier, () -> {
+        }, maxDelayMillis, maxBatchSize);
+    }
+
+    /**
+     * Constructs an AsyncSaver that reports each successful save, and starts its writer thread.
+     *
+     * @param storage the storage snapshots are saved to
+     * @param snapshotSupplier supplies an immutable snapshot of the current list; it is called on
+     *        the writer thread and must synchronise with command processing itself
+     * @param onSaved run on the writer thread right after the latest snapshot was saved, while
+     *        {@link #reset()} waits; it must not wait for command processing
+     * @param maxDelayMillis the longest time a change may stay unsaved
+     * @param maxBatchSize the number of changes that triggers a save without further delay
+     */
+    public AsyncSaver(StorageBackend storage, Supplier<WaderList> snapshotSupplier, Runnable onSaved,
+            long maxDelayMillis, int maxBatchSize) {
+        assert maxDelayMillis >= 0 && maxBatchSize > 0 : "Delay and batch size must be positive";
+        this.storage = storage;
+        this.snapshotSupplier = snapshotSupplier;
+        this.onSaved = onSaved;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxBatchSize = maxBatchSize;
+        // Not a daemon, so the JVM finishes the final save before exiting
+        this.writer = new Thread(this::run, "wader-writer");
+        this.writer.start();
+    }
+
+    /**
+     * Notes that the list has changed and needs saving. Returns immediately, unless the saver has
+     * been closed: the list is then saved on the calling thread, and a snapshot the writer thread
+     * took earlier is dropped rather than saved over it.
+     *
+     * @throws DukeException if the saver is closed and the list cannot be saved
+     */
+    public void notifyChanged() throws DukeException {
+        synchronized (this) {
+            if (!isClosed) {
+                if (pendingChanges == 0) {
+                    firstPendingAt = System.currentTimeMillis();
+                }
+                pendingChanges++;
+                requestedSaves++;
+                notifyAll();
+                return;
+            }
+        }
+        WaderList snapshot = snapshotSupplier.get();
+        synchronized (saveLock) {
+            epoch++;
+            storage.save(snapshot);
+            onSaved.run();
+        }
+    }
+
+    /**
+     * Waits until every change notified so far has been saved, or the writer thread has given up
+     * on saving it after closing.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void flush() throws InterruptedException {
+        long target = requestedSaves;
+        while (completedSaves < target && writer.isAlive()) {
+            wait();
+        }
+    }
+
+    /**
+     * Checks whether the last save was rejected because another process changed the storage
+     * first. The unsaved changes are held until {@link #reset()} is called.
+     *
+     * @return true if the saver is waiting for the list to be reloaded
+     */
+    public synchronized boolean hasConflict() {
+        return hasConflict;
+    }
+
+    /**
+     * Drops the changes waiting to be saved, because the list has just been reloaded from storage
+     * and its owner has dealt with them. A save in progress is waited for, and a snapshot taken
+     * before this call is never saved.
+     */
+    public void reset() {
+        synchronized (saveLock) {
+            epoch++;
+        }
+        synchronized (this) {
+            hasConflict = false;
+            pendingChanges = 0;
+            retryAt = 0;
+            completedSaves = requestedSaves;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Stops accepting changes for the writer thread. Pending changes are still saved by the writer
+     * thread, but this method does not wait for them; later changes are saved as they are
+     * notified.
+     */
+    public synchronized void close() {
+        isClosed = true;
+        notifyAll();
+    }
+
+    private void run() {
+        while (true) {
+            long target;
+            long snapshotEpoch;
+            synchronized (this) {
+                try {
+                    waitForBatch();
+                } catch (InterruptedException e) {
+                    isClosed = true;
+                }
+                if (pendingChanges == 0) {
+                    if (isClosed) {
+                        notifyAll();
+                        return;
+                    }
+                    // A reset dropped the batch while it was waiting
+                    continue;
+                }
+                pendingChanges = 0;
+                target = requestedSaves;
+            }
+            synchronized (saveLock) {
+                snapshotEpoch = epoch;
+            }
+
+            WaderList snapshot = snapshotSupplier.get();
+            boolean isSaved = true;
+            synchronized (saveLock) {
+                if (epoch == snapshotEpoch) {
+                    isSaved = save(snapshot);
+                }
+            }
+
+            synchronized (this) {
+                if (isSaved) {
+                    retryAt = 0;
+                    completedSaves = target;
+                } else {
+                    retryLater(target);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Saves a snapshot, holding its changes back if another process changed the storage first.
+     *
+     * @return false if the save failed and should be tried again
+     */
+    private boolean save(WaderList snapshot) {
+        try {
+            storage.save(snapshot);
+            onSaved.run();
+        } catch (StorageConflictException e) {
+            synchronized (this) {
+                hasConflict = true;
+            }
+        } catch (DukeException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the changes of a failed save pending so that they are saved again after the retry
+     * delay, unless the saver is closed and has failed too often to keep trying.
+     */
+    private void retryLater(long target) {
+        if (isClosed && ++failuresSinceClose >= MAX_ATTEMPTS_AFTER_CLOSE) {
+            System.err.println("Gave up saving the task list; the latest changes were not saved.");
+            completedSaves = target;
+            return;
+        }
+        if (pendingChanges == 0) {
+            firstPendingAt = System.currentTimeMillis();
+        }
+        pendingChanges++;
+        retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+    }
+
+    /**
+     * Blocks until a batch is ready: the saver is closed, the batch is full or the oldest pending
+     * change has waited for the maximum delay. Nothing is ready while a conflict is unresolved,
+     * or before the retry delay of a failed save has passed.
+     */
+    private void waitForBatch() throws InterruptedException {
+        while (!isClosed && (pendingChanges == 0 || hasConflict)) {
+            wait();
+        }
+        if (hasConflict) {
+            // Saving now would overwrite the other process's changes
+            System.err.println("Changes were not saved because the task list was changed in another Wader window.");
+            pendingChanges = 0;
+            return;
+        }
+        while (pendingChanges > 0) {
+            boolean isReady = isClosed || pendingChanges >= maxBatchSize;
+            long readyAt = Math.max(isReady ? 0 : firstPendingAt + maxDelayMillis, retryAt);
+            long remaining = readyAt - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return;
+            }
+            wait(remaining);
+        }
+    }
+}
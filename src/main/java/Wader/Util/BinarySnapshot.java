@@ -0,0 +1,242 @@
+package wader.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import wader.task.DeadlineTask;
+import wader.task.EventTask;
+import wader.task.Task;
+import wader.task.ToDoTask;
+
+/**
+ * Reads and writes the versioned binary snapshot format. A snapshot starts with a header holding
+ * a magic number, the format version and the number of tasks, followed by one length-prefixed
+ * record per task. From version 2 the length is followed by a CRC32C checksum of the record body,
+ * which holds:
+ * <ul>
+ * <li>a type byte ({@code T}, {@code D} or {@code E}) and a done flag byte</li>
+ * <li>the deadline, or the event start and end, as epoch minutes</li>
+ * <li>the description as UTF-8 bytes filling the rest of the record</li>
+ * </ul>
+ * Snapshots are loaded through a memory-mapped channel, so loading is bounded by I/O rather than
+ * by string parsing. Version 1 snapshots, which have no checksums, can still be read.
+ */
+public class BinarySnapshot {
+    public static final int MAGIC = 0x57414452; // "WADR"
+    public static final short VERSION = 2;
+    public static final int HEADER_SIZE = 10;
+
+    /** The offset of the done flag from the start of a version 2 record. */
+    static final int STATUS_OFFSET = 2 * Integer.BYTES + 1;
+
+    private static final long MAX_WINDOW = 1L << 30;
+
+    /**
+     * Checks whether the file at the given path starts with the binary snapshot header.
+     *
+     * @param path the file to check
+     * @return true if the file is a binary snapshot
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinarySnapshot(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(magic, 0);
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes the given tasks as a binary snapshot to the output stream.
+     *
+     * @param tasks the tasks to write, in list order
+     * @param out the stream to write to; it is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public static void write(List<Task> tasks, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(tasks.size());
+        CRC32C crc = new CRC32C();
+        for (Task task : tasks) {
+            byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+            char type = typeOf(task);
+            int timestamps = type == 'E' ? 2 : type == 'D' ? 1 : 0;
+            ByteBuffer body = ByteBuffer.allocate(2 + timestamps * Long.BYTES + description.length);
+            body.put((byte) type);
+            body.put((byte) (task.isDone() ? 1 : 0));
+            if (timestamps > 0) {
+                body.putLong(toEpochMinute(task.getDateTime()));
+            }
+            if (timestamps > 1) {
+                body.putLong(toEpochMinute(((EventTask) task).getEndDateTime()));
+            }
+            body.put(description);
+            crc.reset();
+            crc.update(body.array());
+            data.writeInt(body.capacity());
+            data.writeInt((int) crc.getValue());
+            data.write(body.array());
+        }
+        data.flush();
+    }
+
+    /**
+     * Loads a binary snapshot by mapping the file into memory and decoding its records.
+     *
+     * @param path the snapshot file
+     * @return a WaderList holding the decoded tasks in their original order
+     * @throws IOException if the file cannot be read or is not a supported snapshot
+     */
+    public static WaderList read(Path path) throws IOException {
+        return read(path, null);
+    }
+
+    /**
+     * Loads a binary snapshot like {@link #read(Path)}, recovering from damage in a single pass:
+     * records that fail their checksum are quarantined and skipped, and if the records end early
+     * or a length is out of range the rest of the file is counted as a torn tail.
+     *
+     * @param path the snapshot file
+     * @param report the report recovery is recorded in, or null to fail on the first damaged record
+     * @return a WaderList holding the intact tasks in their original order
+     * @throws IOException if the file cannot be read, is not a supported snapshot, or is damaged
+     *         and no report was given
+     */
+    public static WaderList read(Path path, RecoveryReport report) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_WINDOW));
+            if (size < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary snapshot");
+            }
+            short version = buffer.getShort();
+            if (version != 1 && version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int prefix = version == 1 ? Integer.BYTES : 2 * Integer.BYTES;
+            int count = buffer.getInt();
+            List<Task> tasks = new ArrayList<>(count);
+            long windowStart = 0;
+            for (int i = 0; i < count; i++) {
+                long remaining = size - windowStart - buffer.position();
+                int length = remaining < prefix ? -1 : buffer.getInt(buffer.position());
+                if (length < 2 || prefix + length > remaining) {
+                    if (report == null) {
+                        throw new IOException("Snapshot ends inside task " + (i + 1));
+                    }
+                    report.truncated(remaining);
+                    break;
+                }
+                if (buffer.remaining() < prefix + length) {
+                    // The next record straddles the mapped window, so map a new one starting at it
+                    windowStart += buffer.position();
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                            Math.min(size - windowStart, MAX_WINDOW));
+                }
+                int start = buffer.position();
+                try {
+                    tasks.add(readRecord(buffer, version));
+                } catch (IOException e) {
+                    if (report == null) {
+                        throw e;
+                    }
+                    byte[] record = new byte[prefix + length];
+                    buffer.get(start, record);
+                    buffer.position(start + record.length);
+                    report.quarantine(path.getFileName() + " record " + (i + 1),
+                            Base64.getEncoder().encodeToString(record));
+                }
+            }
+            WaderList waderList = new WaderList();
+            waderList.addAll(tasks);
+            return waderList;
+        }
+    }
+
+    /**
+     * Decodes one length-prefixed record of the given format version starting at the buffer's
+     * position, leaving the position at the start of the next record.
+     *
+     * @throws IOException if the record fails its checksum or is malformed
+     */
+    static Task readRecord(ByteBuffer buffer, short version) throws IOException {
+        int length = buffer.getInt();
+        if (version > 1) {
+            int expected = buffer.getInt();
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(buffer.position(), length));
+            if ((int) crc.getValue() != expected) {
+                buffer.position(buffer.position() + length);
+                throw new IOException("Checksum mismatch");
+            }
+        }
+        int end = buffer.position() + length;
+        char type = (char) buffer.get();
+        boolean isDone = buffer.get() != 0;
+        Task task;
+        switch (type) {
+            case 'T':
+                task = new ToDoTask(readDescription(buffer, end));
+                break;
+            case 'D':
+                LocalDateTime by = fromEpochMinute(buffer.getLong());
+                task = new DeadlineTask(readDescription(buffer, end), by);
+                break;
+            case 'E':
+                LocalDateTime from = fromEpochMinute(buffer.getLong());
+                LocalDateTime to = fromEpochMinute(buffer.getLong());
+                task = new EventTask(readDescription(buffer, end), from, to);
+                break;
+            default:
+                buffer.position(end);
+                throw new IOException("Unknown task type '" + type + "' in snapshot");
+        }
+        if (isDone) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static String readDescription(ByteBuffer buffer, int end) {
+        byte[] bytes = new byte[end - buffer.position()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static char typeOf(Task task) {
+        if (task instanceof EventTask) {
+            return 'E';
+        } else if (task instanceof DeadlineTask) {
+            return 'D';
+        }
+        return 'T';
+    }
+
+    static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,377 @@
+package wader.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import wader.task.DeadlineTask;
+import wader.task.EventTask;
+import wader.task.Task;
+import wader.task.ToDoTask;
+
+/**
+ * A task list that stores its tasks column by column in parallel primitive arrays rather than as
+ * one object graph per task: a type byte, an id, the start and end as epoch seconds, and the
+ * code of the description in a {@link DescriptionDictionary}, with the done flags in a bitmap.
+ * This takes a few dozen bytes per task, several times less than a task object with its string
+ * and date objects, and a description shared by many tasks is stored only once. Searches run over
+ * contiguous arrays, and look at each distinct description once rather than once per task.
+ * The list counts the tasks using each code, and once most codes are no longer used it rebuilds
+ * the dictionary from the descriptions that are, so edits do not make it grow without bound.
+ *
+ * <p>Tasks read from the list are views created on access, so changing one does not change the
+ * list; a changed task has to be written back with {@link #set(int, Task)}, or its status with
+ * {@link #setDone(int, boolean)}.
+ */
+class ColumnarTaskList extends AbstractList<Task> implements RandomAccess, TaskViewList {
+    private static final byte TASK = 0;
+    private static final byte TODO = 1;
+    private static final byte DEADLINE = 2;
+    private static final byte EVENT = 3;
+    private static final int MIN_CAPACITY = 16;
+
+    private byte[] types;
+    private long[] ids;
+    private long[] starts;
+    private long[] ends;
+    private int[] descriptionCodes;
+    private BitSet done = new BitSet();
+    private DescriptionDictionary descriptions;
+    /** The number of tasks using each description code. */
+    private int[] codeUses = new int[MIN_CAPACITY];
+    /** The number of codes used by at least one task. */
+    private int usedCodes;
+    private int size;
+
+    /**
+     * Constructs a list holding the given tasks, with arrays sized to fit them exactly.
+     *
+     * @param tasks the tasks, in order
+     */
+    ColumnarTaskList(Collection<? extends Task> tasks) {
+        int capacity = Math.max(tasks.size(), MIN_CAPACITY);
+        types = new byte[capacity];
+        ids = new long[capacity];
+        starts = new long[capacity];
+        ends = new long[capacity];
+        descriptionCodes = new int[capacity];
+        descriptions = new DescriptionDictionary();
+        for (Task task : tasks) {
+            write(size++, task);
+        }
+    }
+
+    private ColumnarTaskList(ColumnarTaskList other) {
+        types = Arrays.copyOf(other.types, Math.max(other.size, MIN_CAPACITY));
+        ids = Arrays.copyOf(other.ids, types.length);
+        starts = Arrays.copyOf(other.starts, types.length);
+        ends = Arrays.copyOf(other.ends, types.length);
+        descriptionCodes = Arrays.copyOf(other.descriptionCodes, types.length);
+        done = (BitSet) other.done.clone();
+        size = other.size;
+        // Rebuild the dictionary so descriptions no task uses any more are left behind
+        rebuildDictionary(other.descriptions);
+    }
+
+    /**
+     * Returns an independent copy of this list made by copying its arrays.
+     */
+    ColumnarTaskList copy() {
+        return new ColumnarTaskList(this);
+    }
+
+    @Override
+    public Task get(int position) {
+        checkPosition(position, size);
+        String description = descriptions.decode(descriptionCodes[position]);
+        Task task;
+        switch (types[position]) {
+            case TODO:
+                task = new ToDoTask(description);
+                break;
+            case DEADLINE:
+                task = new DeadlineTask(description, toDateTime(starts[position]));
+                break;
+            case EVENT:
+                task = new EventTask(description, toDateTime(starts[position]), toDateTime(ends[position]));
+                break;
+            default:
+                task = new Task(description);
+                break;
+        }
+        if (done.get(position)) {
+            task.markAsDone();
+        }
+        task.setId(ids[position]);
+        return task;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task set(int position, Task task) {
+        Task previous = get(position);
+        int previousCode = descriptionCodes[position];
+        write(position, task);
+        release(previousCode);
+        return previous;
+    }
+
+    @Override
+    public void add(int position, Task task) {
+        checkPosition(position, size + 1);
+        if (size == types.length) {
+            grow();
+        }
+        int moved = size - position;
+        System.arraycopy(types, position, types, position + 1, moved);
+        System.arraycopy(ids, position, ids, position + 1, moved);
+        System.arraycopy(starts, position, starts, position + 1, moved);
+        System.arraycopy(ends, position, ends, position + 1, moved);
+        System.arraycopy(descriptionCodes, position, descriptionCodes, position + 1, moved);
+        shiftDone(position, 1);
+        size++;
+        write(position, task);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int position) {
+        Task removed = get(position);
+        int removedCode = descriptionCodes[position];
+        int moved = size - position - 1;
+        System.arraycopy(types, position + 1, types, position, moved);
+        System.arraycopy(ids, position + 1, ids, position, moved);
+        System.arraycopy(starts, position + 1, starts, position, moved);
+        System.arraycopy(ends, position + 1, ends, position, moved);
+        System.arraycopy(descriptionCodes, position + 1, descriptionCodes, position, moved);
+        shiftDone(position + 1, -1);
+        size--;
+        release(removedCode);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        done.clear();
+        descriptions = new DescriptionDictionary();
+        codeUses = new int[MIN_CAPACITY];
+        usedCodes = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public void setDone(int position, boolean isDone) {
+        done.set(checkPosition(position, size), isDone);
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain the keyword. Each distinct description is
+     * searched once, and the tasks are then picked out by comparing codes, so only the matching
+     * tasks are created.
+     *
+     * @param keyword the text to look for
+     * @return the matching tasks, in list order
+     */
+    List<Task> findTasks(String keyword) {
+        BitSet matchingCodes = new BitSet(descriptions.size());
+        for (int code = 0; code < descriptions.size(); code++) {
+            if (descriptions.decode(code).contains(keyword)) {
+                matchingCodes.set(code);
+            }
+        }
+        List<Task> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (matchingCodes.get(descriptionCodes[i])) {
+                matches.add(get(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the tasks whose description is exactly the given one, comparing codes rather than
+     * strings.
+     *
+     * @param description the description to look for
+     * @return the matching tasks, in list order
+     */
+    List<Task> findTasksWithDescription(String description) {
+        int code = descriptions.codeOf(description);
+        List<Task> matches = new ArrayList<>();
+        for (int i = 0; i < size && code >= 0; i++) {
+            if (descriptionCodes[i] == code) {
+                matches.add(get(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the first dated tasks after the given moment, earliest first, scanning only the type
+     * and start columns.
+     *
+     * @param now the moment the tasks must come after
+     * @param count the maximum number of tasks to return
+     * @return up to count tasks, in date order
+     */
+    List<Task> getNextUpcomingTasks(LocalDateTime now, int count) {
+        long from = now.toEpochSecond(ZoneOffset.UTC);
+        int[] upcoming = new int[Math.max(count, 0)];
+        int found = 0;
+        for (int i = 0; i < size && count > 0; i++) {
+            if (types[i] != DEADLINE && types[i] != EVENT || starts[i] <= from) {
+                continue;
+            }
+            // Keep the earliest tasks seen so far in order, as insertion into a short sorted array
+            int slot = found;
+            while (slot > 0 && starts[upcoming[slot - 1]] > starts[i]) {
+                slot--;
+            }
+            if (slot == count) {
+                continue;
+            }
+            int kept = Math.min(found, count - 1);
+            System.arraycopy(upcoming, slot, upcoming, slot + 1, kept - slot);
+            upcoming[slot] = i;
+            found = Math.min(found + 1, count);
+        }
+        List<Task> tasks = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            tasks.add(get(upcoming[i]));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the events overlapping the period from one moment up to another, ordered by start,
+     * scanning only the type, start and end columns.
+     *
+     * @param from the start of the period
+     * @param to the end of the period, which is not part of it
+     * @return the overlapping events
+     */
+    List<Task> getEventsOverlapping(LocalDateTime from, LocalDateTime to) {
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        List<Task> events = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            // An event without length still occupies its starting second, as in IntervalIndex
+            if (types[i] == EVENT && starts[i] < toSecond && Math.max(ends[i], starts[i] + 1) > fromSecond) {
+                events.add(get(i));
+            }
+        }
+        events.sort((first, second) -> first.getDateTime().compareTo(second.getDateTime()));
+        return events;
+    }
+
+    private void write(int position, Task task) {
+        types[position] = typeOf(task);
+        ids[position] = task.getId();
+        starts[position] = task.hasDate() ? task.getDateTime().toEpochSecond(ZoneOffset.UTC) : 0;
+        ends[position] = task instanceof EventTask
+                ? ((EventTask) task).getEndDateTime().toEpochSecond(ZoneOffset.UTC)
+                : starts[position];
+        done.set(position, task.isDone());
+        descriptionCodes[position] = descriptions.encode(task.getDescription());
+        use(descriptionCodes[position]);
+    }
+
+    private void use(int code) {
+        if (code >= codeUses.length) {
+            codeUses = Arrays.copyOf(codeUses, Math.max(codeUses.length * 2, code + 1));
+        }
+        if (codeUses[code]++ == 0) {
+            usedCodes++;
+        }
+    }
+
+    /**
+     * Drops one use of a code that no task at a valid position holds any more, and rebuilds the
+     * dictionary once more than half of its codes are unused. Rebuilding costs one pass over the
+     * list and happens only after as many descriptions were dropped, so it is amortized.
+     */
+    private void release(int code) {
+        if (--codeUses[code] == 0) {
+            usedCodes--;
+        }
+        int unusedCodes = descriptions.size() - usedCodes;
+        if (unusedCodes > MIN_CAPACITY && unusedCodes > usedCodes) {
+            rebuildDictionary(descriptions);
+        }
+    }
+
+    /**
+     * Encodes the descriptions of the tasks again into a new dictionary, given the dictionary
+     * their current codes come from, so that only descriptions in use are kept.
+     */
+    private void rebuildDictionary(DescriptionDictionary previous) {
+        descriptions = new DescriptionDictionary();
+        codeUses = new int[MIN_CAPACITY];
+        usedCodes = 0;
+        for (int i = 0; i < size; i++) {
+            descriptionCodes[i] = descriptions.encode(previous.decode(descriptionCodes[i]));
+            use(descriptionCodes[i]);
+        }
+    }
+
+    /**
+     * Returns the number of descriptions in the dictionary, including any no task uses any more.
+     */
+    int getDescriptionCount() {
+        return descriptions.size();
+    }
+
+    private static byte typeOf(Task task) {
+        if (task instanceof ToDoTask) {
+            return TODO;
+        } else if (task instanceof DeadlineTask) {
+            return DEADLINE;
+        } else if (task instanceof EventTask) {
+            return EVENT;
+        }
+        return TASK;
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Moves the done flags from the given position onwards by the given distance.
+     */
+    private void shiftDone(int from, int distance) {
+        BitSet tail = done.get(from, size);
+        done.clear(Math.min(from, from + distance), size + Math.max(distance, 0));
+        for (int i = tail.nextSetBit(0); i >= 0; i = tail.nextSetBit(i + 1)) {
+            done.set(from + distance + i);
+        }
+    }
+
+    private void grow() {
+        int capacity = types.length + (types.length >> 1);
+        types = Arrays.copyOf(types, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+    }
+
+    private int checkPosition(int position, int bound) {
+        if (position < 0 || position >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,282 @@
+package wader.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import wader.task.Task;
+
+/**
+ * Reads and writes the block-compressed snapshot format. Tasks are grouped into blocks of a fixed
+ * number of records; each block holds the records in the text format and is compressed on its
+ * own with {@link Deflater}. A block index at the end of the file records where each block
+ * starts, so a single task can be read by inflating only its block, and a full load inflates the
+ * blocks in parallel.
+ *
+ * <p>The file starts with a header holding a magic number, the format version, the number of
+ * records per block and the number of tasks. It ends with the block index, one offset and
+ * compressed length per block, followed by the position of the index.
+ */
+public class CompressedSnapshot {
+    public static final int MAGIC = 0x5741445a; // "WADZ"
+    public static final short VERSION = 1;
+    public static final int DEFAULT_BLOCK_SIZE = 512;
+
+    private static final int HEADER_SIZE = 14;
+    private static final int FOOTER_SIZE = Long.BYTES;
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+    /**
+     * Checks whether the file at the given path starts with the compressed snapshot header.
+     *
+     * @param path the file to check
+     * @return true if the file is a compressed snapshot
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isCompressedSnapshot(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < HEADER_SIZE + FOOTER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(magic, 0);
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes the given tasks as a compressed snapshot to the output stream.
+     *
+     * @param tasks the tasks to write, in list order
+     * @param out the stream to write to; it is flushed but not closed
+     * @param blockSize the number of records in each block
+     * @throws IOException if writing fails
+     */
+    public static void write(List<Task> tasks, OutputStream out, int blockSize) throws IOException {
+        assert blockSize > 0 : "Block size must be positive";
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeInt(blockSize);
+        data.writeInt(tasks.size());
+
+        int blockCount = (tasks.size() + blockSize - 1) / blockSize;
+        long[] offsets = new long[blockCount];
+        int[] lengths = new int[blockCount];
+        long position = HEADER_SIZE;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1 << 16];
+        try {
+            for (int i = 0; i < blockCount; i++) {
+                block.reset();
+                Storage.writeText(tasks.subList(i * blockSize, Math.min((i + 1) * blockSize, tasks.size())), block);
+                deflater.reset();
+                deflater.setInput(block.toByteArray());
+                deflater.finish();
+                offsets[i] = position;
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    data.write(buffer, 0, length);
+                    lengths[i] += length;
+                }
+                position += lengths[i];
+            }
+        } finally {
+            deflater.end();
+        }
+
+        for (int i = 0; i < blockCount; i++) {
+            data.writeLong(offsets[i]);
+            data.writeInt(lengths[i]);
+        }
+        data.writeLong(position);
+        data.flush();
+    }
+
+    /**
+     * Loads a compressed snapshot, inflating and parsing its blocks in parallel.
+     *
+     * @param path the snapshot file
+     * @return a WaderList holding the tasks in their original order
+     * @throws IOException if the file cannot be read or is not a supported snapshot
+     */
+    public static WaderList read(Path path) throws IOException {
+        return read(path, null);
+    }
+
+    /**
+     * Loads a compressed snapshot like {@link #read(Path)}. A block that fails to inflate, which
+     * Deflate's own checksum detects, is quarantined as a whole and the remaining blocks are still
+     * loaded.
+     *
+     * @param path the snapshot file
+     * @param report the report damaged blocks are quarantined to, or null to fail on them
+     * @return a WaderList holding the intact tasks in their original order
+     * @throws IOException if the file cannot be read, is not a supported snapshot, or is damaged
+     *         and no report was given
+     */
+    public static WaderList read(Path path, RecoveryReport report) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Layout layout = readLayout(channel);
+            List<List<Task>> blocks;
+            try {
+                blocks = IntStream.range(0, layout.offsets.length).parallel()
+                        .mapToObj(i -> {
+                            try {
+                                return readBlock(channel, layout, i, report);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                        .toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            List<Task> tasks = new ArrayList<>(layout.count);
+            for (List<Task> block : blocks) {
+                tasks.addAll(block);
+            }
+            WaderList waderList = new WaderList();
+            waderList.addAll(tasks);
+            return waderList;
+        }
+    }
+
+    /**
+     * Reads a single task by inflating only the block that holds it.
+     *
+     * @param path the snapshot file
+     * @param index the 0-based task number
+     * @return the task stored at that position
+     * @throws IOException if the file cannot be read or the task is not in the snapshot
+     */
+    public static Task readTask(Path path, int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Layout layout = readLayout(channel);
+            if (index < 0 || index >= layout.count) {
+                throw new IOException("Task " + (index + 1) + " is not in the snapshot");
+            }
+            return readBlock(channel, layout, index / layout.blockSize).get(index % layout.blockSize);
+        }
+    }
+
+    private static Layout readLayout(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+        if (size < HEADER_SIZE + FOOTER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException("Not a compressed snapshot");
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        int blockSize = header.getInt();
+        int count = header.getInt();
+        long indexPosition = readFully(channel, size - FOOTER_SIZE, FOOTER_SIZE).getLong();
+        int blockCount = (int) ((size - FOOTER_SIZE - indexPosition) / INDEX_ENTRY_SIZE);
+        if (blockSize <= 0 || blockCount != (count + blockSize - 1) / blockSize) {
+            throw new IOException("Corrupt block index");
+        }
+        ByteBuffer index = readFully(channel, indexPosition, blockCount * INDEX_ENTRY_SIZE);
+        long[] offsets = new long[blockCount];
+        int[] lengths = new int[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            offsets[i] = index.getLong();
+            lengths[i] = index.getInt();
+        }
+        return new Layout(blockSize, count, offsets, lengths);
+    }
+
+    private static List<Task> readBlock(FileChannel channel, Layout layout, int block, RecoveryReport report)
+            throws IOException {
+        try {
+            return readBlock(channel, layout, block);
+        } catch (IOException e) {
+            if (report == null) {
+                throw e;
+            }
+            ByteBuffer compressed = readFully(channel, layout.offsets[block], layout.lengths[block]);
+            report.quarantine("compressed block " + block, Base64.getEncoder().encodeToString(compressed.array()));
+            return List.of();
+        }
+    }
+
+    private static List<Task> readBlock(FileChannel channel, Layout layout, int block) throws IOException {
+        ByteBuffer compressed = readFully(channel, layout.offsets[block], layout.lengths[block]);
+        int records = Math.min(layout.blockSize, layout.count - block * layout.blockSize);
+        Inflater inflater = new Inflater();
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        try {
+            inflater.setInput(compressed);
+            byte[] buffer = new byte[1 << 16];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated block " + block);
+                }
+                text.write(buffer, 0, length);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block + ": " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+
+        List<Task> tasks = new ArrayList<>(records);
+        for (String line : text.toString(StandardCharsets.UTF_8).split("\n")) {
+            try {
+                tasks.add(Storage.parseTaskFromString(line));
+            } catch (RuntimeException e) {
+                throw new IOException("Malformed record in block " + block);
+            }
+        }
+        if (tasks.size() != records) {
+            throw new IOException("Block " + block + " holds " + tasks.size() + " records, expected " + records);
+        }
+        return tasks;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Snapshot ends unexpectedly");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * The header fields and block index of a snapshot.
+     */
+    private static class Layout {
+        private final int blockSize;
+        private final int count;
+        private final long[] offsets;
+        private final int[] lengths;
+
+        Layout(int blockSize, int count, long[] offsets, int[] lengths) {
+            this.blockSize = blockSize;
+            this.count = count;
+            this.offsets = offsets;
+            this.lengths = lengths;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package wader.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import wader.task.Task;
+
+/**
+ * An index of the dated tasks ordered by their date and time, kept up to date as tasks are added
+ * and removed, so the next tasks after a moment are found in O(log n + k) rather than by sorting
+ * every dated task. Each task's date is converted once, when it is added, into a key of its epoch
+ * second and id; tasks due at the same moment are ordered by id, which is the order they were
+ * added in.
+ */
+class DateIndex {
+    private final NavigableMap<Key, Task> tasks = new TreeMap<>();
+
+    /**
+     * Adds a task to the index if it has a date.
+     *
+     * @param task the task, which must already have its id
+     */
+    void add(Task task) {
+        if (task.hasDate()) {
+            tasks.put(keyOf(task), task);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task the task
+     */
+    void remove(Task task) {
+        if (task.hasDate()) {
+            tasks.remove(keyOf(task));
+        }
+    }
+
+    /**
+     * Returns the first tasks dated strictly after the given moment, earliest first.
+     *
+     * @param now the moment the tasks must come after
+     * @param count the maximum number of tasks to return
+     * @return up to count tasks, in date order
+     */
+    List<Task> after(LocalDateTime now, int count) {
+        // Task dates have no fraction of a second, so a task is after now exactly when its second is
+        Key from = new Key(now.toEpochSecond(ZoneOffset.UTC), Long.MAX_VALUE);
+        List<Task> upcoming = new ArrayList<>(Math.min(count, tasks.size()));
+        for (Task task : tasks.tailMap(from, false).values()) {
+            if (upcoming.size() >= count) {
+                break;
+            }
+            upcoming.add(task);
+        }
+        return upcoming;
+    }
+
+    private static Key keyOf(Task task) {
+        return new Key(task.getDateTime().toEpochSecond(ZoneOffset.UTC), task.getId());
+    }
+
+    /**
+     * Orders tasks by epoch second, then by id.
+     */
+    private static class Key implements Comparable<Key> {
+        private final long epochSecond;
+        private final long id;
+
+        Key(long epochSecond, long id) {
+            this.epochSecond = epochSecond;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byTime = Long.compare(epochSecond, other.epochSecond);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+}
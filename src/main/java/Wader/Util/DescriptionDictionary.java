@@ -0,0 +1,103 @@
+package wader.util;
+
+import java.util.Arrays;
+
+/**
+ * Assigns each distinct task description a small integer code, so a description repeated across
+ * many tasks, such as "standup" or "pay rent", is stored once and tasks refer to it by code.
+ * Codes are handed out densely from 0 in the order descriptions are first seen, and two
+ * descriptions are equal exactly when their codes are, so equality filters can compare ints.
+ *
+ * <p>Entries are never removed. A list whose tasks stop using descriptions builds a new dictionary
+ * from the ones still in use instead, as {@link ColumnarTaskList} does.
+ */
+class DescriptionDictionary {
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] descriptions = new String[MIN_CAPACITY];
+    /** An open-addressing hash table of codes plus one, where 0 marks an empty slot. */
+    private int[] slots = new int[MIN_CAPACITY * 2];
+    private int size;
+
+    /**
+     * Returns the code of a description, adding it to the dictionary if it is new.
+     *
+     * @param description the description
+     * @return its code
+     */
+    int encode(String description) {
+        int slot = find(description);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        if (size == descriptions.length) {
+            grow();
+            slot = find(description);
+        }
+        descriptions[size] = description;
+        slots[slot] = ++size;
+        return size - 1;
+    }
+
+    /**
+     * Returns the code of a description without adding it.
+     *
+     * @param description the description
+     * @return its code, or -1 if the dictionary does not hold it
+     */
+    int codeOf(String description) {
+        return slots[find(description)] - 1;
+    }
+
+    /**
+     * Returns the description with the given code. Every task using the code gets the same String.
+     *
+     * @param code a code handed out by this dictionary
+     * @return the description
+     */
+    String decode(int code) {
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("Code: " + code + ", Size: " + size);
+        }
+        return descriptions[code];
+    }
+
+    /**
+     * Returns the number of distinct descriptions in the dictionary.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot holding the description, or the empty slot where it would go.
+     */
+    private int find(String description) {
+        int mask = slots.length - 1;
+        int slot = mix(description.hashCode()) & mask;
+        while (slots[slot] != 0 && !descriptions[slots[slot] - 1].equals(description)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity, keeping the table at most half full so probe sequences stay short.
+     */
+    private void grow() {
+        descriptions = Arrays.copyOf(descriptions, descriptions.length * 2);
+        slots = new int[descriptions.length * 2];
+        int mask = slots.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = mix(descriptions[code].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = code + 1;
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,346 @@
+package wader.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import wader.task.DeadlineTask;
+import wader.task.EventTask;
+import wader.task.Task;
+import wader.task.ToDoTask;
+
+/**
+ * Reads and writes the dictionary-encoded snapshot format, in which each distinct description is
+ * written once and tasks refer to it by its code in a {@link DescriptionDictionary}. Lists where
+ * the same descriptions recur, such as recurring chores and meetings, take far less space than in
+ * the other formats, and the tasks loaded from a snapshot share one String per description.
+ *
+ * <p>The file starts with a header holding a magic number, the format version, the number of
+ * descriptions and the number of tasks, followed by a CRC32C checksum of the header. The
+ * descriptions follow as length-prefixed UTF-8 strings in code order, then one record per task
+ * holding:
+ * <ul>
+ * <li>a type byte ({@code T}, {@code D} or {@code E}) and a done flag byte</li>
+ * <li>the code of the description</li>
+ * <li>the deadline, or the event start and end, as epoch minutes</li>
+ * </ul>
+ * Descriptions and records are written in blocks of up to {@link #BLOCK_SIZE} entries, each
+ * prefixed with its length in bytes and a CRC32C checksum of its contents. A damaged block costs
+ * only the tasks it holds, or whose description it holds, so the rest of the snapshot can still
+ * be recovered. Version 1 files, which have a single checksum over the whole file, are still read.
+ */
+public class DictionarySnapshot {
+    public static final int MAGIC = 0x57414456; // "WADV"
+    public static final short VERSION = 2;
+    public static final int BLOCK_SIZE = 256;
+
+    private static final int HEADER_SIZE = 14;
+    private static final int CHECKSUM_SIZE = Integer.BYTES;
+    private static final int BLOCK_PREFIX_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * Checks whether the file at the given path starts with the dictionary snapshot header.
+     *
+     * @param path the file to check
+     * @return true if the file is a dictionary snapshot
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isDictionarySnapshot(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < HEADER_SIZE + CHECKSUM_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(magic, 0);
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes the given tasks as a dictionary snapshot to the output stream.
+     *
+     * @param tasks the tasks to write, in list order
+     * @param out the stream to write to; it is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public static void write(List<Task> tasks, OutputStream out) throws IOException {
+        DescriptionDictionary dictionary = new DescriptionDictionary();
+        int[] codes = new int[tasks.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = dictionary.encode(tasks.get(i).getDescription());
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putInt(dictionary.size())
+                .putInt(tasks.size());
+        data.write(header.array());
+        data.writeInt(checksum(header.flip()));
+
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        DataOutputStream blockData = new DataOutputStream(block);
+        for (int first = 0; first < dictionary.size(); first += BLOCK_SIZE) {
+            block.reset();
+            for (int code = first; code < Math.min(first + BLOCK_SIZE, dictionary.size()); code++) {
+                byte[] description = dictionary.decode(code).getBytes(StandardCharsets.UTF_8);
+                blockData.writeInt(description.length);
+                blockData.write(description);
+            }
+            writeBlock(block, data);
+        }
+        for (int first = 0; first < codes.length; first += BLOCK_SIZE) {
+            block.reset();
+            for (int i = first; i < Math.min(first + BLOCK_SIZE, codes.length); i++) {
+                writeRecord(tasks.get(i), codes[i], blockData);
+            }
+            writeBlock(block, data);
+        }
+        data.flush();
+    }
+
+    /**
+     * Loads a dictionary snapshot, decoding each description once and sharing it between the tasks
+     * that use it.
+     *
+     * @param path the snapshot file
+     * @return a WaderList holding the tasks in their original order
+     * @throws IOException if the file cannot be read, is not a supported snapshot, or is damaged
+     */
+    public static WaderList read(Path path) throws IOException {
+        return read(path, null);
+    }
+
+    /**
+     * Loads a dictionary snapshot like {@link #read(Path)}, recovering what it can from a damaged
+     * file: a block that fails its checksum is quarantined and skipped, along with the records
+     * whose description was in a skipped block, and if a block length is out of range the rest of
+     * the file is counted as a torn tail. A damaged header, or any damage to a version 1 file,
+     * leaves nothing that can be trusted and still fails the load.
+     *
+     * @param path the snapshot file
+     * @param report the report recovery is recorded in, or null to fail on the first damaged block
+     * @return a WaderList holding the intact tasks in their original order
+     * @throws IOException if the file cannot be read, is not a supported snapshot, or is damaged
+     *         beyond what the report allows to be recovered
+     */
+    public static WaderList read(Path path, RecoveryReport report) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + CHECKSUM_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a dictionary snapshot");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a dictionary snapshot");
+            }
+            short version = buffer.getShort();
+            if (version == 1) {
+                return readVersion1(buffer);
+            }
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            if (checksum(buffer.slice(0, HEADER_SIZE)) != buffer.getInt(HEADER_SIZE)) {
+                throw new IOException("Header checksum mismatch");
+            }
+            String[] descriptions = new String[buffer.getInt()];
+            int count = buffer.getInt();
+            buffer.position(HEADER_SIZE + CHECKSUM_SIZE);
+
+            try {
+                BlockReader reader = new BlockReader(buffer, path, report);
+                for (int first = 0; first < descriptions.length; first += BLOCK_SIZE) {
+                    ByteBuffer block = reader.next("dictionary block " + first / BLOCK_SIZE);
+                    for (int code = first; block != null && block.hasRemaining(); code++) {
+                        byte[] bytes = new byte[block.getInt()];
+                        block.get(bytes);
+                        descriptions[code] = new String(bytes, StandardCharsets.UTF_8);
+                    }
+                }
+                List<Task> tasks = new ArrayList<>(count);
+                for (int first = 0; first < count; first += BLOCK_SIZE) {
+                    ByteBuffer block = reader.next("record block " + first / BLOCK_SIZE);
+                    for (int i = first; block != null && block.hasRemaining(); i++) {
+                        int start = block.position();
+                        Task task = readRecord(block, descriptions);
+                        if (task != null) {
+                            tasks.add(task);
+                        } else if (report != null) {
+                            byte[] record = new byte[block.position() - start];
+                            block.get(start, record);
+                            report.quarantine(path.getFileName() + " record " + (i + 1) + " (description lost)",
+                                    Base64.getEncoder().encodeToString(record));
+                        } else {
+                            throw new IOException("Description of task " + (i + 1) + " is lost");
+                        }
+                    }
+                }
+                WaderList waderList = new WaderList();
+                waderList.addAll(tasks);
+                return waderList;
+            } catch (RuntimeException e) {
+                // A record pointing outside its block or the dictionary, in a block that passed its checksum
+                throw new IOException("Malformed dictionary snapshot", e);
+            }
+        }
+    }
+
+    /**
+     * Reads a version 1 snapshot, which has a single checksum over the whole file, so any damage
+     * fails the load.
+     */
+    private static WaderList readVersion1(ByteBuffer buffer) throws IOException {
+        int body = buffer.limit() - CHECKSUM_SIZE;
+        if (checksum(buffer.slice(0, body)) != buffer.getInt(body)) {
+            throw new IOException("Checksum mismatch");
+        }
+        buffer.limit(body);
+
+        try {
+            String[] descriptions = new String[buffer.getInt()];
+            int count = buffer.getInt();
+            for (int code = 0; code < descriptions.length; code++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                descriptions[code] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            List<Task> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(readRecord(buffer, descriptions));
+            }
+            WaderList waderList = new WaderList();
+            waderList.addAll(tasks);
+            return waderList;
+        } catch (RuntimeException e) {
+            // A record pointing outside the file or the dictionary, in a file that passed its checksum
+            throw new IOException("Malformed dictionary snapshot", e);
+        }
+    }
+
+    private static void writeRecord(Task task, int code, DataOutputStream data) throws IOException {
+        char type = BinarySnapshot.typeOf(task);
+        data.writeByte(type);
+        data.writeByte(task.isDone() ? 1 : 0);
+        data.writeInt(code);
+        if (type != 'T') {
+            data.writeLong(BinarySnapshot.toEpochMinute(task.getDateTime()));
+        }
+        if (type == 'E') {
+            data.writeLong(BinarySnapshot.toEpochMinute(((EventTask) task).getEndDateTime()));
+        }
+    }
+
+    private static void writeBlock(ByteArrayOutputStream block, DataOutputStream data) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(block.toByteArray());
+        data.writeInt(block.size());
+        data.writeInt((int) crc.getValue());
+        block.writeTo(data);
+    }
+
+    /**
+     * Decodes one record, leaving the buffer's position at the start of the next one.
+     *
+     * @return the task, or null if its description was in a block that could not be read
+     */
+    private static Task readRecord(ByteBuffer buffer, String[] descriptions) throws IOException {
+        char type = (char) buffer.get();
+        boolean isDone = buffer.get() != 0;
+        String description = descriptions[buffer.getInt()];
+        Task task;
+        switch (type) {
+            case 'T':
+                task = description == null ? null : new ToDoTask(description);
+                break;
+            case 'D':
+                LocalDateTime by = BinarySnapshot.fromEpochMinute(buffer.getLong());
+                task = description == null ? null : new DeadlineTask(description, by);
+                break;
+            case 'E':
+                LocalDateTime from = BinarySnapshot.fromEpochMinute(buffer.getLong());
+                LocalDateTime to = BinarySnapshot.fromEpochMinute(buffer.getLong());
+                task = description == null ? null : new EventTask(description, from, to);
+                break;
+            default:
+                throw new IOException("Unknown task type '" + type + "' in snapshot");
+        }
+        if (task != null && isDone) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static int checksum(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Steps through the checksummed blocks of a snapshot, quarantining those that are damaged.
+     */
+    private static class BlockReader {
+        private final ByteBuffer buffer;
+        private final Path path;
+        private final RecoveryReport report;
+
+        BlockReader(ByteBuffer buffer, Path path, RecoveryReport report) {
+            this.buffer = buffer;
+            this.path = path;
+            this.report = report;
+        }
+
+        /**
+         * Returns the contents of the next block, or null if it is damaged or missing. Once a
+         * block length is out of range the blocks after it cannot be found, so the rest of the
+         * file is counted as torn and every later block is missing.
+         *
+         * @param name the name of the block, used when it is quarantined
+         * @throws IOException if the block is damaged or missing and there is no report
+         */
+        ByteBuffer next(String name) throws IOException {
+            int remaining = buffer.remaining();
+            int length = remaining < BLOCK_PREFIX_SIZE ? -1 : buffer.getInt(buffer.position());
+            if (length < 0 || BLOCK_PREFIX_SIZE + length > remaining) {
+                if (report == null) {
+                    throw new IOException("Snapshot ends inside " + name);
+                }
+                if (remaining > 0) {
+                    report.truncated(remaining);
+                    buffer.position(buffer.limit());
+                } else {
+                    report.quarantine(path.getFileName() + " " + name, "");
+                }
+                return null;
+            }
+            int expected = buffer.getInt(buffer.position() + Integer.BYTES);
+            ByteBuffer block = buffer.slice(buffer.position() + BLOCK_PREFIX_SIZE, length);
+            buffer.position(buffer.position() + BLOCK_PREFIX_SIZE + length);
+            if (checksum(block.duplicate()) != expected) {
+                if (report == null) {
+                    throw new IOException("Checksum mismatch in " + name);
+                }
+                byte[] bytes = new byte[length];
+                block.get(bytes);
+                report.quarantine(path.getFileName() + " " + name, Base64.getEncoder().encodeToString(bytes));
+                return null;
+            }
+            return block;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package wader.util;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a set of files through a {@link WatchService} and runs a callback on a background thread
+ * when any of them is created, replaced or modified. Events that arrive in a quick burst, such as
+ * the write and rename of an atomic save, are coalesced into a single callback once the files
+ * have been quiet for a few milliseconds.
+ */
+public class FileWatcher implements AutoCloseable {
+    public static final long DEFAULT_SETTLE_MILLIS = 5;
+
+    private final WatchService watchService;
+    private final Set<Path> watchedFiles = new HashSet<>();
+    private final Runnable onChange;
+    private final long settleMillis;
+    private final Thread thread;
+
+    /**
+     * Starts watching the given files. Their directories must exist; the files themselves need
+     * not.
+     *
+     * @param files the files to watch
+     * @param onChange the callback run after a burst of changes to any of the files
+     * @param settleMillis how long the files must be quiet before the callback runs
+     * @throws IOException if a directory cannot be watched
+     */
+    public FileWatcher(List<Path> files, Runnable onChange, long settleMillis) throws IOException {
+        this.onChange = onChange;
+        this.settleMillis = settleMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new HashSet<>();
+        for (Path file : files) {
+            Path absolute = file.toAbsolutePath().normalize();
+            watchedFiles.add(absolute);
+            directories.add(absolute.getParent());
+        }
+        try {
+            for (Path directory : directories) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        this.thread = new Thread(this::watch, "wader-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching and ends the background thread.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!isRelevant(watchService.take())) {
+                    continue;
+                }
+                // Wait for the burst of events to settle, so the callback sees the finished files
+                WatchKey next = watchService.poll(settleMillis, TimeUnit.MILLISECONDS);
+                while (next != null) {
+                    isRelevant(next);
+                    next = watchService.poll(settleMillis, TimeUnit.MILLISECONDS);
+                }
+                try {
+                    onChange.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Handling a file change failed: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed; stop watching
+        }
+    }
+
+    /**
+     * Drains the events of a key and checks whether any of them concern a watched file. An
+     * overflow means events were lost, so it counts as relevant.
+     */
+    private boolean isRelevant(WatchKey key) {
+        boolean isRelevant = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || watchedFiles.contains(directory.resolve((Path) event.context()))) {
+                isRelevant = true;
+            }
+        }
+        key.reset();
+        return isRelevant;
+    }
+}
@@ -0,0 +1,31 @@
+package wader.util;
+
+/**
+ * A storage backend that keeps the saved list in memory only. It never touches the disk, so it
+ * suits tests and benchmarks that should measure command handling rather than I/O. Saved tasks
+ * are lost when the program exits.
+ */
+public class InMemoryStorage implements StorageBackend {
+    private WaderList saved = new WaderList();
+
+    /**
+     * Returns a copy of the most recently saved list, so that changes to it do not leak into what
+     * is stored.
+     *
+     * @return a copy of the saved tasks, or an empty list if nothing has been saved
+     */
+    @Override
+    public synchronized WaderList load() {
+        return saved.copy();
+    }
+
+    /**
+     * Stores a copy of the given list, replacing what was saved before.
+     *
+     * @param waderList the list to save
+     */
+    @Override
+    public synchronized void save(WaderList waderList) {
+        saved = waderList.copy();
+    }
+}
@@ -0,0 +1,174 @@
+package wader.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import wader.task.EventTask;
+import wader.task.Task;
+
+/**
+ * An interval tree over the spans of event tasks, kept up to date as tasks are added and removed,
+ * so the events overlapping a period are found in O(log n + k) rather than by checking every
+ * event. Events are ordered by start and id, and each node records the latest end in its subtree,
+ * which lets a search skip every subtree that ends before the period begins.
+ *
+ * <p>The tree is a treap, like {@link OrderStatisticTaskList}, balanced by random priorities.
+ * Spans are half-open, so an event ending at 2pm does not overlap one starting at 2pm; an event
+ * that starts and ends at the same moment overlaps any period containing that moment.
+ */
+class IntervalIndex {
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    /**
+     * Adds a task to the index if it is an event.
+     *
+     * @param task the task, which must already have its id
+     */
+    void add(Task task) {
+        if (task instanceof EventTask) {
+            Node node = new Node((EventTask) task, random.nextInt());
+            Node[] parts = split(root, node.start, node.id);
+            root = merge(merge(parts[0], node), parts[1]);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task the task
+     */
+    void remove(Task task) {
+        if (task instanceof EventTask) {
+            root = remove(root, secondOf(task.getDateTime()), task.getId());
+        }
+    }
+
+    /**
+     * Returns the events overlapping the period from one moment up to another, ordered by start.
+     *
+     * @param from the start of the period
+     * @param to the end of the period, which is not part of it
+     * @return the overlapping events
+     */
+    List<Task> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Task> events = new ArrayList<>();
+        collect(root, secondOf(from), secondOf(to), events);
+        return events;
+    }
+
+    private static void collect(Node node, long from, long to, List<Task> events) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collect(node.left, from, to, events);
+        if (node.start >= to) {
+            // Everything to the right starts even later
+            return;
+        }
+        if (node.end > from) {
+            events.add(node.event);
+        }
+        collect(node.right, from, to, events);
+    }
+
+    /**
+     * Splits a subtree into the nodes ordered before the given start and id, and the rest.
+     */
+    private static Node[] split(Node node, long start, long id) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (node.isBefore(start, id)) {
+            Node[] parts = split(node.right, start, id);
+            node.right = parts[0];
+            node.update();
+            return new Node[] {node, parts[1]};
+        }
+        Node[] parts = split(node.left, start, id);
+        node.left = parts[1];
+        node.update();
+        return new Node[] {parts[0], node};
+    }
+
+    /**
+     * Joins two subtrees whose nodes are all in order, keeping the heap order of priorities.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node remove(Node node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        if (node.start == start && node.id == id) {
+            return merge(node.left, node.right);
+        }
+        if (node.isBefore(start, id)) {
+            node.right = remove(node.right, start, id);
+        } else {
+            node.left = remove(node.left, start, id);
+        }
+        node.update();
+        return node;
+    }
+
+    private static long secondOf(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * A tree node holding one event and the latest end among its subtree.
+     */
+    private static class Node {
+        private final EventTask event;
+        private final long start;
+        private final long end;
+        private final long id;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(EventTask event, int priority) {
+            this.event = event;
+            this.start = secondOf(event.getDateTime());
+            // An event without length still occupies its starting second
+            this.end = Math.max(secondOf(event.getEndDateTime()), start + 1);
+            this.id = event.getId();
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        boolean isBefore(long otherStart, long otherId) {
+            return start < otherStart || start == otherStart && id < otherId;
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null) {
+                maxEnd = Math.max(maxEnd, left.maxEnd);
+            }
+            if (right != null) {
+                maxEnd = Math.max(maxEnd, right.maxEnd);
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package wader.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only write-ahead journal of mutating commands. Each record is a single command line
+ * that is appended and forced to disk before the command is acknowledged, so that the task list
+ * can be rebuilt after a crash by replaying the journal over the last snapshot.
+ *
+ * <p>Records are numbered with an increasing sequence number. When journals are folded together
+ * a record may briefly exist twice, so readers skip any record whose number they have already
+ * seen. Each record also carries a CRC32C checksum of its command, written as
+ * {@code <sequence>:<checksum> <command>}, so that a damaged record is detected rather than
+ * replayed. Records written before checksums were added are still accepted.
+ */
+public class Journal {
+    private final Path path;
+    private final Path rotatedPath;
+    private FileChannel channel;
+    private long size;
+    private long nextSequence;
+
+    /**
+     * Constructs a Journal stored at the given path. The file is opened lazily on the first
+     * append.
+     *
+     * @param path the path of the active journal file
+     */
+    public Journal(Path path) {
+        this.path = path;
+        this.rotatedPath = Path.of(path + ".old");
+    }
+
+    /**
+     * Appends a record to the journal and forces it to disk.
+     *
+     * @param record the command line to record; must not contain line breaks
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void append(String record) throws IOException {
+        assert record.indexOf('\n') == -1 : "Journal records must be single lines";
+        if (channel == null) {
+            open();
+        }
+        String line = nextSequence++ + ":" + checksum(record) + " " + record + "\n";
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Returns the number of bytes currently held in the active journal.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Checks whether a rotated journal is still waiting for its snapshot to be written.
+     *
+     * @return true if a rotated journal exists
+     */
+    public boolean hasRotated() {
+        return Files.exists(rotatedPath);
+    }
+
+    /**
+     * Moves the active journal aside so that new records go to an empty journal. The rotated
+     * journal is kept until the snapshot covering it has been written. If an earlier rotated
+     * journal was never discarded, the active records are folded into it instead.
+     *
+     * @throws IOException if the journal cannot be moved
+     */
+    public synchronized void rotate() throws IOException {
+        close();
+        if (Files.exists(path) && hasRotated()) {
+            Path merged = Path.of(rotatedPath + ".tmp");
+            try (FileChannel out = FileChannel.open(merged, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(ByteBuffer.wrap(Files.readAllBytes(rotatedPath)));
+                out.write(ByteBuffer.wrap(Files.readAllBytes(path)));
+                out.force(true);
+            }
+            Files.move(merged, rotatedPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(path);
+        } else if (Files.exists(path)) {
+            Files.move(path, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        size = 0;
+    }
+
+    /**
+     * Deletes the rotated journal once a snapshot covering it is durable.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    public void discardRotated() throws IOException {
+        Files.deleteIfExists(rotatedPath);
+    }
+
+    /**
+     * Reads all complete records, oldest first, from the rotated journal followed by the active
+     * journal. Commands refer to tasks by position, so replaying past a missing command would apply
+     * the commands after it to the wrong tasks; reading therefore stops at the first record that
+     * is damaged or whose sequence number skips ahead. A trailing record without a line terminator
+     * was torn by a crash and is ignored. The files are left untouched.
+     *
+     * @return the journaled command lines in the order they were appended
+     * @throws IOException if a journal file cannot be read
+     */
+    public synchronized List<String> readRecords() throws IOException {
+        return readRecords(null);
+    }
+
+    /**
+     * Reads all complete records like {@link #readRecords()}, and repairs the journal so that later
+     * appends follow the last record read: the records from the first damaged one onwards are
+     * quarantined and cut off, and so is a torn trailing record. Both are noted in the given
+     * report. Later appends continue numbering after the last record read.
+     *
+     * @param report the report recovery is recorded in, or null to leave the files untouched
+     * @return the journaled command lines in the order they were appended
+     * @throws IOException if a journal file cannot be read or repaired
+     */
+    public synchronized List<String> readRecords(RecoveryReport report) throws IOException {
+        close();
+        List<String> records = new ArrayList<>();
+        ReadState state = new ReadState();
+        readRecords(rotatedPath, state, records, report);
+        readRecords(path, state, records, report);
+        nextSequence = Math.max(state.next, 0);
+        if (channel == null) {
+            size = Files.exists(path) ? Files.size(path) : 0;
+        }
+        return records;
+    }
+
+    /**
+     * Closes the underlying file channel if it is open.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    /**
+     * Reads the records of one journal file that follow the records already read. Once a damaged
+     * record or a gap in the sequence numbers is found, nothing more is read from this or any
+     * later file.
+     */
+    private static void readRecords(Path file, ReadState state, List<String> records, RecoveryReport report)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int start = 0;
+        int end = indexOf(bytes, start);
+        while (end != -1 && !state.isDamaged) {
+            String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            int separator = line.indexOf(' ');
+            String header = line.substring(0, Math.max(separator, 0));
+            int checksumStart = header.indexOf(':');
+            String record = line.substring(separator + 1);
+            long sequence;
+            try {
+                sequence = Long.parseLong(checksumStart == -1 ? header : header.substring(0, checksumStart));
+            } catch (NumberFormatException e) {
+                sequence = -1;
+            }
+            boolean isIntact = sequence >= 0
+                    && (checksumStart == -1 || header.substring(checksumStart + 1).equals(checksum(record)));
+            if (!isIntact || (state.next >= 0 && sequence > state.next)) {
+                state.isDamaged = true;
+                break;
+            }
+            if (sequence >= state.next) {
+                records.add(record);
+                state.next = sequence + 1;
+            }
+            start = end + 1;
+            end = indexOf(bytes, start);
+        }
+        if (report == null || start == bytes.length) {
+            return;
+        }
+        int kept = start;
+        while (end != -1) {
+            report.quarantine(file.getFileName() + " unreplayed",
+                    new String(bytes, start, end - start, StandardCharsets.UTF_8));
+            start = end + 1;
+            end = indexOf(bytes, start);
+        }
+        // Cut off everything that was not read, so later appends follow the last record read
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(kept);
+            channel.force(true);
+        }
+        if (start < bytes.length) {
+            report.truncated(bytes.length - start);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String checksum(String record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Tracks how far reading has got across the journal files.
+     */
+    private static class ReadState {
+        /** The sequence number the next record must have, or -1 before the first record is read. */
+        private long next = -1;
+        private boolean isDamaged;
+    }
+}
@@ -0,0 +1,211 @@
+package wader.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import wader.task.Task;
+
+/**
+ * A task list backed by the records of a snapshot file that creates Task objects only when they
+ * are accessed. Loading it costs one scan for the {@link OffsetIndex}; tasks are then read and
+ * parsed on demand and kept in a bounded least-recently-used cache, so memory depends on the
+ * tasks in use rather than on the size of the file. The list reads through an open channel on
+ * the snapshot until it is closed.
+ *
+ * <p>The list stays authoritative for completion status: when a changed task is evicted its done
+ * flag is kept in a bitmap and applied again the next time the task is read. Tasks added after
+ * loading are not in the snapshot and are held in memory.
+ */
+class LazyTaskList extends AbstractList<Task> implements RandomAccess, AutoCloseable {
+    private FileChannel channel;
+    private OffsetIndex index;
+    /** The id of each snapshot record, or null while each record's id is its record number. */
+    private long[] recordIds;
+    private final Map<Integer, Task> cache;
+    private final BitSet hasDoneOverride = new BitSet();
+    private final BitSet doneOverrides = new BitSet();
+    private final List<Task> added = new ArrayList<>();
+
+    /** Each entry is a snapshot record number, or -(k + 1) for the k-th task in {@code added}. */
+    private int[] entries;
+    private int size;
+
+    /**
+     * Constructs a list over every record in the snapshot.
+     *
+     * @param channel an open, readable channel on the snapshot; it is kept open until the list is
+     *        closed or rebased, so the records stay readable even if the snapshot is replaced
+     * @param index the offset index of the snapshot
+     * @param cacheSize the maximum number of snapshot tasks kept in memory at once
+     */
+    LazyTaskList(FileChannel channel, OffsetIndex index, int cacheSize) {
+        assert cacheSize > 0 : "Cache size must be positive";
+        this.channel = channel;
+        this.index = index;
+        this.size = index.size();
+        this.entries = new int[Math.max(size, 16)];
+        for (int i = 0; i < size; i++) {
+            entries[i] = i;
+        }
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task> eldest) {
+                if (size() <= cacheSize) {
+                    return false;
+                }
+                hasDoneOverride.set(eldest.getKey());
+                doneOverrides.set(eldest.getKey(), eldest.getValue().isDone());
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public Task get(int position) {
+        int entry = entries[checkPosition(position, size)];
+        return entry < 0 ? added.get(-entry - 1) : materialize(entry);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task set(int position, Task task) {
+        Task previous = get(position);
+        release(entries[position]);
+        entries[position] = hold(task);
+        return previous;
+    }
+
+    @Override
+    public void add(int position, Task task) {
+        checkPosition(position, size + 1);
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        System.arraycopy(entries, position, entries, position + 1, size - position);
+        entries[position] = hold(task);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int position) {
+        Task removed = get(position);
+        release(entries[position]);
+        System.arraycopy(entries, position + 1, entries, position, size - position - 1);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    private Task materialize(int record) {
+        Task task = cache.get(record);
+        if (task != null) {
+            return task;
+        }
+        try {
+            task = index.readTask(channel, record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        task.setId(recordIds == null ? record : recordIds[record]);
+        if (hasDoneOverride.get(record)) {
+            if (doneOverrides.get(record)) {
+                task.markAsDone();
+            } else {
+                task.markAsNotDone();
+            }
+        }
+        cache.put(record, task);
+        return task;
+    }
+
+    /**
+     * Moves the list onto a snapshot that was just written from it, one record per task in list
+     * order, and closes the channel on the snapshot it read before. Tasks in memory stay in
+     * memory, every task keeps its id, and tasks added since loading become records of the new
+     * snapshot.
+     *
+     * @param channel an open, readable channel on the new snapshot
+     * @param index the offset index of the new snapshot
+     */
+    void rebase(FileChannel channel, OffsetIndex index) {
+        assert index.size() == size : "The snapshot must hold one record per task";
+        long[] ids = new long[size];
+        Map<Integer, Task> kept = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            int entry = entries[i];
+            Task task = entry < 0 ? added.get(-entry - 1) : cache.get(entry);
+            if (task != null) {
+                ids[i] = task.getId();
+                kept.put(i, task);
+            } else {
+                ids[i] = recordIds == null ? entry : recordIds[entry];
+            }
+            entries[i] = i;
+        }
+        FileChannel previous = this.channel;
+        this.channel = channel;
+        this.index = index;
+        this.recordIds = ids;
+        // The new snapshot holds the status of every task, so no override is needed
+        added.clear();
+        cache.clear();
+        hasDoneOverride.clear();
+        doneOverrides.clear();
+        cache.putAll(kept);
+        closeChannel(previous);
+    }
+
+    /**
+     * Closes the channel on the snapshot. Tasks that are not in memory can no longer be read.
+     */
+    @Override
+    public void close() {
+        closeChannel(channel);
+    }
+
+    private static void closeChannel(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int hold(Task task) {
+        added.add(task);
+        return -added.size();
+    }
+
+    /**
+     * Drops the memory held for an entry that is leaving the list.
+     */
+    private void release(int entry) {
+        if (entry < 0) {
+            added.set(-entry - 1, null);
+        } else {
+            cache.remove(entry);
+        }
+    }
+
+    private int checkPosition(int position, int bound) {
+        if (position < 0 || position >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,703 @@
+package wader.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import wader.task.Task;
+
+/**
+ * A log-structured storage backend that keys every task by its id. Each change is appended to a
+ * write-ahead {@link Journal} and applied to an in-memory memtable; once the memtable holds enough
+ * changes it is flushed to an immutable run file sorted by id. Deleting a task writes a tombstone
+ * rather than rewriting anything, so the cost of a change depends only on the change itself.
+ *
+ * <p>Loading merges the runs, newest first, and replays the journal on top. When too many runs
+ * build up they are merged into one in the background, which also drops tombstones. The runs in
+ * use are listed in a manifest that is replaced atomically, so a crash during a flush or merge
+ * leaves the previous runs readable.
+ *
+ * <p>Task ids only ever grow as tasks are added, so ordering tasks by id gives the list order. The
+ * manifest also records the next id to hand out, so the ids of deleted tasks are never reused,
+ * even after a restart. A list whose ids are out of order is given fresh ids when it is saved.
+ *
+ * <p>The store keeps the id and a fingerprint of every task it holds, in list order. Saving a
+ * list the store was not told about change by change, such as a copy taken by a background saver,
+ * compares the list with them and writes only the tasks that were added, changed or deleted.
+ *
+ * <p>The runs a background merge reads and the run it writes belong to the merge until it
+ * finishes: a rewrite or a cleanup of leftover runs skips them, and the merge deletes any that
+ * are no longer listed once it is done.
+ */
+public class LsmStorage implements StorageBackend {
+    public static final int DEFAULT_MEMTABLE_LIMIT = 4096;
+    public static final int DEFAULT_MAX_RUNS = 4;
+
+    private static final String MANIFEST_HEADER = "wader-lsm 2";
+    /** The manifest written before the next id was recorded, which is still read. */
+    private static final String OLD_MANIFEST_HEADER = "wader-lsm 1";
+    private static final String PUT = "P";
+    private static final String DELETE = "D";
+
+    private static final ExecutorService MERGER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wader-merger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path directory;
+    private final Path manifestPath;
+    private final Journal journal;
+    private final int memtableLimit;
+    private final int maxRuns;
+
+    /** Changes not yet flushed to a run; a null value is a tombstone. */
+    private final NavigableMap<Long, String> memtable = new TreeMap<>();
+    /** The run files in use, newest first. */
+    private List<String> runNames = new ArrayList<>();
+    private long nextRunNumber;
+    /** Above every id the store has ever held, including those of deleted tasks. */
+    private long nextId;
+    private Future<?> pendingMerge;
+    /** The run files an in-flight background merge reads or writes, which nothing else may delete. */
+    private Set<String> mergeFiles = Set.of();
+    private WaderList trackedList;
+    private RecoveryReport recoveryReport;
+    /** The ids of the stored tasks in list order, so a delete by position can find its key. */
+    private long[] ids = new long[16];
+    /** Fingerprints of the stored tasks, in the same order as their ids. */
+    private long[] fingerprints = new long[16];
+    private int idCount;
+
+    /**
+     * Constructs an LsmStorage that keeps its files in a directory next to the given path.
+     *
+     * @param filePath the path the store directory is derived from
+     */
+    public LsmStorage(String filePath) {
+        this(filePath, DEFAULT_MEMTABLE_LIMIT, DEFAULT_MAX_RUNS);
+    }
+
+    /**
+     * Constructs an LsmStorage with the given flush and merge thresholds.
+     *
+     * @param filePath the path the store directory is derived from
+     * @param memtableLimit the number of changed tasks held in memory before they are flushed
+     * @param maxRuns the number of run files allowed before they are merged in the background
+     */
+    public LsmStorage(String filePath, int memtableLimit, int maxRuns) {
+        assert memtableLimit > 0 && maxRuns > 0 : "Thresholds must be positive";
+        this.directory = Path.of(filePath + ".lsm");
+        this.manifestPath = directory.resolve("manifest");
+        this.journal = new Journal(directory.resolve("journal"));
+        this.memtableLimit = memtableLimit;
+        this.maxRuns = maxRuns;
+    }
+
+    /**
+     * Loads every task in the store by merging the runs and replaying the journal. Each task
+     * gets the id it is stored under, and tasks added to the list later get ids above any the
+     * store has held.
+     *
+     * @return a WaderList containing all stored tasks, ordered by id
+     * @throws DukeException if the store cannot be read
+     */
+    @Override
+    public synchronized WaderList load() throws DukeException {
+        NavigableMap<Long, String> merged = new TreeMap<>();
+        recoveryReport = new RecoveryReport(directory.resolve("quarantine"));
+        try {
+            readManifest();
+            mergeRuns(runNames, merged::put);
+            memtable.clear();
+            for (String record : journal.readRecords(recoveryReport)) {
+                applyRecord(record, memtable);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new DukeException("An error occurred while loading the task store: " + e.getMessage());
+        }
+        for (Map.Entry<Long, String> change : memtable.entrySet()) {
+            nextId = Math.max(nextId, change.getKey() + 1);
+            if (change.getValue() == null) {
+                merged.remove(change.getKey());
+            } else {
+                merged.put(change.getKey(), change.getValue());
+            }
+        }
+
+        List<Task> tasks = new ArrayList<>(merged.size());
+        idCount = 0;
+        for (Map.Entry<Long, String> entry : merged.entrySet()) {
+            Task task;
+            try {
+                task = Storage.parseTaskFromString(entry.getValue());
+            } catch (RuntimeException e) {
+                throw new DukeException("Malformed task " + entry.getKey() + " in the task store: " + e.getMessage());
+            }
+            task.setId(entry.getKey());
+            tasks.add(task);
+            trackId(idCount, entry.getKey(), entry.getValue());
+            nextId = Math.max(nextId, entry.getKey() + 1);
+        }
+        WaderList waderList = new WaderList(new OrderStatisticTaskList(), nextId);
+        waderList.addAll(tasks);
+        trackedList = waderList;
+        return waderList;
+    }
+
+    /**
+     * Compares the given list with the tasks the store holds and flushes its changes, along with
+     * those held in memory, to a run file. A list whose ids are out of order, or one saved before
+     * anything was loaded, is written in full as a single run that replaces everything stored
+     * before.
+     *
+     * @param waderList the WaderList to save
+     * @throws DukeException if a run or the manifest cannot be written
+     */
+    @Override
+    public synchronized void save(WaderList waderList) throws DukeException {
+        try {
+            if (trackedList != null && hasIdsInOrder(waderList.tasksView())) {
+                saveChanges(waderList);
+            } else {
+                rewrite(waderList);
+            }
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while saving the task store: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stores the task a mutating command has just changed under its id. The change is forced to
+     * the journal before returning, and the memtable is flushed to a new run once it is full.
+     *
+     * @param command the command line that was applied
+     * @param waderList the list after the command was applied
+     * @throws DukeException if the change cannot be written
+     */
+    @Override
+    public synchronized void record(String command, WaderList waderList) throws DukeException {
+        if (waderList != trackedList) {
+            save(waderList);
+            return;
+        }
+        String record;
+        try {
+            record = toRecord(command, waderList.tasksView());
+        } catch (DukeException | IndexOutOfBoundsException e) {
+            return;
+        }
+        if (record == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            journal.append(record);
+            applyRecord(record, memtable);
+            // The memtable is sorted by id, so its last key is the highest id recorded since the flush
+            nextId = Math.max(nextId, memtable.lastKey() + 1);
+            if (memtable.size() >= memtableLimit) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while writing the task store: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for a background merge, if one is running, to finish.
+     *
+     * @throws DukeException if the merge failed
+     */
+    public void awaitMerge() throws DukeException {
+        Future<?> merge;
+        synchronized (this) {
+            merge = pendingMerge;
+        }
+        if (merge == null) {
+            return;
+        }
+        try {
+            merge.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new DukeException("An error occurred while merging the task store: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Returns what the most recent load cut out of the journal, so that it can be reported to the
+     * user.
+     *
+     * @return the recovery report of the last load, or null if nothing has been loaded
+     */
+    @Override
+    public synchronized RecoveryReport getRecoveryReport() {
+        return recoveryReport;
+    }
+
+    /**
+     * Returns the number of run files currently in use.
+     */
+    public synchronized int getRunCount() {
+        return runNames.size();
+    }
+
+    /**
+     * Turns a command applied to the tracked list into a journal record keyed by task id, and
+     * keeps the position-to-id mirror in step with the list.
+     */
+    private String toRecord(String command, List<Task> tasks) throws DukeException {
+        switch (Parser.parse(command).getType()) {
+            case TODO:
+            case DEADLINE:
+            case EVENT:
+                Task added = tasks.get(tasks.size() - 1);
+                String line = added.toString();
+                trackId(idCount, added.getId(), line);
+                return PUT + " " + added.getId() + " " + line;
+            case MARK:
+                return putRecord(tasks, Parser.parseTaskIndex(command, "mark"));
+            case UNMARK:
+                return putRecord(tasks, Parser.parseTaskIndex(command, "unmark"));
+            case DELETE:
+                int index = Parser.parseDeleteIndex(command);
+                if (index < 0 || index >= idCount) {
+                    return null;
+                }
+                long id = ids[index];
+                System.arraycopy(ids, index + 1, ids, index, idCount - index - 1);
+                System.arraycopy(fingerprints, index + 1, fingerprints, index, idCount - index - 1);
+                idCount--;
+                return DELETE + " " + id;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the put record of the task at the given position, and updates the fingerprint the
+     * store keeps of it.
+     */
+    private String putRecord(List<Task> tasks, int index) {
+        Task task = tasks.get(index);
+        String line = task.toString();
+        if (index < idCount) {
+            fingerprints[index] = fingerprint(line);
+        }
+        return PUT + " " + task.getId() + " " + line;
+    }
+
+    /**
+     * Applies one journal or run record to the given map.
+     */
+    private static void applyRecord(String record, Map<Long, String> target) throws IOException {
+        String[] parts = splitRecord(record);
+        target.put(Long.parseLong(parts[1]), parts.length == 3 ? parts[2] : null);
+    }
+
+    /**
+     * Splits a record into its kind, id and, for a put, the task line.
+     */
+    private static String[] splitRecord(String record) throws IOException {
+        String[] parts = record.split(" ", 3);
+        boolean isPut = parts[0].equals(PUT) && parts.length == 3;
+        boolean isDelete = parts[0].equals(DELETE) && parts.length == 2;
+        if (!isPut && !isDelete || !parts[1].chars().allMatch(Character::isDigit)) {
+            throw new IOException("Malformed record: " + record);
+        }
+        return parts;
+    }
+
+    private void trackId(int position, long id, String line) {
+        if (position == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            fingerprints = Arrays.copyOf(fingerprints, ids.length);
+        }
+        ids[position] = id;
+        fingerprints[position] = fingerprint(line);
+        idCount = position + 1;
+    }
+
+    /**
+     * Returns a 64-bit FNV-1a hash of a task line, so that a changed task can be told apart from an
+     * unchanged one without keeping the line.
+     */
+    private static long fingerprint(String line) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            hash = (hash ^ line.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static boolean hasIdsInOrder(List<Task> tasks) {
+        for (int i = 1; i < tasks.size(); i++) {
+            if (tasks.get(i).getId() <= tasks.get(i - 1).getId()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Flushes the differences between the given list, whose ids are in order, and the tasks the
+     * store holds: tasks that are new or whose line changed are written, and stored tasks the list
+     * no longer has are deleted. The list is tracked from then on.
+     */
+    private void saveChanges(WaderList waderList) throws IOException {
+        List<Task> tasks = waderList.tasksView();
+        long[] storedIds = ids;
+        long[] storedFingerprints = fingerprints;
+        int storedCount = idCount;
+        ids = new long[Math.max(16, tasks.size())];
+        fingerprints = new long[ids.length];
+        idCount = 0;
+        int stored = 0;
+        for (Task task : tasks) {
+            long id = task.getId();
+            String line = task.toString();
+            while (stored < storedCount && storedIds[stored] < id) {
+                memtable.put(storedIds[stored++], null);
+            }
+            boolean isStored = stored < storedCount && storedIds[stored] == id;
+            trackId(idCount, id, line);
+            if (!isStored || storedFingerprints[stored] != fingerprints[idCount - 1]) {
+                memtable.put(id, line);
+            }
+            if (isStored) {
+                stored++;
+            }
+            nextId = Math.max(nextId, id + 1);
+        }
+        while (stored < storedCount) {
+            memtable.put(storedIds[stored++], null);
+        }
+        trackedList = waderList;
+        flush();
+    }
+
+    /**
+     * Writes the memtable as a new run, lists it in the manifest and empties the journal it came
+     * from. Replaying a journal whose changes are already in a run is harmless, so a crash between
+     * the steps loses nothing.
+     */
+    private void flush() throws IOException {
+        if (memtable.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        String name = "run-" + nextRunNumber++;
+        writeDurably(directory.resolve(name), out -> writeRun(memtable.entrySet().iterator(), out));
+        List<String> names = new ArrayList<>(runNames.size() + 1);
+        names.add(name);
+        names.addAll(runNames);
+        writeManifest(names);
+        runNames = names;
+        resetJournal();
+        memtable.clear();
+        scheduleMerge();
+    }
+
+    /**
+     * Replaces the whole store with a single run holding the given list. Ids normally grow along
+     * the list; a task whose id does not is given a fresh one, both in the store and in the list,
+     * so that later changes to it are recorded under the same key.
+     */
+    private void rewrite(WaderList waderList) throws IOException {
+        Files.createDirectories(directory);
+        if (trackedList == null) {
+            readManifest();
+        }
+        List<Task> tasks = waderList.tasksView();
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        TreeMap<Long, String> entries = new TreeMap<>();
+        idCount = 0;
+        long previous = -1;
+        for (int i = 0; i < tasks.size(); i++) {
+            long id = tasks.get(i).getId();
+            if (id <= previous) {
+                id = nextId++;
+                waderList.changeId(i, id);
+            }
+            entries.put(id, tasks.get(i).toString());
+            trackId(idCount, id, entries.get(id));
+            previous = id;
+        }
+        String name = "run-" + nextRunNumber++;
+        writeDurably(directory.resolve(name), out -> writeRun(entries.entrySet().iterator(), out));
+        List<String> obsolete = runNames;
+        writeManifest(List.of(name));
+        runNames = new ArrayList<>(List.of(name));
+        resetJournal();
+        memtable.clear();
+        for (String old : obsolete) {
+            // A run a merge is still reading is deleted by the merge once it finishes
+            if (!mergeFiles.contains(old)) {
+                Files.deleteIfExists(directory.resolve(old));
+            }
+        }
+        trackedList = waderList;
+    }
+
+    private void resetJournal() throws IOException {
+        journal.rotate();
+        journal.discardRotated();
+    }
+
+    /**
+     * Starts merging every run into one in the background once there are too many of them.
+     * Because all runs take part, tombstones have nothing older left to hide and are dropped.
+     */
+    private void scheduleMerge() {
+        boolean isMerging = pendingMerge != null && !pendingMerge.isDone();
+        if (runNames.size() <= maxRuns || isMerging) {
+            return;
+        }
+        List<String> inputs = List.copyOf(runNames);
+        String output = "run-" + nextRunNumber++;
+        Set<String> files = new HashSet<>(inputs);
+        files.add(output);
+        mergeFiles = files;
+        pendingMerge = MERGER.submit(() -> {
+            boolean isWritten = false;
+            try {
+                Path target = directory.resolve(output);
+                writeDurably(target, out -> {
+                    Writer run = runWriter(out);
+                    mergeRuns(inputs, (id, line) -> writeRunLine(run, id, line));
+                    run.flush();
+                });
+                isWritten = true;
+            } catch (IOException e) {
+                // The input runs stay listed, so nothing is lost
+                System.err.println("Task store merge failed: " + e.getMessage());
+            }
+            try {
+                finishMerge(inputs, output, isWritten);
+            } catch (IOException e) {
+                System.err.println("Task store merge failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Swaps the merged run in for its inputs, then hands the merge's files back. If the merge
+     * failed, or the store was rewritten while it ran so that its inputs are gone, the merged run
+     * is discarded instead. Inputs that are no longer listed are deleted either way, since a
+     * rewrite leaves them to the merge.
+     */
+    private synchronized void finishMerge(List<String> inputs, String output, boolean isWritten)
+            throws IOException {
+        mergeFiles = Set.of();
+        if (isWritten && runNames.containsAll(inputs)) {
+            List<String> names = new ArrayList<>(runNames);
+            names.removeAll(inputs);
+            names.add(output);
+            writeManifest(names);
+            runNames = names;
+        } else {
+            Files.deleteIfExists(directory.resolve(output));
+        }
+        for (String input : inputs) {
+            if (!runNames.contains(input)) {
+                Files.deleteIfExists(directory.resolve(input));
+            }
+        }
+    }
+
+    /**
+     * Streams the newest record of every id across the given runs, in id order, with a k-way merge
+     * over the sorted run files. Ids whose newest record is a tombstone are skipped.
+     */
+    private void mergeRuns(List<String> names, RunConsumer consumer) throws IOException {
+        List<RunCursor> cursors = new ArrayList<>(names.size());
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>((a, b) -> a.id != b.id
+                ? Long.compare(a.id, b.id) : Integer.compare(a.age, b.age));
+        try {
+            for (int age = 0; age < names.size(); age++) {
+                RunCursor cursor = new RunCursor(directory.resolve(names.get(age)), age);
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            while (!queue.isEmpty()) {
+                RunCursor newest = queue.poll();
+                long id = newest.id;
+                String line = newest.line;
+                if (newest.advance()) {
+                    queue.add(newest);
+                }
+                while (!queue.isEmpty() && queue.peek().id == id) {
+                    RunCursor older = queue.poll();
+                    if (older.advance()) {
+                        queue.add(older);
+                    }
+                }
+                if (line != null) {
+                    consumer.accept(id, line);
+                }
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    private static void writeRun(Iterator<Map.Entry<Long, String>> entries, OutputStream out) throws IOException {
+        Writer run = runWriter(out);
+        while (entries.hasNext()) {
+            Map.Entry<Long, String> entry = entries.next();
+            writeRunLine(run, entry.getKey(), entry.getValue());
+        }
+        run.flush();
+    }
+
+    /**
+     * Returns a buffered writer that streams run lines to the given output as they are produced,
+     * so writing a run never holds more than one buffer of it in memory. The caller flushes it.
+     */
+    private static Writer runWriter(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private static void writeRunLine(Writer run, long id, String line) throws IOException {
+        run.write(line == null ? DELETE : PUT);
+        run.write(' ');
+        run.write(Long.toString(id));
+        if (line != null) {
+            run.write(' ');
+            run.write(line);
+        }
+        run.write('\n');
+    }
+
+    private void readManifest() throws IOException {
+        runNames = new ArrayList<>();
+        nextRunNumber = 0;
+        nextId = 0;
+        if (!Files.exists(manifestPath)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(manifestPath, StandardCharsets.UTF_8);
+        boolean isCurrent = !lines.isEmpty() && lines.get(0).equals(MANIFEST_HEADER);
+        boolean isOld = !lines.isEmpty() && lines.get(0).equals(OLD_MANIFEST_HEADER);
+        int firstRun = isCurrent ? 3 : 2;
+        if (!isCurrent && !isOld || lines.size() < firstRun) {
+            throw new IOException("Unrecognised task store manifest");
+        }
+        nextRunNumber = Long.parseLong(lines.get(1));
+        // An old manifest has no next id, so it is worked out from the ids the store still holds
+        nextId = isCurrent ? Long.parseLong(lines.get(2)) : 0;
+        runNames.addAll(lines.subList(firstRun, lines.size()));
+        removeUnlistedRuns();
+    }
+
+    /**
+     * Deletes run files left behind by a flush or merge that crashed before its manifest was
+     * written. The files of a merge still in flight are not listed yet, and are left to it.
+     */
+    private void removeUnlistedRuns() throws IOException {
+        Set<String> listed = new HashSet<>(runNames);
+        listed.addAll(mergeFiles);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "run-*")) {
+            for (Path file : files) {
+                if (!listed.contains(file.getFileName().toString())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private void writeManifest(List<String> names) throws IOException {
+        Path temp = directory.resolve("manifest.tmp");
+        writeDurably(temp, out -> {
+            StringBuilder manifest = new StringBuilder(MANIFEST_HEADER).append('\n');
+            manifest.append(nextRunNumber).append('\n');
+            manifest.append(nextId).append('\n');
+            for (String name : names) {
+                manifest.append(name).append('\n');
+            }
+            out.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+        });
+        Files.move(temp, manifestPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeDurably(Path target, RunWriter writer) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            writer.write(out);
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    private interface RunWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private interface RunConsumer {
+        void accept(long id, String line) throws IOException;
+    }
+
+    /**
+     * Reads the records of one run in id order. Runs are numbered by age, 0 being the newest.
+     */
+    private static class RunCursor {
+        private final BufferedReader reader;
+        private final int age;
+        private long id;
+        private String line;
+
+        RunCursor(Path path, int age) throws IOException {
+            this.reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+            this.age = age;
+        }
+
+        boolean advance() throws IOException {
+            String record = reader.readLine();
+            if (record == null) {
+                return false;
+            }
+            String[] parts = splitRecord(record);
+            id = Long.parseLong(parts[1]);
+            line = parts.length == 3 ? parts[2] : null;
+            return true;
+        }
+
+        void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,611 @@
+package wader.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import wader.task.DeadlineTask;
+import wader.task.EventTask;
+import wader.task.Task;
+import wader.task.ToDoTask;
+
+/**
+ * A task list held in an arena outside the Java heap, so that millions of tasks add nothing for
+ * the garbage collector to trace. The arena is a direct buffer, or a buffer mapped onto a file so
+ * the list is its own storage. It is laid out as a header, then one fixed-width slot per task in
+ * list order, then an area holding the descriptions as UTF-8.
+ *
+ * <p>The header holds a magic number, the format version, the number of tasks, the capacity of
+ * the slot area, the used and wasted bytes and capacity of the description area, and the id the
+ * next task will get, which only ever grows so that ids are never reused. Each slot holds:
+ * <ul>
+ * <li>the task id</li>
+ * <li>the deadline, or the event start and end, as epoch seconds</li>
+ * <li>the offset and length of the description in the description area</li>
+ * <li>a type byte and a done flag byte</li>
+ * </ul>
+ * Inserting or removing a task moves the later slots; replaced descriptions are left in place and
+ * reclaimed by compacting the description area once they take up more than half of it.
+ *
+ * <p>A mapped arena is the stored list, and the operating system may write its pages back in any
+ * order, so it is only ever changed in ways a crash cannot tear. A task appended at the end is
+ * forced to disk before the header counts it, and marking a task done changes a single byte.
+ * Every other change, including growing and compacting the arena, writes the changed list to a
+ * new file that is forced to disk and then moved over the old one. Arena files of version 1 are
+ * converted the same way when they are mapped.
+ *
+ * <p>Tasks read from the list are views created on access, like those of a
+ * {@link ColumnarTaskList}.
+ */
+class OffHeapTaskList extends AbstractList<Task> implements RandomAccess, TaskViewList {
+    static final int MAGIC = 0x57414441; // "WADA"
+    static final short VERSION = 2;
+    static final int HEADER_SIZE = 40;
+    static final int SLOT_SIZE = 40;
+
+    private static final int V1_HEADER_SIZE = 32;
+    private static final int SIZE_OFFSET = 8;
+    private static final int SLOT_CAPACITY_OFFSET = 12;
+    private static final int DESCRIPTIONS_USED_OFFSET = 16;
+    private static final int DESCRIPTIONS_WASTED_OFFSET = 20;
+    private static final int DESCRIPTIONS_CAPACITY_OFFSET = 24;
+    private static final int NEXT_ID_OFFSET = 32;
+
+    private static final int ID = 0;
+    private static final int START = 8;
+    private static final int END = 16;
+    private static final int DESCRIPTION_OFFSET = 24;
+    private static final int DESCRIPTION_LENGTH = 28;
+    private static final int TYPE = 32;
+    private static final int DONE = 33;
+
+    private static final byte TASK = 0;
+    private static final byte TODO = 1;
+    private static final byte DEADLINE = 2;
+    private static final byte EVENT = 3;
+
+    private static final int MIN_SLOTS = 16;
+    private static final int MIN_DESCRIPTION_BYTES = 1024;
+    private static final int COPY_CHUNK = 1 << 16;
+
+    /**
+     * The arena file and the channel it is mapped through, or null for an arena in a direct
+     * buffer. A rebuilt arena replaces both.
+     */
+    private Path file;
+    private FileChannel channel;
+    private ByteBuffer arena;
+    private int headerSize = HEADER_SIZE;
+
+    private OffHeapTaskList(Path file, FileChannel channel, ByteBuffer arena) {
+        this.file = file;
+        this.channel = channel;
+        this.arena = arena;
+    }
+
+    /**
+     * Constructs a list in a direct buffer holding the given tasks.
+     *
+     * @param tasks the tasks, in order
+     */
+    OffHeapTaskList(Collection<? extends Task> tasks) {
+        this(null, null, null);
+        int slotCapacity = Math.max(tasks.size(), MIN_SLOTS);
+        arena = ByteBuffer.allocateDirect(checkedSize(totalSize(slotCapacity, MIN_DESCRIPTION_BYTES)));
+        writeHeader(arena, slotCapacity, MIN_DESCRIPTION_BYTES, 0);
+        addAll(tasks);
+    }
+
+    /**
+     * Maps a list onto the given arena file, creating an empty arena if the file does not exist.
+     * Changes are written to the file as they are made, and are durable once {@link #force()}
+     * returns.
+     *
+     * @param file the arena file
+     * @return the list held in the file
+     * @throws IOException if the file cannot be mapped or is not a task arena
+     */
+    static OffHeapTaskList map(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            boolean isNew = channel.size() == 0;
+            long size = isNew ? totalSize(MIN_SLOTS, MIN_DESCRIPTION_BYTES) : channel.size();
+            if (size < V1_HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a task arena: " + file);
+            }
+            OffHeapTaskList list = new OffHeapTaskList(file, channel, mapFile(channel, size));
+            if (isNew) {
+                writeHeader(list.arena, MIN_SLOTS, MIN_DESCRIPTION_BYTES, 0);
+                return list;
+            }
+            short version = list.arena.getShort(4);
+            if (version == 1) {
+                list.headerSize = V1_HEADER_SIZE;
+            }
+            if (list.arena.getInt(0) != MAGIC || (version != 1 && version != VERSION) || !list.isConsistent(size)) {
+                throw new IOException("Not a task arena: " + file);
+            }
+            if (version == 1) {
+                list.replace(0, 0, List.of());
+            }
+            return list;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes changes made to a mapped arena through to its file. Does nothing for an arena in a
+     * direct buffer.
+     */
+    void force() {
+        if (arena instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) arena).force();
+        }
+    }
+
+    /**
+     * Atomically moves the file of a mapped arena over the given path. The arena stays mapped, and
+     * later changes are made to the file at its new path.
+     *
+     * @param target the path to move the file to
+     * @throws IOException if the file cannot be moved
+     */
+    void moveTo(Path target) throws IOException {
+        assert file != null : "Only a mapped arena has a file to move";
+        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        file = target;
+    }
+
+    /**
+     * Moves a mapped arena into a direct buffer and closes its file, so that the list can still be
+     * used but no longer changes the file. Does nothing for an arena in a direct buffer.
+     */
+    void detach() {
+        if (channel == null) {
+            return;
+        }
+        ByteBuffer copy = ByteBuffer.allocateDirect(arena.capacity());
+        copy.put(0, arena, 0, arena.capacity());
+        arena = copy;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+            file = null;
+        }
+    }
+
+    /**
+     * Returns an id above every id the list has ever held, for numbering tasks added later.
+     */
+    long nextId() {
+        return arena.getLong(NEXT_ID_OFFSET);
+    }
+
+    @Override
+    public Task get(int position) {
+        int slot = slot(checkPosition(position, size()));
+        byte[] bytes = new byte[arena.getInt(slot + DESCRIPTION_LENGTH)];
+        arena.get(descriptionStart() + arena.getInt(slot + DESCRIPTION_OFFSET), bytes);
+        String description = new String(bytes, StandardCharsets.UTF_8);
+        Task task;
+        switch (arena.get(slot + TYPE)) {
+            case TODO:
+                task = new ToDoTask(description);
+                break;
+            case DEADLINE:
+                task = new DeadlineTask(description, toDateTime(arena.getLong(slot + START)));
+                break;
+            case EVENT:
+                task = new EventTask(description, toDateTime(arena.getLong(slot + START)),
+                        toDateTime(arena.getLong(slot + END)));
+                break;
+            default:
+                task = new Task(description);
+                break;
+        }
+        if (arena.get(slot + DONE) != 0) {
+            task.markAsDone();
+        }
+        task.setId(arena.getLong(slot + ID));
+        return task;
+    }
+
+    @Override
+    public int size() {
+        return arena.getInt(SIZE_OFFSET);
+    }
+
+    @Override
+    public Task set(int position, Task task) {
+        Task previous = get(position);
+        if (channel != null) {
+            replace(position, position + 1, List.of(task));
+            return previous;
+        }
+        wasteDescription(slot(position));
+        write(position, task);
+        commit(slot(position));
+        compactIfWasteful();
+        return previous;
+    }
+
+    @Override
+    public void add(int position, Task task) {
+        int size = size();
+        checkPosition(position, size + 1);
+        modCount++;
+        if (channel != null && (position < size || !hasRoomFor(size + 1, task))) {
+            replace(position, position, List.of(task));
+            return;
+        }
+        if (size == slotCapacity()) {
+            relayout(grow(slotCapacity(), slotCapacity() >> 1, size + 1), descriptionCapacity());
+        }
+        move(slot(position), slot(position + 1), (size - position) * SLOT_SIZE);
+        write(position, task);
+        if (channel != null) {
+            // The new slot must reach the disk before the header that counts it
+            MappedByteBuffer mapped = (MappedByteBuffer) arena;
+            int length = arena.getInt(slot(position) + DESCRIPTION_LENGTH);
+            mapped.force(descriptionStart() + arena.getInt(slot(position) + DESCRIPTION_OFFSET), length);
+            mapped.force(slot(position), SLOT_SIZE);
+        }
+        commit(slot(position));
+        arena.putInt(SIZE_OFFSET, size + 1);
+    }
+
+    /**
+     * Appends the given tasks. A mapped arena is rebuilt once with all of them rather than forced
+     * to disk once per task.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Task> tasks) {
+        if (channel == null || tasks.isEmpty()) {
+            return super.addAll(tasks);
+        }
+        modCount++;
+        replace(size(), size(), List.copyOf(tasks));
+        return true;
+    }
+
+    @Override
+    public Task remove(int position) {
+        Task removed = get(position);
+        modCount++;
+        if (channel != null) {
+            replace(position, position + 1, List.of());
+            return removed;
+        }
+        int size = size();
+        wasteDescription(slot(position));
+        move(slot(position + 1), slot(position), (size - position - 1) * SLOT_SIZE);
+        arena.putInt(SIZE_OFFSET, size - 1);
+        compactIfWasteful();
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        if (channel != null) {
+            replace(0, size(), List.of());
+            return;
+        }
+        arena.putInt(SIZE_OFFSET, 0);
+        arena.putInt(DESCRIPTIONS_USED_OFFSET, 0);
+        arena.putInt(DESCRIPTIONS_WASTED_OFFSET, 0);
+    }
+
+    @Override
+    public void setDone(int position, boolean isDone) {
+        arena.put(slot(checkPosition(position, size())) + DONE, (byte) (isDone ? 1 : 0));
+    }
+
+    /**
+     * Writes a task's description after the used part of the description area and its slot at
+     * the given position. Nothing counts the description as used until {@link #commit} is called,
+     * so the writes can be forced to disk first.
+     */
+    private void write(int position, Task task) {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        int used = arena.getInt(DESCRIPTIONS_USED_OFFSET);
+        if (used + description.length > descriptionCapacity()) {
+            relayout(slotCapacity(), grow(descriptionCapacity(), descriptionCapacity(), used + description.length));
+        }
+        putTask(arena, slot(position), descriptionStart(), used, description, task);
+    }
+
+    /**
+     * Counts the description of the task in the given slot as used, and keeps the next id above
+     * the task's id.
+     */
+    private void commit(int slot) {
+        int end = arena.getInt(slot + DESCRIPTION_OFFSET) + arena.getInt(slot + DESCRIPTION_LENGTH);
+        arena.putInt(DESCRIPTIONS_USED_OFFSET, Math.max(arena.getInt(DESCRIPTIONS_USED_OFFSET), end));
+        arena.putLong(NEXT_ID_OFFSET, Math.max(nextId(), arena.getLong(slot + ID) + 1));
+    }
+
+    private boolean hasRoomFor(int size, Task task) {
+        int length = task.getDescription().getBytes(StandardCharsets.UTF_8).length;
+        return size <= slotCapacity() && arena.getInt(DESCRIPTIONS_USED_OFFSET) + length <= descriptionCapacity();
+    }
+
+    /**
+     * Checks that the header of a mapped arena describes areas that fit in a file of the given
+     * size.
+     */
+    private boolean isConsistent(long fileSize) {
+        int slotCapacity = slotCapacity();
+        int descriptionCapacity = descriptionCapacity();
+        int used = arena.getInt(DESCRIPTIONS_USED_OFFSET);
+        int wasted = arena.getInt(DESCRIPTIONS_WASTED_OFFSET);
+        return slotCapacity >= 0 && descriptionCapacity >= 0 && size() >= 0 && size() <= slotCapacity
+                && used >= 0 && used <= descriptionCapacity && wasted >= 0 && wasted <= used
+                && headerSize + (long) slotCapacity * SLOT_SIZE + descriptionCapacity <= fileSize;
+    }
+
+    /**
+     * Replaces the tasks at positions {@code from} to {@code to} of a mapped arena with the given
+     * tasks. The resulting list is written to a new arena file with its descriptions compacted,
+     * and the file is forced to disk and moved over the old one, so a crash leaves either the old
+     * list or the new one.
+     */
+    private void replace(int from, int to, List<? extends Task> inserted) {
+        int oldSize = size();
+        int size = oldSize - (to - from) + inserted.size();
+        byte[][] descriptions = new byte[inserted.size()][];
+        long descriptionBytes = 0;
+        for (int i = 0; i < descriptions.length; i++) {
+            descriptions[i] = inserted.get(i).getDescription().getBytes(StandardCharsets.UTF_8);
+            descriptionBytes += descriptions[i].length;
+        }
+        for (int i = 0; i < oldSize; i++) {
+            if (i < from || i >= to) {
+                descriptionBytes += arena.getInt(slot(i) + DESCRIPTION_LENGTH);
+            }
+        }
+        int slotCapacity = size <= slotCapacity() ? slotCapacity() : grow(slotCapacity(), slotCapacity() >> 1, size);
+        int descriptionCapacity = descriptionBytes <= descriptionCapacity() ? descriptionCapacity()
+                : grow(descriptionCapacity(), descriptionCapacity(), descriptionBytes);
+        int total = checkedSize(totalSize(slotCapacity, descriptionCapacity));
+        // A version 1 header has no next id, so it starts from the ids in the list
+        long nextId = headerSize == HEADER_SIZE ? nextId() : oldSize;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".rebuild");
+        FileChannel rebuiltChannel = null;
+        MappedByteBuffer rebuilt;
+        try {
+            rebuiltChannel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            rebuilt = mapFile(rebuiltChannel, total);
+            int descriptionStart = HEADER_SIZE + slotCapacity * SLOT_SIZE;
+            int used = 0;
+            int position = 0;
+            for (int i = 0; i <= oldSize; i++) {
+                if (i == from) {
+                    for (int j = 0; j < descriptions.length; j++) {
+                        Task task = inserted.get(j);
+                        putTask(rebuilt, HEADER_SIZE + position++ * SLOT_SIZE, descriptionStart, used,
+                                descriptions[j], task);
+                        used += descriptions[j].length;
+                        nextId = Math.max(nextId, task.getId() + 1);
+                    }
+                }
+                if (i == oldSize || (i >= from && i < to)) {
+                    continue;
+                }
+                int slot = slot(i);
+                int target = HEADER_SIZE + position++ * SLOT_SIZE;
+                int length = arena.getInt(slot + DESCRIPTION_LENGTH);
+                rebuilt.put(target, arena, slot, SLOT_SIZE);
+                rebuilt.put(descriptionStart + used, arena,
+                        descriptionStart() + arena.getInt(slot + DESCRIPTION_OFFSET), length);
+                rebuilt.putInt(target + DESCRIPTION_OFFSET, used);
+                nextId = Math.max(nextId, arena.getLong(slot + ID) + 1);
+                used += length;
+            }
+            writeHeader(rebuilt, slotCapacity, descriptionCapacity, nextId);
+            rebuilt.putInt(SIZE_OFFSET, size);
+            rebuilt.putInt(DESCRIPTIONS_USED_OFFSET, used);
+            rebuilt.force();
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            try {
+                if (rebuiltChannel != null) {
+                    rebuiltChannel.close();
+                }
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new UncheckedIOException(e);
+        }
+        FileChannel replaced = channel;
+        channel = rebuiltChannel;
+        arena = rebuilt;
+        headerSize = HEADER_SIZE;
+        try {
+            replaced.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void putTask(ByteBuffer target, int slot, int descriptionStart, int used, byte[] description,
+            Task task) {
+        target.put(descriptionStart + used, description);
+        long start = task.hasDate() ? task.getDateTime().toEpochSecond(ZoneOffset.UTC) : 0;
+        target.putLong(slot + ID, task.getId());
+        target.putLong(slot + START, start);
+        target.putLong(slot + END, task instanceof EventTask
+                ? ((EventTask) task).getEndDateTime().toEpochSecond(ZoneOffset.UTC)
+                : start);
+        target.putInt(slot + DESCRIPTION_OFFSET, used);
+        target.putInt(slot + DESCRIPTION_LENGTH, description.length);
+        target.put(slot + TYPE, typeOf(task));
+        target.put(slot + DONE, (byte) (task.isDone() ? 1 : 0));
+    }
+
+    private static void writeHeader(ByteBuffer target, int slotCapacity, int descriptionCapacity, long nextId) {
+        target.putInt(0, MAGIC);
+        target.putShort(4, VERSION);
+        target.putInt(SIZE_OFFSET, 0);
+        target.putInt(SLOT_CAPACITY_OFFSET, slotCapacity);
+        target.putInt(DESCRIPTIONS_USED_OFFSET, 0);
+        target.putInt(DESCRIPTIONS_WASTED_OFFSET, 0);
+        target.putInt(DESCRIPTIONS_CAPACITY_OFFSET, descriptionCapacity);
+        target.putLong(NEXT_ID_OFFSET, nextId);
+    }
+
+    /**
+     * Moves an arena in a direct buffer to a larger one with room for the given number of slots
+     * and description bytes; the description area moves up to make room for the extra slots. A
+     * mapped arena is rebuilt instead.
+     */
+    private void relayout(int slotCapacity, int descriptionCapacity) {
+        if (channel != null) {
+            throw new IllegalStateException("A mapped arena is rebuilt rather than grown in place");
+        }
+        int oldDescriptionStart = descriptionStart();
+        ByteBuffer grown = ByteBuffer.allocateDirect(checkedSize(totalSize(slotCapacity, descriptionCapacity)));
+        grown.put(0, arena, 0, arena.capacity());
+        arena = grown;
+        arena.putInt(SLOT_CAPACITY_OFFSET, slotCapacity);
+        arena.putInt(DESCRIPTIONS_CAPACITY_OFFSET, descriptionCapacity);
+        move(oldDescriptionStart, descriptionStart(), arena.getInt(DESCRIPTIONS_USED_OFFSET));
+    }
+
+    private void wasteDescription(int slot) {
+        int wasted = arena.getInt(DESCRIPTIONS_WASTED_OFFSET) + arena.getInt(slot + DESCRIPTION_LENGTH);
+        arena.putInt(DESCRIPTIONS_WASTED_OFFSET, wasted);
+    }
+
+    /**
+     * Rewrites the description area of an arena in a direct buffer without the descriptions of
+     * removed or replaced tasks once they take up more than half of it.
+     */
+    private void compactIfWasteful() {
+        int used = arena.getInt(DESCRIPTIONS_USED_OFFSET);
+        int wasted = arena.getInt(DESCRIPTIONS_WASTED_OFFSET);
+        if (wasted <= MIN_DESCRIPTION_BYTES || wasted * 2 <= used) {
+            return;
+        }
+        int descriptionStart = descriptionStart();
+        ByteBuffer compacted = ByteBuffer.allocateDirect(used - wasted);
+        for (int i = 0; i < size(); i++) {
+            int slot = slot(i);
+            int length = arena.getInt(slot + DESCRIPTION_LENGTH);
+            int offset = compacted.position();
+            compacted.put(offset, arena, descriptionStart + arena.getInt(slot + DESCRIPTION_OFFSET), length);
+            compacted.position(offset + length);
+            arena.putInt(slot + DESCRIPTION_OFFSET, offset);
+        }
+        arena.put(descriptionStart, compacted, 0, compacted.position());
+        arena.putInt(DESCRIPTIONS_USED_OFFSET, compacted.position());
+        arena.putInt(DESCRIPTIONS_WASTED_OFFSET, 0);
+    }
+
+    /**
+     * Copies a range of the arena to another, possibly overlapping, range through a small buffer
+     * on the heap.
+     */
+    private void move(int from, int to, int length) {
+        if (from == to || length <= 0) {
+            return;
+        }
+        byte[] chunk = new byte[Math.min(length, COPY_CHUNK)];
+        // Copy from the end when moving up, so no byte is overwritten before it is read
+        for (int done = 0; done < length; done += chunk.length) {
+            int count = Math.min(chunk.length, length - done);
+            int offset = to > from ? length - done - count : done;
+            arena.get(from + offset, chunk, 0, count);
+            arena.put(to + offset, chunk, 0, count);
+        }
+    }
+
+    private int slot(int position) {
+        return headerSize + position * SLOT_SIZE;
+    }
+
+    private int slotCapacity() {
+        return arena.getInt(SLOT_CAPACITY_OFFSET);
+    }
+
+    private int descriptionCapacity() {
+        return arena.getInt(DESCRIPTIONS_CAPACITY_OFFSET);
+    }
+
+    private int descriptionStart() {
+        return slot(slotCapacity());
+    }
+
+    /**
+     * Returns a capacity grown by the given step, and at least the given size.
+     */
+    private static int grow(int capacity, int step, long atLeast) {
+        long grown = Math.max((long) capacity + step, atLeast);
+        if (grown > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The task arena cannot grow beyond 2 GiB");
+        }
+        return (int) grown;
+    }
+
+    private static long totalSize(int slotCapacity, int descriptionCapacity) {
+        return HEADER_SIZE + (long) slotCapacity * SLOT_SIZE + descriptionCapacity;
+    }
+
+    /**
+     * Checks that an arena of the given size can be held in a single buffer.
+     */
+    private static int checkedSize(long totalSize) {
+        if (totalSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The task arena cannot grow beyond 2 GiB");
+        }
+        return (int) totalSize;
+    }
+
+    private static MappedByteBuffer mapFile(FileChannel channel, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private static byte typeOf(Task task) {
+        if (task instanceof ToDoTask) {
+            return TODO;
+        } else if (task instanceof DeadlineTask) {
+            return DEADLINE;
+        } else if (task instanceof EventTask) {
+            return EVENT;
+        }
+        return TASK;
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private int checkPosition(int position, int bound) {
+        if (position < 0 || position >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size());
+        }
+        return position;
+    }
+}
@@ -0,0 +1,334 @@
+package wader.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import wader.task.Task;
+
+/**
+ * A sidecar index from task number to the byte offset of its record in a snapshot file. It lets
+ * a single task be read without scanning the file, and lets a task's completion status be changed
+ * with one positional write of its status byte instead of rewriting the whole snapshot.
+ *
+ * <p>The sidecar records the snapshot size and task count it was built for. It is validated
+ * against those and a few sampled records when loaded, and rebuilt from the snapshot if it does
+ * not match.
+ */
+public class OffsetIndex {
+    private static final int MAGIC = 0x57494458; // "WIDX"
+    private static final int TEXT_STATUS_OFFSET = 4; // "[T][X]"
+    private static final int LEGACY_STATUS_OFFSET = 5; // length, type byte, done byte
+    private static final short TEXT = 0;
+
+    /** The binary snapshot version the index describes, or {@link #TEXT} for a text snapshot. */
+    private final short version;
+    private final long fileSize;
+    private final long[] offsets;
+
+    private OffsetIndex(short version, long fileSize, long[] offsets) {
+        this.version = version;
+        this.fileSize = fileSize;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Builds an index by scanning the given snapshot. Text lines are counted as tasks by the same
+     * rules the loader uses to skip blank and unrecognised lines, without parsing any dates.
+     *
+     * @param snapshot the snapshot file, in either the text or the binary format
+     * @return an index of every task record in the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static OffsetIndex build(Path snapshot) throws IOException {
+        if (!Files.exists(snapshot)) {
+            return new OffsetIndex(TEXT, 0, new long[0]);
+        }
+        if (BinarySnapshot.isBinarySnapshot(snapshot)) {
+            return buildBinary(snapshot);
+        }
+        return buildText(snapshot);
+    }
+
+    /**
+     * Reads a previously written sidecar index.
+     *
+     * @param sidecar the index file
+     * @return the index, or null if the file does not exist or is not an index
+     * @throws IOException if the file cannot be read
+     */
+    public static OffsetIndex read(Path sidecar) throws IOException {
+        if (!Files.exists(sidecar)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(sidecar))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            short version = in.readByte();
+            long fileSize = in.readLong();
+            long[] offsets = new long[in.readInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readLong();
+            }
+            return new OffsetIndex(version, fileSize, offsets);
+        }
+    }
+
+    /**
+     * Writes this index to the given sidecar file, replacing it atomically.
+     *
+     * @param sidecar the index file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path sidecar) throws IOException {
+        Path temp = Path.of(sidecar + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeByte(version);
+            out.writeLong(fileSize);
+            out.writeInt(offsets.length);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, sidecar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Checks cheaply whether this index still describes the given snapshot: the size and task
+     * count must match, and the first, middle and last indexed records must start where expected.
+     *
+     * @param snapshot the snapshot file
+     * @param taskCount the number of tasks loaded from the snapshot
+     * @return true if the index can be trusted
+     * @throws IOException if the snapshot cannot be read
+     */
+    public boolean isValidFor(Path snapshot, int taskCount) throws IOException {
+        if (offsets.length != taskCount || !Files.exists(snapshot) || Files.size(snapshot) != fileSize
+                || (version != TEXT) != BinarySnapshot.isBinarySnapshot(snapshot)) {
+            return false;
+        }
+        if (offsets.length == 0) {
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            for (int i : new int[] {0, offsets.length / 2, offsets.length - 1}) {
+                if (!looksLikeRecord(channel, offsets[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of indexed tasks.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Overwrites the status byte of the given task in place and forces it to disk. In a
+     * checksummed binary snapshot the record's checksum is rewritten in the same write.
+     *
+     * @param snapshot the snapshot file this index describes
+     * @param index the 0-based task number
+     * @param isDone the new completion status
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void patchStatus(Path snapshot, int index, boolean isDone) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (version == TEXT || version == 1) {
+                byte status = version == TEXT ? (byte) (isDone ? 'X' : ' ') : (byte) (isDone ? 1 : 0);
+                long position = offsets[index] + (version == TEXT ? TEXT_STATUS_OFFSET : LEGACY_STATUS_OFFSET);
+                channel.write(ByteBuffer.wrap(new byte[] {status}), position);
+            } else {
+                // The checksum, type and done flag are adjacent, so one write replaces all three
+                ByteBuffer record = readRecord(channel, index);
+                record.put(BinarySnapshot.STATUS_OFFSET, (byte) (isDone ? 1 : 0));
+                CRC32C crc = new CRC32C();
+                crc.update(record.slice(2 * Integer.BYTES, record.limit() - 2 * Integer.BYTES));
+                record.putInt(Integer.BYTES, (int) crc.getValue());
+                channel.write(record.slice(Integer.BYTES, BinarySnapshot.STATUS_OFFSET + 1 - Integer.BYTES),
+                        offsets[index] + Integer.BYTES);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Reads a single task straight from its record in the snapshot.
+     *
+     * @param snapshot the snapshot file this index describes
+     * @param index the 0-based task number
+     * @return the task stored at that position
+     * @throws IOException if the snapshot cannot be read or the record is malformed
+     */
+    public Task readTask(Path snapshot, int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            return readTask(channel, index);
+        }
+    }
+
+    /**
+     * Reads a single task from its record through an already open channel on the snapshot.
+     *
+     * @param channel a readable channel on the snapshot file this index describes
+     * @param index the 0-based task number
+     * @return the task stored at that position
+     * @throws IOException if the snapshot cannot be read or the record is malformed
+     */
+    public Task readTask(FileChannel channel, int index) throws IOException {
+        ByteBuffer record = readRecord(channel, index);
+        if (version != TEXT) {
+            return BinarySnapshot.readRecord(record, version);
+        }
+        String line = StandardCharsets.UTF_8.decode(record).toString();
+        int lineEnd = line.indexOf('\n');
+        try {
+            return Storage.parseTaskFromString((lineEnd == -1 ? line : line.substring(0, lineEnd)).strip());
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed record for task " + (index + 1));
+        }
+    }
+
+    private ByteBuffer readRecord(FileChannel channel, int index) throws IOException {
+        long start = offsets[index];
+        long end = index + 1 < offsets.length ? offsets[index + 1] : fileSize;
+        ByteBuffer record = ByteBuffer.allocate((int) (end - start));
+        while (record.hasRemaining()) {
+            if (channel.read(record, start + record.position()) < 0) {
+                throw new IOException("Snapshot ends inside task " + (index + 1));
+            }
+        }
+        return record.flip();
+    }
+
+    private boolean looksLikeRecord(FileChannel channel, long offset) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(BinarySnapshot.STATUS_OFFSET + 1);
+        channel.read(head, offset);
+        if (version != TEXT) {
+            char type = (char) head.get(version == 1 ? Integer.BYTES : 2 * Integer.BYTES);
+            return head.getInt(0) >= 2 && (type == 'T' || type == 'D' || type == 'E');
+        }
+        byte status = head.get(TEXT_STATUS_OFFSET);
+        return head.get(0) == '[' && (status == 'X' || status == ' ');
+    }
+
+    private static OffsetIndex buildBinary(Path snapshot) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot),
+                1 << 16))) {
+            in.skipNBytes(Integer.BYTES);
+            short version = in.readShort();
+            int prefix = version == 1 ? Integer.BYTES : 2 * Integer.BYTES;
+            long[] offsets = new long[in.readInt()];
+            long position = BinarySnapshot.HEADER_SIZE;
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = position;
+                int length = in.readInt();
+                in.skipNBytes(prefix - Integer.BYTES + length);
+                position += prefix + length;
+            }
+            return new OffsetIndex(version, Files.size(snapshot), offsets);
+        }
+    }
+
+    /**
+     * Scans the text snapshot a line at a time, so that indexing a large file needs memory only
+     * for the offsets and the longest line.
+     */
+    private static OffsetIndex buildText(Path snapshot) throws IOException {
+        long[] offsets = new long[16];
+        int count = 0;
+        byte[] buffer = new byte[1 << 16];
+        byte[] line = new byte[256];
+        int lineLength = 0;
+        long lineStart = 0;
+        long position = 0;
+        try (InputStream in = Files.newInputStream(snapshot)) {
+            int read = in.read(buffer);
+            while (read != -1) {
+                for (int i = 0; i < read; i++, position++) {
+                    if (buffer[i] != '\n') {
+                        if (lineLength == line.length) {
+                            line = Arrays.copyOf(line, lineLength * 2);
+                        }
+                        line[lineLength++] = buffer[i];
+                        continue;
+                    }
+                    long offset = taskOffset(line, lineLength);
+                    if (offset != -1) {
+                        if (count == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, count * 2);
+                        }
+                        offsets[count++] = lineStart + offset;
+                    }
+                    lineStart = position + 1;
+                    lineLength = 0;
+                }
+                read = in.read(buffer);
+            }
+        }
+        long offset = taskOffset(line, lineLength);
+        if (offset != -1) {
+            offsets = Arrays.copyOf(offsets, count + 1);
+            offsets[count++] = lineStart + offset;
+        }
+        return new OffsetIndex(TEXT, position, Arrays.copyOf(offsets, count));
+    }
+
+    /**
+     * Returns the offset of the task within a line, after any leading whitespace, or -1 if the
+     * line does not hold a task.
+     */
+    private static long taskOffset(byte[] line, int length) {
+        int leading = 0;
+        while (leading < length && Character.isWhitespace(line[leading])) {
+            leading++;
+        }
+        String content = new String(line, leading, length - leading, StandardCharsets.UTF_8).stripTrailing();
+        return isTaskLine(content) ? leading : -1;
+    }
+
+    /**
+     * Mirrors the checks {@link Storage#parseTaskFromString(String)} makes before parsing dates, so
+     * that the index counts exactly the lines the loader turns into tasks.
+     */
+    private static boolean isTaskLine(String line) {
+        if (line.length() < 6) {
+            return false;
+        }
+        String content = line.substring(6).trim();
+        switch (line.charAt(1)) {
+            case 'T':
+                return true;
+            case 'D':
+                return content.lastIndexOf(" (by: ") != -1;
+            case 'E':
+                return content.lastIndexOf(" to: ") > content.lastIndexOf(" (from: ")
+                        && content.lastIndexOf(" (from: ") != -1;
+            default:
+                return false;
+        }
+    }
+}
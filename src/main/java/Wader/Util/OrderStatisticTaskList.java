@@ -0,0 +1,336 @@
+package wader.util;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import wader.task.Task;
+
+/**
+ * A task list kept in an order-statistic tree, so that reading, inserting or removing the task
+ * at any position costs O(log n) rather than shifting the tail of an array. Each node records the
+ * size of its subtree, which turns a position into a path from the root and a node back into its
+ * position.
+ *
+ * <p>The tree is a treap: nodes are ordered by position and heap-ordered by a random priority,
+ * which keeps the expected depth logarithmic whatever order tasks arrive in. A map from task id
+ * to node finds a task by id in O(1) and its current position in O(log n).
+ */
+class OrderStatisticTaskList extends AbstractList<Task> implements RandomAccess {
+    private final Map<Long, Node> nodesById = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    @Override
+    public Task get(int position) {
+        return nodeAt(checkPosition(position, size())).task;
+    }
+
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    @Override
+    public Task set(int position, Task task) {
+        Node node = nodeAt(checkPosition(position, size()));
+        Task previous = node.task;
+        nodesById.remove(previous.getId(), node);
+        node.task = task;
+        nodesById.put(task.getId(), node);
+        return previous;
+    }
+
+    @Override
+    public void add(int position, Task task) {
+        checkPosition(position, size() + 1);
+        Node node = new Node(task, random.nextInt(Integer.MAX_VALUE - 64));
+        nodesById.put(task.getId(), node);
+        modCount++;
+        if (root == null) {
+            root = node;
+            return;
+        }
+        // Walk down to the empty slot for the position, counting the new node on the way
+        Node parent = root;
+        int remaining = position;
+        while (true) {
+            parent.size++;
+            if (remaining <= sizeOf(parent.left)) {
+                if (parent.left == null) {
+                    parent.left = node;
+                    break;
+                }
+                parent = parent.left;
+            } else {
+                remaining -= sizeOf(parent.left) + 1;
+                if (parent.right == null) {
+                    parent.right = node;
+                    break;
+                }
+                parent = parent.right;
+            }
+        }
+        node.parent = parent;
+        while (node.parent != null && node.parent.priority < node.priority) {
+            rotateUp(node);
+        }
+    }
+
+    /**
+     * Appends the tasks. Filling an empty list builds a perfectly balanced tree in linear time,
+     * which is how saved lists are loaded.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Task> tasks) {
+        if (root != null || tasks.isEmpty()) {
+            return super.addAll(tasks);
+        }
+        Task[] array = tasks.toArray(new Task[0]);
+        root = build(array, 0, array.length, 0);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Task remove(int position) {
+        Node node = nodeAt(checkPosition(position, size()));
+        nodesById.remove(node.task.getId(), node);
+        Node replacement = merge(node.left, node.right);
+        if (replacement != null) {
+            replacement.parent = node.parent;
+        }
+        if (node.parent == null) {
+            root = replacement;
+        } else if (node.parent.left == node) {
+            node.parent.left = replacement;
+        } else {
+            node.parent.right = replacement;
+        }
+        for (Node ancestor = node.parent; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.size--;
+        }
+        modCount++;
+        return node.task;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        nodesById.clear();
+        modCount++;
+    }
+
+    /**
+     * Returns the task with the given id.
+     *
+     * @param id the task id
+     * @return the task, or null if no task in the list has that id
+     */
+    Task getById(long id) {
+        Node node = nodesById.get(id);
+        return node == null ? null : node.task;
+    }
+
+    /**
+     * Returns the current position of the task with the given id.
+     *
+     * @param id the task id
+     * @return the 0-based position, or -1 if no task in the list has that id
+     */
+    int positionOf(long id) {
+        Node node = nodesById.get(id);
+        if (node == null) {
+            return -1;
+        }
+        int position = sizeOf(node.left);
+        for (Node child = node; child.parent != null; child = child.parent) {
+            if (child.parent.right == child) {
+                position += sizeOf(child.parent.left) + 1;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Iterates in order by following successor links, so a full pass costs O(n) rather than a
+     * descent from the root per task.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private Node next = first(root);
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Task task = next.task;
+                next = successor(next);
+                return task;
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<Task> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED | Spliterator.SIZED);
+    }
+
+    private Node build(Task[] tasks, int from, int to, int depth) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        // Priorities fall with depth, so the balanced shape is already a valid heap
+        Node node = new Node(tasks[middle], Integer.MAX_VALUE - depth);
+        nodesById.put(tasks[middle].getId(), node);
+        node.left = build(tasks, from, middle, depth + 1);
+        node.right = build(tasks, middle + 1, to, depth + 1);
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+        node.size = to - from;
+        return node;
+    }
+
+    private Node nodeAt(int position) {
+        Node node = root;
+        int remaining = position;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (remaining < leftSize) {
+                node = node.left;
+            } else if (remaining == leftSize) {
+                return node;
+            } else {
+                remaining -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Joins two subtrees whose nodes are all in order, keeping the heap order of priorities.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.right.parent = left;
+            left.size = 1 + sizeOf(left.left) + sizeOf(left.right);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.left.parent = right;
+        right.size = 1 + sizeOf(right.left) + sizeOf(right.right);
+        return right;
+    }
+
+    /**
+     * Rotates a node above its parent, keeping the in-order sequence.
+     */
+    private void rotateUp(Node node) {
+        Node parent = node.parent;
+        Node grandparent = parent.parent;
+        if (parent.left == node) {
+            parent.left = node.right;
+            if (node.right != null) {
+                node.right.parent = parent;
+            }
+            node.right = parent;
+        } else {
+            parent.right = node.left;
+            if (node.left != null) {
+                node.left.parent = parent;
+            }
+            node.left = parent;
+        }
+        parent.parent = node;
+        node.parent = grandparent;
+        if (grandparent == null) {
+            root = node;
+        } else if (grandparent.left == parent) {
+            grandparent.left = node;
+        } else {
+            grandparent.right = node;
+        }
+        parent.size = 1 + sizeOf(parent.left) + sizeOf(parent.right);
+        node.size = 1 + sizeOf(node.left) + sizeOf(node.right);
+    }
+
+    private static Node first(Node node) {
+        if (node == null) {
+            return null;
+        }
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static Node successor(Node node) {
+        if (node.right != null) {
+            return first(node.right);
+        }
+        Node child = node;
+        while (child.parent != null && child.parent.right == child) {
+            child = child.parent;
+        }
+        return child.parent;
+    }
+
+    private static int sizeOf(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private int checkPosition(int position, int bound) {
+        if (position < 0 || position >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size());
+        }
+        return position;
+    }
+
+    /**
+     * A tree node holding one task.
+     */
+    private static class Node {
+        private final int priority;
+        private Task task;
+        private Node left;
+        private Node right;
+        private Node parent;
+        private int size = 1;
+
+        Node(Task task, int priority) {
+            this.task = task;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package wader.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import wader.task.Task;
+
+/**
+ * Loads a text storage file by splitting it at line boundaries into chunks that are parsed in
+ * parallel on a ForkJoin pool. The parsed chunks are stitched back together in their original
+ * order into a single pre-sized WaderList, so cold start on very large files scales with the
+ * number of cores.
+ */
+public class ParallelLoader {
+    public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Constructs a ParallelLoader that parses on the common ForkJoin pool.
+     */
+    public ParallelLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a ParallelLoader that parses chunks of roughly the given size on the given pool.
+     *
+     * @param pool the pool chunks are parsed on
+     * @param chunkSize the target chunk size in bytes
+     */
+    public ParallelLoader(ForkJoinPool pool, int chunkSize) {
+        assert chunkSize > 0 : "Chunk size must be positive";
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads every task in the given text file. Blank and unrecognised lines are skipped, as in
+     * {@link Storage#load()}.
+     *
+     * @param path the text file to load
+     * @return a WaderList holding the tasks in file order
+     * @throws IOException if the file cannot be read
+     */
+    public WaderList load(Path path) throws IOException {
+        return load(path, null);
+    }
+
+    /**
+     * Loads every task in the given text file like {@link #load(Path)}, quarantining lines that
+     * look like tasks but cannot be parsed instead of failing the whole load.
+     *
+     * @param path the text file to load
+     * @param report the report corrupt lines are quarantined to, or null to fail on them
+     * @return a WaderList holding the intact tasks in file order
+     * @throws IOException if the file cannot be read
+     */
+    public WaderList load(Path path, RecoveryReport report) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] boundaries = findChunkBoundaries(channel);
+            List<List<Task>> chunks = new ArrayList<>(boundaries.length - 1);
+            for (int i = 0; i < boundaries.length - 1; i++) {
+                chunks.add(null);
+            }
+            pool.invoke(new ParseChunks(channel, boundaries, 0, boundaries.length - 1, chunks, report));
+
+            int total = 0;
+            for (List<Task> chunk : chunks) {
+                total += chunk.size();
+            }
+            // Insert in one batch so the list can link all tasks in a single linear pass
+            List<Task> tasks = new ArrayList<>(total);
+            for (List<Task> chunk : chunks) {
+                tasks.addAll(chunk);
+            }
+            WaderList waderList = new WaderList();
+            waderList.addAll(tasks);
+            return waderList;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Splits the file into chunks of about {@code chunkSize} bytes, moving each split point
+     * forward to just after the next line break so that no line spans two chunks.
+     */
+    private long[] findChunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkSize;
+        while (position < size) {
+            long lineEnd = -1;
+            long scan = position;
+            while (lineEnd == -1 && scan < size) {
+                probe.clear();
+                int read = channel.read(probe, scan);
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineEnd = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+            if (lineEnd == -1 || lineEnd >= size) {
+                break;
+            }
+            boundaries.add(lineEnd);
+            position = lineEnd + chunkSize;
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static List<Task> parseChunk(FileChannel channel, long start, long end, RecoveryReport report)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        String content = StandardCharsets.UTF_8.decode(buffer).toString();
+        List<Task> tasks = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < content.length()) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd == -1) {
+                lineEnd = content.length();
+            }
+            String line = content.substring(lineStart, lineEnd).strip();
+            if (!line.isEmpty()) {
+                Task task = Storage.parseTaskFromString(line, report);
+                if (task != null) {
+                    tasks.add(task);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return tasks;
+    }
+
+    /**
+     * Parses a range of chunks, splitting the range in half until a single chunk remains.
+     */
+    private static class ParseChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final int from;
+        private final int to;
+        private final List<List<Task>> results;
+        private final RecoveryReport report;
+
+        ParseChunks(FileChannel channel, long[] boundaries, int from, int to, List<List<Task>> results,
+                RecoveryReport report) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+            this.report = report;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseChunks(channel, boundaries, from, middle, results, report),
+                        new ParseChunks(channel, boundaries, middle, to, results, report));
+                return;
+            }
+            try {
+                results.set(from, parseChunk(channel, boundaries[from], boundaries[from + 1], report));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
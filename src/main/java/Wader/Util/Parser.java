@@ -1,9 +1,14 @@
 package wader.util;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
 public class Parser {
 
     public enum CommandType {
-        BYE, LIST, MARK, UNMARK, TODO, DEADLINE, EVENT, DELETE, FIND, REMIND, UNKNOWN
+        BYE, LIST, MARK, UNMARK, TODO, DEADLINE, EVENT, DELETE, FIND, REMIND, SCHEDULE, UNKNOWN
     }
 
     public static class Command {
@@ -53,6 +58,8 @@ public class Parser {
             return new Command(CommandType.FIND, trimmedInput);
         } else if (trimmedInput.startsWith("remind")) {
             return new Command(CommandType.REMIND, trimmedInput);
+        } else if (trimmedInput.startsWith("schedule")) {
+            return new Command(CommandType.SCHEDULE, trimmedInput);
         } else {
             return new Command(CommandType.UNKNOWN, trimmedInput);
         }
@@ -151,4 +158,48 @@ public class Parser {
             throw new DukeException("Invalid task number format.");
         }
     }
+
+    /**
+     * Parses the user input for the period to show the schedule of. Each end is a date, optionally
+     * followed by a time; a bare start date means the start of that day and a bare end date
+     * includes the whole of that day.
+     *
+     * @param input The user command for schedule.
+     * @return The start and the exclusive end of the period.
+     * @throws DukeException If the input is invalid.
+     */
+    public static LocalDateTime[] parseScheduleCommand(String input) throws DukeException {
+        String content = input.substring(8).strip(); // Remove "schedule " prefix
+        if (!content.startsWith("/from ")) {
+            throw new DukeException("OOPS!!! Invalid schedule format.");
+        }
+        String[] parts = content.substring(6).split(" /to ");
+        if (parts.length != 2) {
+            throw new DukeException("OOPS!!! Invalid schedule format.");
+        }
+        LocalDateTime from;
+        LocalDateTime to;
+        try {
+            from = parseDateTime(parts[0].strip(), false);
+            to = parseDateTime(parts[1].strip(), true);
+        } catch (DateTimeParseException e) {
+            throw new DukeException("Invalid schedule format. Please use 'date' or 'date time' format.");
+        }
+        if (!to.isAfter(from)) {
+            throw new DukeException("OOPS!!! The end of the period must be after its start.");
+        }
+        return new LocalDateTime[] {from, to};
+    }
+
+    private static LocalDateTime parseDateTime(String text, boolean isEnd) {
+        String[] parts = text.split(" ");
+        if (parts.length == 1) {
+            LocalDate date = LocalDate.parse(parts[0]);
+            return isEnd ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+        }
+        if (parts.length != 2) {
+            throw new DateTimeParseException("Invalid date format", text, 0);
+        }
+        return LocalDateTime.of(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]));
+    }
 }
@@ -0,0 +1,242 @@
+package wader.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import wader.task.Task;
+
+/**
+ * Persists a WaderList as one file per month of dated tasks, named like {@code 2025-08.txt},
+ * and a separate {@code undated.txt} for to-dos. A deadline belongs to the month it is due and
+ * an event to the month it starts. Each line holds a task id followed by the task in the text
+ * format, and loading merges the partitions back into list order by id.
+ *
+ * <p>Saving rewrites only the partitions that gained, lost or changed a task. Date queries are
+ * left to the list's own date index, which answers them from memory without reading any
+ * partition.
+ */
+public class PartitionedStorage implements StorageBackend {
+    private static final String UNDATED = "undated";
+    private static final String SUFFIX = ".txt";
+
+    private final Path directory;
+    private Map<String, Integer> savedCounts = new HashMap<>();
+    private WaderList trackedList;
+
+    /**
+     * Constructs a PartitionedStorage that keeps its partitions in a directory next to the given
+     * path.
+     *
+     * @param filePath the path the partition directory is derived from
+     */
+    public PartitionedStorage(String filePath) {
+        this.directory = Path.of(filePath + ".partitions");
+    }
+
+    /**
+     * Loads every partition and merges the tasks back into list order.
+     *
+     * @return a WaderList containing all persisted tasks, with no dirty segments
+     * @throws DukeException if a partition cannot be read
+     */
+    @Override
+    public synchronized WaderList load() throws DukeException {
+        TreeMap<Long, Task> tasks = new TreeMap<>();
+        savedCounts = new HashMap<>();
+        try {
+            for (String partition : listPartitions()) {
+                List<Task> partitionTasks = readPartition(partition);
+                for (Task task : partitionTasks) {
+                    tasks.put(task.getId(), task);
+                }
+                savedCounts.put(partition, partitionTasks.size());
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new DukeException("An error occurred while loading the partitions: " + e.getMessage());
+        }
+        WaderList waderList = new WaderList();
+        waderList.addAll(tasks.values());
+        waderList.clearDirtySegments();
+        trackedList = waderList;
+        return waderList;
+    }
+
+    /**
+     * Saves the given list, rewriting only the partitions whose tasks changed since it was last
+     * loaded or saved through this storage. A list this storage has not seen before is written in
+     * full. Each partition is replaced atomically on its own.
+     *
+     * @param waderList the WaderList to save
+     * @throws DukeException if a partition cannot be written
+     */
+    @Override
+    public synchronized void save(WaderList waderList) throws DukeException {
+        save(waderList, null);
+    }
+
+    /**
+     * Saves the change a command has just made. A mark or unmark rewrites only the partition of
+     * its task, an add only the partition that gained the task and a delete only the one that
+     * lost it.
+     *
+     * @param command the command line that was applied
+     * @param waderList the list after the command was applied
+     * @throws DukeException if a partition cannot be written
+     */
+    @Override
+    public synchronized void record(String command, WaderList waderList) throws DukeException {
+        if (waderList != trackedList) {
+            save(waderList, null);
+            return;
+        }
+        List<Task> tasks = waderList.tasksView();
+        Set<String> changed = new HashSet<>();
+        try {
+            switch (Parser.parse(command).getType()) {
+                case MARK:
+                    changed.add(partitionOf(tasks.get(Parser.parseTaskIndex(command, "mark"))));
+                    break;
+                case UNMARK:
+                    changed.add(partitionOf(tasks.get(Parser.parseTaskIndex(command, "unmark"))));
+                    break;
+                case TODO:
+                case DEADLINE:
+                case EVENT:
+                    changed.add(partitionOf(tasks.get(tasks.size() - 1)));
+                    break;
+                case DELETE:
+                    // The partition that lost the task is found by its count
+                    break;
+                default:
+                    changed = null;
+                    break;
+            }
+        } catch (DukeException | IndexOutOfBoundsException e) {
+            changed = null;
+        }
+        save(waderList, changed);
+    }
+
+    /**
+     * Writes the partitions that changed: those named in {@code changed}, or if it is null those
+     * holding a task in a dirty segment, plus any whose number of tasks differs from what was
+     * last written. Every partition of a list this storage has not seen before is written.
+     */
+    private void save(WaderList waderList, Set<String> changed) throws DukeException {
+        List<Task> tasks = waderList.tasksView();
+        boolean isTracked = waderList == trackedList;
+        BitSet dirty = waderList.getDirtySegments();
+        Map<String, List<Task>> partitions = new TreeMap<>();
+        Set<String> isChanged = changed == null ? new HashSet<>() : changed;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            String partition = partitionOf(task);
+            partitions.computeIfAbsent(partition, key -> new ArrayList<>()).add(task);
+            if (!isTracked || changed == null && dirty.get(i / WaderList.SEGMENT_SIZE)) {
+                isChanged.add(partition);
+            }
+        }
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<String, List<Task>> partition : partitions.entrySet()) {
+                String name = partition.getKey();
+                // A partition that only lost tasks is caught by its count; any gain marks it dirty
+                if (isChanged.contains(name) || partition.getValue().size() != savedCounts.getOrDefault(name, 0)) {
+                    writePartition(name, partition.getValue());
+                }
+            }
+            for (String name : listPartitions()) {
+                if (!partitions.containsKey(name)) {
+                    Files.delete(pathOf(name));
+                }
+            }
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while saving the partitions: " + e.getMessage());
+        }
+        savedCounts = new HashMap<>();
+        partitions.forEach((name, partitionTasks) -> savedCounts.put(name, partitionTasks.size()));
+        waderList.clearDirtySegments();
+        trackedList = waderList;
+    }
+
+    private static String partitionOf(Task task) {
+        return task.hasDate() ? YearMonth.from(task.getDateTime()).toString() : UNDATED;
+    }
+
+    private Path pathOf(String partition) {
+        return directory.resolve(partition + SUFFIX);
+    }
+
+    /**
+     * Returns the names of the partitions on disk, months in order and then the undated one.
+     */
+    private TreeSet<String> listPartitions() throws IOException {
+        TreeSet<String> partitions = new TreeSet<>();
+        if (!Files.isDirectory(directory)) {
+            return partitions;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                partitions.add(name.substring(0, name.length() - SUFFIX.length()));
+            }
+        }
+        return partitions;
+    }
+
+    private List<Task> readPartition(String partition) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(pathOf(partition), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(' ');
+                if (separator == -1) {
+                    continue;
+                }
+                Task task = Storage.parseTaskFromString(line.substring(separator + 1).strip());
+                task.setId(Long.parseLong(line.substring(0, separator)));
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    private void writePartition(String partition, List<Task> tasks) throws IOException {
+        Path temp = directory.resolve(partition + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                    StandardCharsets.UTF_8));
+            for (Task task : tasks) {
+                writer.write(Long.toString(task.getId()));
+                writer.write(' ');
+                writer.write(task.toString());
+                writer.write('\n');
+            }
+            writer.flush();
+            channel.force(true);
+        }
+        Files.move(temp, pathOf(partition), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,106 @@
+package wader.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Collects what happened while recovering a task file on load. Records that fail their checksum
+ * or cannot be parsed are appended to a quarantine side file instead of failing the whole load,
+ * and torn data left at the end of a file by a crash is counted as it is cut off. A file too
+ * damaged to recover anything from is moved aside whole.
+ */
+public class RecoveryReport {
+    private final Path quarantinePath;
+    private int quarantinedRecords;
+    private long truncatedBytes;
+
+    /**
+     * Constructs an empty report that quarantines records to the given file.
+     *
+     * @param quarantinePath the side file corrupt records are appended to
+     */
+    public RecoveryReport(Path quarantinePath) {
+        this.quarantinePath = quarantinePath;
+    }
+
+    /**
+     * Appends a corrupt record to the quarantine file, tagged with where it came from.
+     *
+     * @param source a short description of the file and position of the record
+     * @param record the record as text, or Base64 for binary data
+     * @throws IOException if the quarantine file cannot be written
+     */
+    public synchronized void quarantine(String source, String record) throws IOException {
+        String line = source + "\t" + record.replace('\n', ' ') + "\n";
+        Files.write(quarantinePath, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        quarantinedRecords++;
+    }
+
+    /**
+     * Moves a file that could not be recovered at all next to the quarantine file, so that it is
+     * kept for inspection instead of being overwritten by the next save. Earlier quarantined files
+     * are kept as well.
+     *
+     * @param file the damaged file
+     * @return where the file was moved to
+     * @throws IOException if the file cannot be moved
+     */
+    public synchronized Path quarantineFile(Path file) throws IOException {
+        Path target = Path.of(quarantinePath + ".1");
+        for (int i = 2; Files.exists(target); i++) {
+            target = Path.of(quarantinePath + "." + i);
+        }
+        return Files.move(file, target);
+    }
+
+    /**
+     * Notes that a torn tail of the given length was cut off a file.
+     *
+     * @param bytes the number of bytes removed
+     */
+    public synchronized void truncated(long bytes) {
+        truncatedBytes += bytes;
+    }
+
+    /**
+     * Checks whether recovery found nothing to repair.
+     *
+     * @return true if no record was quarantined and nothing was truncated
+     */
+    public synchronized boolean isClean() {
+        return quarantinedRecords == 0 && truncatedBytes == 0;
+    }
+
+    public synchronized int getQuarantinedRecords() {
+        return quarantinedRecords;
+    }
+
+    public synchronized long getTruncatedBytes() {
+        return truncatedBytes;
+    }
+
+    /**
+     * Returns a user-facing description of what recovery did.
+     *
+     * @return the summary, or an empty string if the report is clean
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        if (quarantinedRecords > 0) {
+            summary.append(quarantinedRecords)
+                    .append(quarantinedRecords == 1 ? " corrupt record was" : " corrupt records were")
+                    .append(" moved to ").append(quarantinePath).append('.');
+        }
+        if (truncatedBytes > 0) {
+            if (summary.length() > 0) {
+                summary.append('\n');
+            }
+            summary.append("Discarded ").append(truncatedBytes).append(" bytes of incomplete data left by a crash.");
+        }
+        return summary.toString();
+    }
+}
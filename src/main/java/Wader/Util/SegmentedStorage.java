@@ -0,0 +1,197 @@
+package wader.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import wader.task.Task;
+
+/**
+ * Persists a WaderList as fixed-size segment files, each holding {@link WaderList#SEGMENT_SIZE}
+ * consecutive tasks in the text format, tied together by a small manifest. Saving rewrites only
+ * the segments the list reports as dirty, so a single mark or add costs one segment write rather
+ * than a rewrite of every task.
+ *
+ * <p>Changed segments are always written under a new generation name and the manifest is
+ * replaced atomically, so a crash mid-save leaves the previous manifest and its segments intact.
+ *
+ * <p>Each recorded change saves the list straight away, so only the list this storage loaded
+ * benefits from dirty-segment tracking. Any other list, such as a copy handed to a background
+ * saver, is written in full.
+ */
+public class SegmentedStorage implements StorageBackend {
+    private static final String MANIFEST_HEADER = "wader-segments 1";
+
+    private final Path directory;
+    private final Path manifestPath;
+    private List<String> segmentNames = new ArrayList<>();
+    private long generation;
+    private WaderList trackedList;
+
+    /**
+     * Constructs a SegmentedStorage that keeps its segments in a directory next to the given path.
+     *
+     * @param filePath the path the segment directory is derived from
+     */
+    public SegmentedStorage(String filePath) {
+        this.directory = Path.of(filePath + ".segments");
+        this.manifestPath = directory.resolve("manifest");
+    }
+
+    /**
+     * Loads every segment listed in the manifest, in order. If there is no manifest yet, returns
+     * an empty WaderList.
+     *
+     * @return a WaderList containing all persisted tasks, with no dirty segments
+     * @throws DukeException if the manifest or a segment cannot be read
+     */
+    @Override
+    public synchronized WaderList load() throws DukeException {
+        List<Task> tasks = new ArrayList<>();
+        try {
+            readManifest();
+            for (String name : segmentNames) {
+                for (String line : Files.readAllLines(directory.resolve(name), StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        tasks.add(Storage.parseTaskFromString(line.strip()));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new DukeException("An error occurred while loading the segments: " + e.getMessage());
+        }
+        WaderList waderList = new WaderList();
+        waderList.addAll(tasks);
+        waderList.clearDirtySegments();
+        trackedList = waderList;
+        return waderList;
+    }
+
+    /**
+     * Saves the given list, rewriting only the segments that changed since it was last loaded or
+     * saved through this storage. A list this storage has not seen before is written in full.
+     *
+     * @param waderList the WaderList to save
+     * @throws DukeException if a segment or the manifest cannot be written
+     */
+    @Override
+    public synchronized void save(WaderList waderList) throws DukeException {
+        try {
+            if (trackedList == null) {
+                readManifest();
+            }
+            Files.createDirectories(directory);
+            List<Task> tasks = waderList.tasksView();
+            int segmentCount = (tasks.size() + WaderList.SEGMENT_SIZE - 1) / WaderList.SEGMENT_SIZE;
+            BitSet dirty = waderList.getDirtySegments();
+            boolean isTracked = waderList == trackedList;
+            long nextGeneration = generation + 1;
+
+            List<String> names = new ArrayList<>(segmentCount);
+            for (int i = 0; i < segmentCount; i++) {
+                if (isTracked && !dirty.get(i) && i < segmentNames.size()) {
+                    names.add(segmentNames.get(i));
+                    continue;
+                }
+                String name = "segment-" + i + "-" + nextGeneration + ".txt";
+                int from = i * WaderList.SEGMENT_SIZE;
+                int to = Math.min(from + WaderList.SEGMENT_SIZE, tasks.size());
+                writeDurably(directory.resolve(name), out -> Storage.writeText(tasks.subList(from, to), out));
+                names.add(name);
+            }
+            writeManifest(names, nextGeneration);
+
+            Set<String> obsolete = new HashSet<>(segmentNames);
+            obsolete.removeAll(names);
+            for (String name : obsolete) {
+                Files.deleteIfExists(directory.resolve(name));
+            }
+            segmentNames = names;
+            generation = nextGeneration;
+            waderList.clearDirtySegments();
+            trackedList = waderList;
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while saving the segments: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the segments the command changed, making the change durable before it is acknowledged.
+     *
+     * @param command the full command line that was applied
+     * @param waderList the list after the command was applied
+     * @throws DukeException if a segment or the manifest cannot be written
+     */
+    @Override
+    public synchronized void record(String command, WaderList waderList) throws DukeException {
+        save(waderList);
+    }
+
+    private void readManifest() throws IOException {
+        segmentNames = new ArrayList<>();
+        generation = 0;
+        if (!Files.exists(manifestPath)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(manifestPath, StandardCharsets.UTF_8);
+        if (lines.size() < 2 || !lines.get(0).equals(MANIFEST_HEADER)) {
+            throw new IOException("Unrecognised segment manifest");
+        }
+        generation = Long.parseLong(lines.get(1));
+        segmentNames.addAll(lines.subList(2, lines.size()));
+        removeUnlistedSegments();
+    }
+
+    /**
+     * Deletes segment files left behind by a save that crashed before its manifest was written.
+     */
+    private void removeUnlistedSegments() throws IOException {
+        Set<String> listed = new HashSet<>(segmentNames);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*")) {
+            for (Path file : files) {
+                if (!listed.contains(file.getFileName().toString())) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private void writeManifest(List<String> names, long manifestGeneration) throws IOException {
+        Path temp = directory.resolve("manifest.tmp");
+        writeDurably(temp, out -> {
+            StringBuilder manifest = new StringBuilder(MANIFEST_HEADER).append('\n');
+            manifest.append(manifestGeneration).append('\n');
+            for (String name : names) {
+                manifest.append(name).append('\n');
+            }
+            out.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+        });
+        Files.move(temp, manifestPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeDurably(Path target, SegmentWriter writer) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            writer.write(out);
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    private interface SegmentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -1,10 +1,29 @@
 package wader.util;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Scanner;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import wader.task.DeadlineTask;
 import wader.task.EventTask;
@@ -15,9 +34,69 @@ import wader.task.ToDoTask;
  * Handles the persistent storage of tasks to and from a file. This class provides functionality to
  * save a WaderList to a file and load tasks from a file back into a WaderList, maintaining task
  * completion status and formatting.
+ *
+ * <p>In journal mode every mutating command is also appended to a write-ahead {@link Journal}
+ * next to the snapshot file. Loading replays the journal over the snapshot, and the journal is
+ * folded into a new snapshot in the background once it grows past a size threshold.
+ *
+ * <p>Snapshots are written in the human-readable text format, the compact {@link BinarySnapshot}
+ * format, the block-compressed {@link CompressedSnapshot} format or the dictionary-encoded
+ * {@link DictionarySnapshot} format, which stores each distinct description once. Loading
+ * recognises any format regardless of the configured one, and the text format remains available
+ * through {@link #exportText(WaderList, String)}.
+ *
+ * <p>Journaled storage also keeps an {@link OffsetIndex} of a text or binary snapshot in a
+ * sidecar file. While the journal is empty the snapshot matches the list exactly, so a mark or
+ * unmark is applied by overwriting the task's status byte in place instead of being journaled.
+ *
+ * <p>Several processes may share one storage file. Every load, save and journaled change runs
+ * under the exclusive {@link StorageLock} of the file and moves its version stamp on, so a
+ * process can check cheaply whether it needs to reload. A save or journaled change made by a
+ * process whose tasks are older than the stamp is rejected with a
+ * {@link StorageConflictException} rather than overwriting the other process's changes. Edits
+ * that bypass the lock, such as those of a sync tool, are noticed by the size and modification
+ * time of the snapshot differing from what this storage last saw.
  */
-public class Storage {
+public class Storage implements StorageBackend {
+    public static final long DEFAULT_JOURNAL_THRESHOLD = 64 * 1024;
+    public static final long PARALLEL_LOAD_THRESHOLD = 16 * 1024 * 1024;
+    public static final int DEFAULT_LAZY_CACHE_SIZE = 4096;
+
+    private static final long UNLOADED = -1;
+
+    /** The date-time format tasks print in the text format, e.g. "Aug 21 2025 6PM". */
+    private static final DateTimeFormatter SAVED_DATE_TIME = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive().appendPattern("MMM d yyyy ha").toFormatter();
+
+    /**
+     * The on-disk formats a snapshot can be written in.
+     */
+    public enum Format {
+        TEXT, BINARY, COMPRESSED, DICTIONARY
+    }
+
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wader-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private String filePath;
+    private Format format = Format.TEXT;
+    private Journal journal;
+    private long journalThreshold;
+    private Future<?> pendingCompaction;
+    private volatile OffsetIndex offsetIndex;
+    /** The list handed out by the latest lazy load, which reads its tasks through an open channel. */
+    private LazyTaskList lazyList;
+    private RecoveryReport recoveryReport;
+    private StorageLock lock;
+    /** The version stamp the tasks of this process match, or UNLOADED before the first load. */
+    private volatile long loadedVersion = UNLOADED;
+    /** Whether the current locked operation changed any file. */
+    private boolean hasWritten;
+    /** The size and modification time of the snapshot as this storage last read or wrote it. */
+    private volatile String knownSnapshot;
 
     /**
      * Constructs a Storage object with the specified file path.
@@ -26,42 +105,208 @@ public class Storage {
      */
     public Storage(String filePath) {
         this.filePath = filePath;
+        this.lock = new StorageLock(Path.of(filePath + ".lock"));
     }
 
     /**
-     * Saves all tasks from the given WaderList to the storage file. Each task is written as a
-     * string representation on a separate line. If the file doesn't exist, it will be created. If
-     * it exists, it will be overwritten.
+     * Constructs a Storage object that journals every mutating command next to the snapshot file.
      *
-     * @param waderList the WaderList containing tasks to be saved
-     * @throws DukeException if an error occurs during file writing operations
+     * @param filePath the path to the snapshot file
+     * @param journalThreshold the journal size in bytes after which it is compacted into a new
+     *        snapshot
      */
-    public void save(WaderList waderList) throws DukeException {
+    public Storage(String filePath, long journalThreshold) {
+        assert journalThreshold > 0 : "Journal threshold must be positive";
+        this.filePath = filePath;
+        this.lock = new StorageLock(Path.of(filePath + ".lock"));
+        this.journal = new Journal(Path.of(filePath + ".journal"));
+        this.journalThreshold = journalThreshold;
+    }
+
+    /**
+     * Constructs a Storage object that writes snapshots in the given format.
+     *
+     * @param filePath the path to the snapshot file
+     * @param format the format snapshots are written in
+     */
+    public Storage(String filePath, Format format) {
+        this(filePath);
+        this.format = format;
+    }
+
+    /**
+     * Constructs a journaled Storage object that writes snapshots in the given format.
+     *
+     * @param filePath the path to the snapshot file
+     * @param format the format snapshots are written in
+     * @param journalThreshold the journal size in bytes after which it is compacted into a new
+     *        snapshot
+     */
+    public Storage(String filePath, Format format, long journalThreshold) {
+        this(filePath, journalThreshold);
+        this.format = format;
+    }
+
+    /**
+     * Checks whether this storage journals mutating commands.
+     *
+     * @return true if journal mode is enabled
+     */
+    public boolean isJournaled() {
+        return journal != null;
+    }
+
+    /**
+     * Records a mutating command that has just been applied to the given list. In journal mode the
+     * command is appended to the journal and forced to disk before returning; once the journal
+     * passes its threshold a snapshot of the list is compacted in the background. A mark or unmark
+     * made while the journal is empty is written straight into the snapshot instead. Without a
+     * journal this does nothing.
+     *
+     * @param command the full command line that was applied
+     * @param waderList the list after the command was applied
+     * @throws StorageConflictException if another process changed the storage since it was loaded
+     * @throws DukeException if the journal cannot be written
+     */
+    @Override
+    public void record(String command, WaderList waderList) throws DukeException {
+        if (journal == null) {
+            return;
+        }
+        updateLocked("writing the journal", version -> {
+            checkVersion(version);
+            if (patchStatusInPlace(command)) {
+                return true;
+            }
+            try {
+                journal.append(command);
+            } catch (IOException e) {
+                throw new DukeException("An error occurred while writing the journal: " + e.getMessage());
+            }
+            boolean isCompacting = pendingCompaction != null && !pendingCompaction.isDone();
+            if (journal.size() >= journalThreshold && !isCompacting && !journal.hasRotated()) {
+                List<Task> tasks = copyTasks(waderList);
+                try {
+                    journal.rotate();
+                } catch (IOException e) {
+                    throw new DukeException("An error occurred while rotating the journal: " + e.getMessage());
+                }
+                pendingCompaction = COMPACTOR.submit(() -> compactInBackground(tasks));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Checks whether another process saved or journaled changes since this storage last loaded,
+     * by reading the version stamp, or replaced or edited the snapshot without taking the lock.
+     *
+     * @return true if the file is newer than the loaded tasks
+     * @throws DukeException if the version stamp cannot be read
+     */
+    @Override
+    public boolean hasChangedSinceLoad() throws DukeException {
+        if (loadedVersion == UNLOADED) {
+            return false;
+        }
         try {
-            File file = new File(filePath);
+            return lock.readVersion() != loadedVersion || !describeSnapshot().equals(knownSnapshot);
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while checking the file: " + e.getMessage());
+        }
+    }
 
-            if (!file.exists()) {
-                file.createNewFile();
+    /**
+     * Reads a single task from the snapshot without loading the rest of the file, through the
+     * offset index or, for a compressed snapshot, by inflating only the block that holds it. Only
+     * tasks covered by the snapshot can be read this way, so the result reflects the snapshot
+     * rather than any journaled changes.
+     *
+     * @param index the 0-based task number
+     * @return the task stored at that position in the snapshot
+     * @throws DukeException if the snapshot is not indexed, the task is not in the snapshot or the
+     *         snapshot cannot be read
+     */
+    public Task readTask(int index) throws DukeException {
+        OffsetIndex current = offsetIndex;
+        try {
+            Path snapshot = Path.of(filePath);
+            if (current == null && CompressedSnapshot.isCompressedSnapshot(snapshot)) {
+                return CompressedSnapshot.readTask(snapshot, index);
             }
+            if (current == null || index < 0 || index >= current.size()) {
+                throw new DukeException("Task " + (index + 1) + " is not in the indexed snapshot.");
+            }
+            return current.readTask(snapshot, index);
+        } catch (IOException | RuntimeException e) {
+            throw new DukeException("An error occurred while reading the file: " + e.getMessage());
+        }
+    }
 
-            FileWriter writer = new FileWriter(file);
-            String toWrite = "";
-            for (int i = 0; i < waderList.getSize(); i++) {
-                toWrite += waderList.getTaskString(i) + "\n";
+    /**
+     * Saves all tasks from the given WaderList to the storage file. In the text format each task
+     * is written as a string representation on a separate line. Tasks are streamed to a temporary
+     * file that is forced to disk and then atomically renamed over the storage file, so a crash
+     * mid-save leaves the previous file intact rather than a truncated one.
+     *
+     * @param waderList the WaderList containing tasks to be saved
+     * @throws StorageConflictException if another process changed the storage since it was loaded
+     * @throws DukeException if an error occurs during file writing operations
+     */
+    @Override
+    public void save(WaderList waderList) throws DukeException {
+        awaitCompaction();
+        updateLocked("saving the file", version -> {
+            checkVersion(version);
+            if (journal != null) {
+                compact(waderList);
+                return true;
+            }
+            try {
+                Path temp = Path.of(filePath + ".tmp");
+                writeDurably(waderList.tasksView(), temp);
+                Files.move(temp, Path.of(filePath), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                if (lazyList != null && waderList.isBackedBy(lazyList)) {
+                    rebaseLazyList(waderList, indexSnapshot());
+                }
+            } catch (IOException e) {
+                throw new DukeException("An error occurred while saving the file: " + e.getMessage());
             }
-            writer.write(toWrite);
-            writer.close();
+            return true;
+        });
+    }
+
+    /**
+     * Exports all tasks from the given WaderList in the human-readable text format, whatever
+     * format this storage writes its snapshots in.
+     *
+     * @param waderList the WaderList containing tasks to be exported
+     * @param exportPath the path of the text file to write
+     * @throws DukeException if an error occurs during file writing operations
+     */
+    public void exportText(WaderList waderList, String exportPath) throws DukeException {
+        try (OutputStream out = Files.newOutputStream(Path.of(exportPath))) {
+            writeText(waderList.tasksView(), out);
         } catch (IOException e) {
-            throw new DukeException("An error occurred while saving the file: " + e.getMessage());
+            throw new DukeException("An error occurred while exporting the file: " + e.getMessage());
         }
     }
 
     /**
-     * Loads tasks from the storage file and returns them as a WaderList. Parses each line in the
-     * file as a task string and recreates the appropriate Task objects (ToDoTask, DeadlineTask, or
-     * EventTask) with their completion status. If the file doesn't exist, returns an empty
+     * Loads tasks from the storage file and returns them as a WaderList. Binary snapshots are
+     * decoded directly; otherwise each line in the file is parsed as a task string and the
+     * appropriate Task objects (ToDoTask, DeadlineTask, or EventTask) are recreated with their
+     * completion status. If the file doesn't exist, returns an empty
      * WaderList.
      *
+     * <p>Loading recovers from damage in a single pass instead of failing: records that fail their
+     * checksum or cannot be parsed are quarantined to a side file and torn data at the end of the
+     * journal is cut off. Journal replay stops at the first damaged record, or at the first command
+     * that can no longer be applied, and the records after it are quarantined too. What was
+     * repaired is available from {@link #getRecoveryReport()}. In journal mode a damaged snapshot
+     * is rewritten straight away.
+     *
      * Supported task formats:
      * <ul>
      * <li>ToDo: [T][X] description or [T][ ] description</li>
@@ -75,49 +320,573 @@ public class Storage {
      * @throws DukeException if an error occurs during file reading operations or if task parsing
      *         fails
      */
+    @Override
     public WaderList load() throws DukeException {
-        WaderList waderList = new WaderList();
+        return loadLocked(this::loadUnlocked);
+    }
+
+    private WaderList loadUnlocked() throws DukeException {
+        recoveryReport = new RecoveryReport(Path.of(filePath + ".quarantine"));
+        WaderList waderList = loadSnapshot();
+        if (journal != null) {
+            replayJournal(waderList, true);
+            try {
+                OffsetIndex index = loadOffsetIndex(waderList.getSize());
+                offsetIndex = index != null && index.size() == waderList.getSize() ? index : null;
+            } catch (IOException e) {
+                throw new DukeException("An error occurred while indexing the file: " + e.getMessage());
+            }
+        }
+        return waderList;
+    }
+
+    /**
+     * Loads the snapshot without creating its tasks up front. Only the offset index of the
+     * snapshot is read; each task is parsed when it is first accessed and at most
+     * {@code cacheSize} snapshot tasks are kept in memory at once. In journal mode the journal is
+     * replayed over the list as usual, but replayed records are left for the next compaction
+     * rather than forcing every task to be read at startup.
+     *
+     * <p>A malformed record is only detected when its task is accessed, and is then reported as
+     * an unchecked exception.
+     *
+     * <p>The list reads through a channel on the snapshot. Saving the list moves it onto the
+     * snapshot written from it, and the next lazy load closes it, so a list must not be used
+     * once a later lazy load has replaced it.
+     *
+     * @param cacheSize the maximum number of snapshot tasks kept in memory
+     * @return a WaderList whose tasks are materialized on demand
+     * @throws DukeException if the snapshot cannot be indexed or the journal cannot be read
+     */
+    @Override
+    public WaderList loadLazily(int cacheSize) throws DukeException {
+        return loadLocked(() -> loadLazilyUnlocked(cacheSize));
+    }
+
+    private WaderList loadLazilyUnlocked(int cacheSize) throws DukeException {
+        Path snapshot = Path.of(filePath);
+        WaderList waderList;
+        LazyTaskList lazy = null;
+        recoveryReport = new RecoveryReport(Path.of(filePath + ".quarantine"));
+        try {
+            if (journal != null) {
+                recoverCompaction();
+            }
+            if (CompressedSnapshot.isCompressedSnapshot(snapshot)
+                    || DictionarySnapshot.isDictionarySnapshot(snapshot)) {
+                // Records are not addressable on their own, so load them all up front
+                waderList = loadUnlocked();
+                installLazyList(null);
+                return waderList;
+            }
+            OffsetIndex index = loadOffsetIndex(-1);
+            if (index == null) {
+                waderList = new WaderList();
+            } else {
+                lazy = new LazyTaskList(FileChannel.open(snapshot, StandardOpenOption.READ), index, cacheSize);
+                waderList = new WaderList(lazy);
+                offsetIndex = journal != null ? index : null;
+            }
+            if (journal != null) {
+                replayJournal(waderList, false);
+            }
+            installLazyList(lazy);
+            return waderList;
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while loading the file: " + e.getMessage());
+        } finally {
+            if (lazy != null && lazy != lazyList) {
+                // The load failed, so nothing reads through the new channel
+                lazy.close();
+            }
+        }
+    }
+
+    /**
+     * Makes the given list the one handed out by the latest lazy load and closes the one before
+     * it, which the new list replaces.
+     */
+    private void installLazyList(LazyTaskList list) {
+        LazyTaskList previous = lazyList;
+        lazyList = list;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Moves the lazily loaded list onto the snapshot just written from it, so that it stops
+     * holding the replaced snapshot open. Any other list, or a snapshot without an index, is left
+     * as it is.
+     */
+    private void rebaseLazyList(WaderList waderList, OffsetIndex index) throws IOException {
+        if (lazyList == null || index == null || !waderList.isBackedBy(lazyList)
+                || index.size() != lazyList.size()) {
+            return;
+        }
+        lazyList.rebase(FileChannel.open(Path.of(filePath), StandardOpenOption.READ), index);
+    }
+
+    /**
+     * Returns the snapshot and the lock file, whose version stamp moves whenever another Wader
+     * process changes the journal.
+     *
+     * @return the files to watch for outside changes
+     */
+    @Override
+    public List<Path> getWatchedFiles() {
+        return List.of(Path.of(filePath), Path.of(filePath + ".lock"));
+    }
+
+    /**
+     * Returns what the most recent load repaired, so that it can be reported to the user.
+     *
+     * @return the recovery report of the last load, or null if nothing has been loaded
+     */
+    @Override
+    public RecoveryReport getRecoveryReport() {
+        return recoveryReport;
+    }
+
+    /**
+     * Loads the sidecar offset index, rebuilding it from the snapshot if it is missing or no
+     * longer matches the snapshot and the given task count. A negative count is not checked.
+     * Returns null if there is no snapshot or it is compressed.
+     */
+    private OffsetIndex loadOffsetIndex(int taskCount) throws IOException {
+        Path snapshot = Path.of(filePath);
+        OffsetIndex index = OffsetIndex.read(Path.of(filePath + ".idx"));
+        if (index != null && Files.exists(snapshot)
+                && index.isValidFor(snapshot, taskCount < 0 ? index.size() : taskCount)) {
+            return index;
+        }
+        return indexSnapshot();
+    }
+
+    /**
+     * Builds and writes the offset index of the current snapshot, or removes a stale one if the
+     * snapshot cannot be indexed.
+     */
+    private OffsetIndex indexSnapshot() throws IOException {
+        Path snapshot = Path.of(filePath);
+        Path sidecar = Path.of(filePath + ".idx");
+        if (!Files.exists(snapshot) || CompressedSnapshot.isCompressedSnapshot(snapshot)
+                || DictionarySnapshot.isDictionarySnapshot(snapshot)) {
+            Files.deleteIfExists(sidecar);
+            return null;
+        }
+        OffsetIndex index = OffsetIndex.build(snapshot);
+        index.write(sidecar);
+        return index;
+    }
+
+    /**
+     * Applies a mark or unmark straight to the snapshot when nothing is journaled, so that the
+     * command costs one positional write of the status byte. Anything else, or any command made
+     * while the snapshot is behind the list, is left to the journal.
+     */
+    private boolean patchStatusInPlace(String command) throws DukeException {
+        OffsetIndex index = offsetIndex;
+        boolean isCompacting = pendingCompaction != null && !pendingCompaction.isDone();
+        if (index == null || isCompacting || journal.size() > 0 || journal.hasRotated()) {
+            return false;
+        }
+        int taskIndex;
+        boolean isDone;
+        try {
+            Parser.CommandType type = Parser.parse(command).getType();
+            if (type != Parser.CommandType.MARK && type != Parser.CommandType.UNMARK) {
+                return false;
+            }
+            isDone = type == Parser.CommandType.MARK;
+            taskIndex = Parser.parseTaskIndex(command, isDone ? "mark" : "unmark");
+        } catch (DukeException e) {
+            return false;
+        }
+        if (taskIndex < 0 || taskIndex >= index.size()) {
+            return false;
+        }
+        try {
+            index.patchStatus(Path.of(filePath), taskIndex, isDone);
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while updating the file: " + e.getMessage());
+        }
+        return true;
+    }
+
+    private WaderList loadSnapshot() throws DukeException {
+        if (journal != null) {
+            try {
+                recoverCompaction();
+            } catch (IOException e) {
+                throw new DukeException("An error occurred while recovering the journal: " + e.getMessage());
+            }
+        }
         try {
             File file = new File(filePath);
             if (!file.exists()) {
-                return waderList; // Return empty list if file doesn't exist
+                return new WaderList(); // Return empty list if file doesn't exist
             }
+            if (CompressedSnapshot.isCompressedSnapshot(file.toPath())
+                    || DictionarySnapshot.isDictionarySnapshot(file.toPath())
+                    || BinarySnapshot.isBinarySnapshot(file.toPath())) {
+                return loadBinarySnapshot(file.toPath());
+            }
+            if (file.length() >= PARALLEL_LOAD_THRESHOLD) {
+                return new ParallelLoader().load(file.toPath(), recoveryReport);
+            }
+            return loadText(file, recoveryReport);
+        } catch (FileNotFoundException e) {
+            throw new DukeException("File not found: " + filePath);
+        } catch (DukeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DukeException("An error occurred while loading the file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads a snapshot in one of the binary formats, recovering what the format allows. A snapshot
+     * that cannot be recovered at all is moved to the quarantine side file's name before the load
+     * fails, so that saving whatever the list holds afterwards cannot overwrite it.
+     */
+    private WaderList loadBinarySnapshot(Path snapshot) throws IOException, DukeException {
+        try {
+            if (CompressedSnapshot.isCompressedSnapshot(snapshot)) {
+                return CompressedSnapshot.read(snapshot, recoveryReport);
+            }
+            if (DictionarySnapshot.isDictionarySnapshot(snapshot)) {
+                return DictionarySnapshot.read(snapshot, recoveryReport);
+            }
+            return BinarySnapshot.read(snapshot, recoveryReport);
+        } catch (IOException e) {
+            Path moved = recoveryReport.quarantineFile(snapshot);
+            throw new DukeException("The task file is damaged (" + e.getMessage() + ") and was moved to " + moved);
+        }
+    }
 
-            Scanner fileScanner = new Scanner(file);
-            while (fileScanner.hasNextLine()) {
-                String line = fileScanner.nextLine().strip();
+    /**
+     * Loads a text storage file line by line on the calling thread. Each task is constructed once,
+     * with its dates and completion status, and the tasks are inserted into the list in bulk.
+     * Lines that look like tasks but cannot be parsed are quarantined to the report, if one is
+     * given.
+     */
+    static WaderList loadText(File file, RecoveryReport report) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        // Decode leniently, so a damaged byte spoils one line rather than the whole file
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while (line != null) {
+                line = line.strip();
                 if (!line.isEmpty()) {
-                    Task task = parseTaskFromString(line);
+                    Task task = parseTaskFromString(line, report);
                     if (task != null) {
-                        addTaskToWaderList(task, waderList);
+                        tasks.add(task);
                     }
                 }
+                line = reader.readLine();
             }
-            fileScanner.close();
-        } catch (FileNotFoundException e) {
-            throw new DukeException("File not found: " + filePath);
-        } catch (Exception e) {
-            throw new DukeException("An error occurred while loading the file: " + e.getMessage());
         }
+        WaderList waderList = new WaderList();
+        waderList.addAll(tasks);
         return waderList;
     }
 
+    /**
+     * Folds the journal into a fresh snapshot of the given list and leaves an empty journal.
+     */
+    private void compact(WaderList waderList) throws DukeException {
+        try {
+            recoverCompaction();
+            journal.rotate();
+            Path temp = Path.of(filePath + ".compact.tmp");
+            writeDurably(waderList.tasksView(), temp);
+            installCompactedSnapshot(temp, waderList.getSize());
+            rebaseLazyList(waderList, offsetIndex);
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while saving the file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for a background compaction to finish. This must happen before taking the lock, which
+     * the compaction needs to install its snapshot.
+     */
+    private void awaitCompaction() throws DukeException {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DukeException("Interrupted while waiting for journal compaction");
+        } catch (ExecutionException e) {
+            throw new DukeException("An error occurred while compacting the journal: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Loads the tasks while holding the lock, and remembers the version stamp they match. The
+     * stamp only moves on if loading had to repair or compact the files.
+     */
+    private WaderList loadLocked(Loader loader) throws DukeException {
+        awaitCompaction();
+        List<WaderList> loaded = new ArrayList<>(1);
+        updateLocked("loading the file", version -> {
+            hasWritten = false;
+            loaded.add(loader.load());
+            return hasWritten || recoveryReport.getTruncatedBytes() > 0;
+        });
+        return loaded.get(0);
+    }
+
+    /**
+     * Runs an update under the exclusive lock and records the resulting version stamp as the one
+     * the tasks of this process match. A failure to lock is reported as the given action failing.
+     */
+    private void updateLocked(String action, StorageLock.Update update) throws DukeException {
+        try {
+            loadedVersion = lock.update(version -> {
+                boolean isChanged = update.apply(version);
+                knownSnapshot = describeSnapshot();
+                return isChanged;
+            });
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while " + action + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Describes the snapshot by its size and modification time, which change with any write.
+     */
+    private String describeSnapshot() throws IOException {
+        Path snapshot = Path.of(filePath);
+        if (!Files.exists(snapshot)) {
+            return "absent";
+        }
+        return Files.size(snapshot) + "@" + Files.getLastModifiedTime(snapshot);
+    }
+
+    /**
+     * Rejects a write from a process whose tasks are older than the file. A storage that never
+     * loaded has nothing to lose and may overwrite the file.
+     */
+    private void checkVersion(long version) throws StorageConflictException {
+        if (loadedVersion != UNLOADED && version != loadedVersion) {
+            throw new StorageConflictException("The task list was changed in another Wader window, so this change "
+                    + "was not saved. The list has been reloaded.");
+        }
+    }
+
+    /**
+     * Copies the tasks of the list so that a background compaction is not affected by later
+     * changes to them.
+     */
+    private static List<Task> copyTasks(WaderList waderList) {
+        List<Task> tasks = new ArrayList<>(waderList.getSize());
+        for (Task task : waderList.getTasks()) {
+            tasks.add(task.copy());
+        }
+        return tasks;
+    }
+
+    /**
+     * Streams a snapshot of the tasks to the given file and forces it to disk before returning.
+     */
+    private void writeDurably(List<Task> tasks, Path target) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeSnapshot(tasks, Channels.newOutputStream(channel));
+            channel.force(true);
+        }
+    }
+
+    private void writeSnapshot(List<Task> tasks, OutputStream out) throws IOException {
+        if (format == Format.BINARY) {
+            BinarySnapshot.write(tasks, out);
+        } else if (format == Format.COMPRESSED) {
+            CompressedSnapshot.write(tasks, out, CompressedSnapshot.DEFAULT_BLOCK_SIZE);
+        } else if (format == Format.DICTIONARY) {
+            DictionarySnapshot.write(tasks, out);
+        } else {
+            writeText(tasks, out);
+        }
+    }
+
+    static void writeText(List<Task> tasks, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (Task task : tasks) {
+            writer.write(task.toString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes a snapshot covering the rotated journal on the compactor thread. The snapshot is
+     * written before taking the lock and installed under it, unless another process changed the
+     * storage in the meantime; that process has then already folded the rotated journal in.
+     */
+    private void compactInBackground(List<Task> tasks) {
+        Path temp = Path.of(filePath + ".compact.tmp");
+        try {
+            writeDurably(tasks, temp);
+            lock.update(version -> {
+                if (version != loadedVersion) {
+                    Files.deleteIfExists(temp);
+                    return false;
+                }
+                installCompactedSnapshot(temp, tasks.size());
+                loadedVersion = version + 1;
+                knownSnapshot = describeSnapshot();
+                return true;
+            });
+        } catch (IOException | DukeException e) {
+            // The rotated journal is kept, so the next load still replays it
+            System.err.println("Journal compaction failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Installs a durable snapshot that covers the rotated journal. The snapshot is moved to a
+     * separate name before the rotated journal is discarded, so that a crash at any point leaves
+     * either the old snapshot with its journal or the complete new snapshot.
+     */
+    private void installCompactedSnapshot(Path temp, int taskCount) throws IOException {
+        Path snapshot = Path.of(filePath);
+        Path compacted = Path.of(filePath + ".compact");
+
+        Files.move(temp, compacted, StandardCopyOption.ATOMIC_MOVE);
+        journal.discardRotated();
+        Files.move(compacted, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        hasWritten = true;
+
+        OffsetIndex index = indexSnapshot();
+        offsetIndex = index != null && index.size() == taskCount ? index : null;
+    }
+
+    /**
+     * Finishes a compaction that was interrupted by a crash. A complete compacted snapshot already
+     * covers the rotated journal, so it replaces the snapshot and the rotated journal is dropped.
+     */
+    private void recoverCompaction() throws IOException {
+        Path compacted = Path.of(filePath + ".compact");
+        Files.deleteIfExists(Path.of(filePath + ".compact.tmp"));
+        if (Files.exists(compacted)) {
+            hasWritten = true;
+            journal.discardRotated();
+            Files.move(compacted, Path.of(filePath), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Replays journaled commands over a freshly loaded snapshot. A leftover rotated journal means
+     * a compaction never finished, so the result is compacted again straight away. When asked to,
+     * anything else replayed is compacted too, so the session starts with a snapshot that matches
+     * the list and an empty journal, which lets status changes be patched into the snapshot in
+     * place.
+     */
+    private void replayJournal(WaderList waderList, boolean compactReplayed) throws DukeException {
+        boolean hasRotated = journal.hasRotated();
+        List<String> records;
+        try {
+            records = journal.readRecords(recoveryReport);
+            for (int i = 0; i < records.size(); i++) {
+                if (!replayRecord(records.get(i), waderList)) {
+                    // Later commands may refer to positions this one should have changed
+                    for (String unreplayed : records.subList(i, records.size())) {
+                        recoveryReport.quarantine("journal replay", unreplayed);
+                    }
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new DukeException("An error occurred while reading the journal: " + e.getMessage());
+        }
+        boolean isRepaired = compactReplayed && recoveryReport.getQuarantinedRecords() > 0;
+        if (hasRotated || isRepaired || (compactReplayed && !records.isEmpty())) {
+            compact(waderList);
+        }
+    }
+
+    /**
+     * Applies a single journaled command to the list. Commands are replayed through the same
+     * parsing as user input. Only commands that succeeded are journaled, so one that fails on
+     * replay means the list no longer matches the one it was recorded against.
+     *
+     * @return true if the command was applied
+     */
+    private static boolean replayRecord(String record, WaderList waderList) {
+        try {
+            Parser.Command command = Parser.parse(record);
+            switch (command.getType()) {
+                case TODO:
+                    waderList.addToDoTask(Parser.parseTodoDescription(record));
+                    break;
+                case DEADLINE:
+                    String[] deadline = Parser.parseDeadlineCommand(record);
+                    waderList.addDeadlineTask(deadline[0], deadline[1]);
+                    break;
+                case EVENT:
+                    String[] event = Parser.parseEventCommand(record);
+                    waderList.addEventTask(event[0], event[1], event[2]);
+                    break;
+                case MARK:
+                    waderList.mark(Parser.parseTaskIndex(record, "mark"));
+                    break;
+                case UNMARK:
+                    waderList.unmark(Parser.parseTaskIndex(record, "unmark"));
+                    break;
+                case DELETE:
+                    waderList.delete(Parser.parseDeleteIndex(record));
+                    break;
+                default:
+                    return false;
+            }
+            return true;
+        } catch (DukeException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a task string like {@link #parseTaskFromString(String)}, but quarantines a string that
+     * cannot be parsed to the given report and returns null instead of throwing.
+     */
+    static Task parseTaskFromString(String taskString, RecoveryReport report) throws IOException {
+        try {
+            return parseTaskFromString(taskString);
+        } catch (RuntimeException e) {
+            if (report == null) {
+                throw e;
+            }
+            report.quarantine("snapshot", taskString);
+            return null;
+        }
+    }
+
     /**
      * Parses a task string from the saved file format and creates the appropriate Task object.
      * Expected formats: - [T][X] description (ToDo task) - [D][ ] description (by: deadline)
      * (Deadline task) - [E][X] description (from: start to: end) (Event task)
+     *
+     * @throws IllegalArgumentException if the string is not in one of these formats
+     * @throws java.time.format.DateTimeParseException if a date in the string cannot be parsed
      */
-    private Task parseTaskFromString(String taskString) throws DukeException {
+    static Task parseTaskFromString(String taskString) {
         if (taskString.length() < 6) {
-            return null; // Invalid format
+            throw new IllegalArgumentException("Task line is too short: " + taskString);
         }
 
         // Extract task type and completion status
         char taskType = taskString.charAt(1); // T, D, or E
-        boolean isDone = taskString.charAt(3) == 'X';
+        boolean isDone = taskString.charAt(4) == 'X';
         String content = taskString.substring(6).trim(); // Remove "[T][X] " or "[D][ ] " and trim
 
-        Task task = null;
+        Task task;
 
         if (taskType == 'T') {
             // ToDo task: [T][X] description
@@ -125,159 +894,37 @@ public class Storage {
         } else if (taskType == 'D') {
             // Deadline task: [D][X] description (by: Aug 21 2025 6pm)
             int byIndex = content.lastIndexOf(" (by: ");
-            if (byIndex != -1) {
-                String description = content.substring(0, byIndex);
-                String deadline = content.substring(byIndex + 6, content.length() - 1);
-
-                // Parse the deadline format "Aug 21 2025 6pm" -> "2025-08-21 18:00"
-                String[] deadlineParts = deadline.split(" ");
-                if (deadlineParts.length >= 4) {
-                    String dateStr =
-                            convertToIsoDate(deadlineParts[2], deadlineParts[0], deadlineParts[1]);
-                    String timeStr = convertToIsoTime(deadlineParts[3]);
-                    task = new DeadlineTask(description, dateStr, timeStr);
-                }
+            if (byIndex == -1) {
+                throw new IllegalArgumentException("Deadline has no (by: ...): " + taskString);
             }
+            String description = content.substring(0, byIndex);
+            String deadline = content.substring(byIndex + 6, content.length() - 1);
+            task = new DeadlineTask(description, LocalDateTime.parse(deadline, SAVED_DATE_TIME));
         } else if (taskType == 'E') {
             // Event task: [E][X] description (from: Aug 22 2025 2pm to: Aug 25 2025 11pm)
             int fromIndex = content.lastIndexOf(" (from: ");
             int toIndex = content.lastIndexOf(" to: ");
-            if (fromIndex != -1 && toIndex != -1) {
-                String description = content.substring(0, fromIndex);
-                String from = content.substring(fromIndex + 8, toIndex);
-                String to = content.substring(toIndex + 5, content.length() - 1); // Remove " to: "
-
-                // Parse from and to dates/times
-                String[] fromParts = from.split(" ");
-                String[] toParts = to.split(" ");
-                if (fromParts.length >= 4 && toParts.length >= 4) {
-                    String fromDateStr = convertToIsoDate(fromParts[2], fromParts[0], fromParts[1]);
-                    String fromTimeStr = convertToIsoTime(fromParts[3]);
-                    String toDateStr = convertToIsoDate(toParts[2], toParts[0], toParts[1]);
-                    String toTimeStr = convertToIsoTime(toParts[3]);
-                    task = new EventTask(description, fromTimeStr, toTimeStr, fromDateStr,
-                            toDateStr);
-                }
+            if (fromIndex == -1 || toIndex < fromIndex) {
+                throw new IllegalArgumentException("Event has no (from: ... to: ...): " + taskString);
             }
+            String description = content.substring(0, fromIndex);
+            String from = content.substring(fromIndex + 8, toIndex);
+            String to = content.substring(toIndex + 5, content.length() - 1); // Remove " to: "
+            task = new EventTask(description, LocalDateTime.parse(from, SAVED_DATE_TIME),
+                    LocalDateTime.parse(to, SAVED_DATE_TIME));
+        } else {
+            throw new IllegalArgumentException("Unknown task type '" + taskType + "': " + taskString);
         }
 
         // Set completion status
-        if (task != null && isDone) {
+        if (isDone) {
             task.markAsDone();
         }
 
         return task;
     }
 
-    /**
-     * Adds a parsed task to the WaderList and preserves its completion status.
-     */
-    private void addTaskToWaderList(Task task, WaderList waderList) {
-        boolean wasCompleted = task.isDone();
-
-        if (task instanceof ToDoTask) {
-            waderList.addToDoTask(task.getDescription());
-        } else if (task instanceof DeadlineTask) {
-            // We need to reconstruct the deadline format for WaderList
-            String savedFormat = task.toString();
-            int byIndex = savedFormat.lastIndexOf(" (by: ");
-            if (byIndex != -1) {
-                String deadline = savedFormat.substring(byIndex + 6, savedFormat.length() - 1);
-                String[] parts = deadline.split(" ");
-                if (parts.length >= 4) {
-                    String dateStr = convertToIsoDate(parts[2], parts[0], parts[1]);
-                    String timeStr = convertToIsoTime(parts[3]);
-                    try {
-                        waderList.addDeadlineTask(task.getDescription(), dateStr + " " + timeStr);
-                    } catch (DukeException e) {
-                        // Skip invalid tasks
-                        return;
-                    }
-                }
-            }
-        } else if (task instanceof EventTask) {
-            // We need to reconstruct the event format for WaderList
-            // For now, using placeholder values - this would need proper parsing from the
-            // saved format
-            String fromDateStr = "2025-08-22";
-            String fromTimeStr = "14:00";
-            String toDateStr = "2025-08-25";
-            String toTimeStr = "23:00";
-
-            try {
-                waderList.addEventTask(task.getDescription(), fromDateStr + " " + fromTimeStr,
-                        toDateStr + " " + toTimeStr);
-            } catch (DukeException e) {
-                // Skip invalid tasks
-                return;
-            }
-        }
-
-        // Restore completion status
-        if (wasCompleted) {
-            waderList.mark(waderList.getSize() - 1);
-        }
-    }
-
-    /**
-     * Converts date format from "2025 Aug 21" to "2025-08-21"
-     */
-    private String convertToIsoDate(String year, String month, String day) {
-        String monthNum = getMonthNumber(month);
-        return year + "-" + monthNum + "-" + String.format("%02d", Integer.parseInt(day));
-    }
-
-    /**
-     * Converts time format from "6pm" to "18:00"
-     */
-    private String convertToIsoTime(String time) {
-        if (time.toLowerCase().endsWith("pm")) {
-            int hour = Integer.parseInt(time.substring(0, time.length() - 2));
-            if (hour != 12) {
-                hour += 12;
-            }
-            return String.format("%02d:00", hour);
-        } else if (time.toLowerCase().endsWith("am")) {
-            int hour = Integer.parseInt(time.substring(0, time.length() - 2));
-            if (hour == 12) {
-                hour = 0;
-            }
-            return String.format("%02d:00", hour);
-        }
-        return time; // Return as-is if format is unexpected
-    }
-
-    /**
-     * Converts month name to month number
-     */
-    private String getMonthNumber(String month) {
-        switch (month) {
-            case "Jan":
-                return "01";
-            case "Feb":
-                return "02";
-            case "Mar":
-                return "03";
-            case "Apr":
-                return "04";
-            case "May":
-                return "05";
-            case "Jun":
-                return "06";
-            case "Jul":
-                return "07";
-            case "Aug":
-                return "08";
-            case "Sep":
-                return "09";
-            case "Oct":
-                return "10";
-            case "Nov":
-                return "11";
-            case "Dec":
-                return "12";
-            default:
-                return "01";
-        }
+    private interface Loader {
+        WaderList load() throws DukeException;
     }
 }
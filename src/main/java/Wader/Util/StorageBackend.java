@@ -0,0 +1,105 @@
+package wader.util;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import wader.task.Task;
+
+/**
+ * A place a task list is persisted to. Wader talks to its storage only through this interface,
+ * so the persistence strategy can be chosen at startup with the {@code wader.storage} property:
+ * <ul>
+ * <li>{@code text} (the default), {@code binary}, {@code compressed} or {@code dictionary}: a
+ * {@link Storage} snapshot in that {@link Storage.Format}</li>
+ * <li>{@code lsm}: an {@link LsmStorage}, log-structured and keyed by task id</li>
+ * <li>{@code partitioned}: a {@link PartitionedStorage} with one file per month of dated tasks</li>
+ * <li>{@code segmented}: a {@link SegmentedStorage} of fixed-size segments</li>
+ * <li>{@code arena}: an {@link ArenaStorage} holding the list in a mapped file</li>
+ * <li>{@code memory}: an {@link InMemoryStorage}, when nothing needs to reach the disk</li>
+ * </ul>
+ */
+public interface StorageBackend {
+
+    /**
+     * Loads the persisted task list.
+     *
+     * @return the loaded tasks, or an empty list if nothing has been persisted yet
+     * @throws DukeException if the persisted tasks cannot be read
+     */
+    WaderList load() throws DukeException;
+
+    /**
+     * Loads the persisted task list, materializing tasks only when they are accessed if the
+     * backend supports it. By default this is the same as {@link #load()}.
+     *
+     * @param cacheSize the maximum number of tasks to keep in memory when loading lazily
+     * @return the loaded tasks
+     * @throws DukeException if the persisted tasks cannot be read
+     */
+    default WaderList loadLazily(int cacheSize) throws DukeException {
+        return load();
+    }
+
+    /**
+     * Records a mutating command that has just been applied to the given list, for backends that
+     * make each change durable as it happens. By default this does nothing.
+     *
+     * @param command the full command line that was applied
+     * @param waderList the list after the command was applied
+     * @throws DukeException if the change cannot be recorded
+     */
+    default void record(String command, WaderList waderList) throws DukeException {
+    }
+
+    /**
+     * Persists every task in the given list.
+     *
+     * @param waderList the list to persist
+     * @throws DukeException if the tasks cannot be written
+     */
+    void save(WaderList waderList) throws DukeException;
+
+    /**
+     * Checks whether another process changed the persisted tasks since they were last loaded, so
+     * that a caller sharing the storage knows to reload. By default storage is never shared.
+     *
+     * @return true if the persisted tasks are newer than the loaded ones
+     * @throws DukeException if the storage cannot be checked
+     */
+    default boolean hasChangedSinceLoad() throws DukeException {
+        return false;
+    }
+
+    /**
+     * Returns the files that hold the persisted tasks, so that a caller can watch them for
+     * changes made outside this process. By default there are none to watch.
+     *
+     * @return the files to watch, which may not exist yet
+     */
+    default List<Path> getWatchedFiles() {
+        return List.of();
+    }
+
+    /**
+     * Returns the earliest tasks that are due or start after now, for backends that can answer
+     * date queries without scanning every task. By default the list is searched in memory.
+     *
+     * @param waderList the list the query is about
+     * @param count the maximum number of tasks to return
+     * @return the upcoming tasks, earliest first
+     * @throws DukeException if the persisted tasks cannot be read
+     */
+    default List<Task> getNextUpcomingTasks(WaderList waderList, int count) throws DukeException {
+        return waderList.getNextUpcomingTasks(count);
+    }
+
+    /**
+     * Returns what the most recent load had to repair. By default there is never anything to
+     * repair.
+     *
+     * @return the recovery report of the last load, or null if nothing has been loaded
+     */
+    default RecoveryReport getRecoveryReport() {
+        return null;
+    }
+}
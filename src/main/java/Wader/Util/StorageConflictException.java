@@ -0,0 +1,13 @@
+package wader.util;
+
+/**
+ * Signals that a change was rejected because another process changed the storage since this one
+ * last loaded it. The caller should reload before trying again.
+ */
+public class StorageConflictException extends DukeException {
+    private static final long serialVersionUID = 1L;
+
+    public StorageConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,118 @@
+package wader.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serializes access to a storage file shared by several Wader processes, such as the CLI and the
+ * GUI running side by side. The lock file holds a version stamp that every writer increments, so
+ * a process can tell whether anyone changed the storage since it last loaded by reading eight
+ * bytes, and reload only when the stamp moved.
+ *
+ * <p>File locks are held on behalf of the whole process, so threads of one process are
+ * serialized on a monitor shared by every StorageLock on the same file before taking the file
+ * lock.
+ */
+public class StorageLock {
+    private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final Object monitor;
+
+    /**
+     * Constructs a StorageLock backed by the given lock file. The file is created on the first
+     * update.
+     *
+     * @param path the lock file holding the version stamp
+     */
+    public StorageLock(Path path) {
+        this.path = path;
+        this.monitor = MONITORS.computeIfAbsent(path.toAbsolutePath().normalize(), key -> new Object());
+    }
+
+    /**
+     * Reads the current version stamp under a shared lock.
+     *
+     * @return the version, or 0 if nothing has been written yet
+     * @throws IOException if the lock file cannot be read
+     */
+    public long readVersion() throws IOException {
+        synchronized (monitor) {
+            if (!Files.exists(path)) {
+                return 0;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+                try {
+                    return readVersion(channel);
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs an update while holding the exclusive lock, and increments the version stamp if the
+     * update reports that it changed the storage.
+     *
+     * @param update the work to do, given the version stamp at the time the lock was taken
+     * @return the version stamp once the update is done
+     * @throws IOException if the lock file cannot be locked or written, or the update fails
+     * @throws DukeException if the update rejects the change
+     */
+    public long update(Update update) throws IOException, DukeException {
+        synchronized (monitor) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    long version = readVersion(channel);
+                    if (!update.apply(version)) {
+                        return version;
+                    }
+                    ByteBuffer stamp = ByteBuffer.allocate(Long.BYTES).putLong(0, version + 1);
+                    while (stamp.hasRemaining()) {
+                        channel.write(stamp, stamp.position());
+                    }
+                    channel.force(false);
+                    return version + 1;
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    private static long readVersion(FileChannel channel) throws IOException {
+        ByteBuffer stamp = ByteBuffer.allocate(Long.BYTES);
+        while (stamp.hasRemaining()) {
+            if (channel.read(stamp, stamp.position()) < 0) {
+                return 0;
+            }
+        }
+        return stamp.getLong(0);
+    }
+
+    /**
+     * Work done while holding the exclusive lock.
+     */
+    public interface Update {
+        /**
+         * Applies the update.
+         *
+         * @param version the version stamp when the lock was taken
+         * @return true if the storage was changed and the version stamp should move on
+         * @throws IOException if the storage cannot be read or written
+         * @throws DukeException if the update rejects the change
+         */
+        boolean apply(long version) throws IOException, DukeException;
+    }
+}
@@ -0,0 +1,17 @@
+package wader.util;
+
+/**
+ * A task list that does not hold Task objects but creates a view of a task each time it is read,
+ * such as one that stores its tasks in columns or outside the heap. Changing a view does not
+ * change the list, so {@link WaderList} writes status changes back through this interface.
+ */
+interface TaskViewList {
+
+    /**
+     * Sets the completion status of a task in place.
+     *
+     * @param position the position of the task
+     * @param isDone whether the task is done
+     */
+    void setDone(int position, boolean isDone);
+}
@@ -0,0 +1,149 @@
+package wader.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import wader.task.Task;
+
+/**
+ * An index from every three-character sequence of the task descriptions to the ids of the tasks
+ * containing it, kept up to date as tasks are added and removed. Any description containing a
+ * keyword of three or more characters also contains each of the keyword's trigrams, so
+ * intersecting their postings gives a small set of candidates that only have to be checked with
+ * {@link String#contains}. This answers substring searches such as "eet" for "meeting" that a
+ * word index cannot.
+ *
+ * <p>Postings are sorted arrays of ids rather than sets of boxed ids, which keeps the index to a
+ * few bytes per character of description.
+ */
+class TrigramIndex {
+    static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /**
+     * Adds the trigrams of a task's description to the index.
+     *
+     * @param task the task, which must already have its id
+     */
+    void add(Task task) {
+        for (long trigram : trigrams(task.getDescription())) {
+            postings.computeIfAbsent(trigram, key -> new Postings()).add(task.getId());
+        }
+    }
+
+    /**
+     * Removes the trigrams of a task's description from the index.
+     *
+     * @param task the task
+     */
+    void remove(Task task) {
+        for (long trigram : trigrams(task.getDescription())) {
+            Postings ids = postings.get(trigram);
+            if (ids != null && ids.remove(task.getId()) && ids.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the tasks containing every trigram of the keyword. Every task whose
+     * description contains the keyword is among them, but a candidate may hold the trigrams
+     * without holding the keyword, so each one still has to be checked.
+     *
+     * @param keyword the keyword being searched for
+     * @return the candidate ids in ascending order, or null if the keyword is shorter than a
+     *         trigram and the index cannot narrow the search
+     */
+    long[] candidates(String keyword) {
+        if (keyword.length() < GRAM_LENGTH) {
+            return null;
+        }
+        long[] trigrams = trigrams(keyword);
+        Postings[] lists = new Postings[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.get(trigrams[i]);
+            if (lists[i] == null) {
+                return new long[0];
+            }
+        }
+        // Start from the rarest trigram so the candidate set is small from the outset
+        Arrays.sort(lists, (first, second) -> Integer.compare(first.size, second.size));
+        long[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                if (lists[i].contains(candidates[j])) {
+                    candidates[kept++] = candidates[j];
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Returns the distinct trigrams of the text, each packed into a long.
+     */
+    private static long[] trigrams(String text) {
+        if (text.length() < GRAM_LENGTH) {
+            return new long[0];
+        }
+        long[] trigrams = new long[text.length() - GRAM_LENGTH + 1];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * The ids of the tasks holding one trigram, in ascending order. Ids are handed out in
+     * ascending order, so adding one is almost always an append.
+     */
+    private static class Postings {
+        private long[] ids = new long[2];
+        private int size;
+
+        void add(long id) {
+            int position = size == 0 || ids[size - 1] < id ? size : search(id);
+            if (position < 0) {
+                position = -position - 1;
+            } else if (position < size) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = search(id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return search(id) >= 0;
+        }
+
+        private int search(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+    }
+}
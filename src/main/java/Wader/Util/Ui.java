@@ -108,13 +108,18 @@ public class Ui {
      * @return the formatted task list message that was displayed
      */
     public String showTaskList(WaderList waderList) {
-        if (waderList.isEmpty()) {
+        List<String> taskStrings = waderList.getTaskStrings();
+        if (taskStrings.isEmpty()) {
             return showMessage("No tasks in the list.");
         }
-        String prnt = waderList.getTasks().stream()
-                .map(t -> String.format("%d.%s", waderList.getTasks().indexOf(t) + 1, t))
-                .reduce((x, y) -> x + "\n" + y).get();
-        String message = Messages.printCustomMessage(prnt);
+        StringBuilder prnt = new StringBuilder();
+        for (int i = 0; i < taskStrings.size(); i++) {
+            if (i > 0) {
+                prnt.append('\n');
+            }
+            prnt.append(i + 1).append('.').append(taskStrings.get(i));
+        }
+        String message = Messages.printCustomMessage(prnt.toString());
         System.out.print(message);
         return message;
     }
@@ -223,4 +228,25 @@ public class Ui {
         }
         return showMessage(sb.toString());
     }
+
+    /**
+     * Displays the events overlapping a period, ordered by when they start.
+     *
+     * @param events the events to display
+     * @return the formatted message showing the events
+     */
+    public String showSchedule(List<Task> events) {
+        if (events.isEmpty()) {
+            return showMessage("There are no events in that period.");
+        }
+
+        StringBuilder sb = new StringBuilder("Here are the events in that period:\n");
+        for (int i = 0; i < events.size(); i++) {
+            sb.append(Messages.INDENTATION).append(String.format("%d. %s", i + 1, events.get(i).toString()));
+            if (i < events.size() - 1) {
+                sb.append("\n");
+            }
+        }
+        return showMessage(sb.toString());
+    }
 }
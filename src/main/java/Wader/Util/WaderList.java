@@ -3,7 +3,14 @@ package wader.util;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import wader.task.DeadlineTask;
@@ -11,17 +18,62 @@ import wader.task.EventTask;
 import wader.task.Task;
 import wader.task.ToDoTask;
 
+/**
+ * The list of tasks the user is managing, addressed by 1-based task numbers in the UI and 0-based
+ * positions here, with indexes for searching by description, date and period.
+ *
+ * <p>A WaderList may be shared between threads, such as the UI and a background saver. Changes
+ * take the write side of a {@link ReentrantReadWriteLock}, while reads of tree-backed and columnar
+ * lists take its read side, so readers do not block each other. A writer waiting for the lock
+ * holds back readers that arrive after it, so a steady stream of overlapping reads cannot starve
+ * changes. Reads are not run optimistically without a lock: a rotation or a hash table resize
+ * seen half-done can send a traversal round a cycle rather than merely give a stale answer. Lists
+ * that materialize their tasks on access change their caches as they are read, so they are read
+ * under the write lock instead.
+ */
 public class WaderList {
-    private List<Task> items;
+    public static final int SEGMENT_SIZE = 1024;
 
+    private final List<Task> items;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private BitSet dirtySegments = new BitSet();
+    private long nextId;
+    private TrigramIndex trigramIndex;
+    private DateIndex dateIndex;
+    private IntervalIndex intervalIndex;
+
+    /**
+     * Constructs an empty WaderList. Tasks are kept in an {@link OrderStatisticTaskList}, so
+     * reading, marking or deleting a task by number costs O(log n) at any size, and tasks added in
+     * one {@link #addAll(Collection)} call are linked into a balanced tree in linear time.
+     */
     public WaderList() {
-        items = new ArrayList<>();
+        items = new OrderStatisticTaskList();
+    }
+
+    /**
+     * Constructs a WaderList over the given backing list, such as one that materializes tasks on
+     * demand. The list must support positional insertion and removal.
+     *
+     * @param items the list holding the tasks
+     */
+    WaderList(List<Task> items) {
+        this(items, items.size());
+    }
+
+    /**
+     * Constructs a WaderList over the given backing list whose tasks already have ids.
+     *
+     * @param items the list holding the tasks
+     * @param nextId the id to give the next task added, above every id in the list
+     */
+    WaderList(List<Task> items, long nextId) {
+        this.items = items;
+        this.nextId = nextId;
     }
 
     public Task addToDoTask(String desc) {
-        Task task = new ToDoTask(desc);
-        items.add(task);
-        return task;
+        return addTask(new ToDoTask(desc));
     }
 
     public Task addDeadlineTask(String desc, String deadline) throws DukeException {
@@ -34,11 +86,10 @@ public class WaderList {
             String date = parts[0];
             String time = parts[1];
             task = new DeadlineTask(desc, date, time);
-            items.add(task);
         } catch (DateTimeParseException e) {
             throw new DukeException("Invalid deadline format. Please use 'date time' format.");
         }
-        return task;
+        return addTask(task);
     }
 
     public Task addEventTask(String desc, String from, String to) throws DukeException {
@@ -55,21 +106,79 @@ public class WaderList {
             String toTimeString = toParts[1];
 
             task = new EventTask(desc, fromTimeString, toTimeString, fromDateString, toDateString);
-            items.add(task);
-
         } catch (DateTimeParseException e) {
             throw new DukeException("Invalid event format. Please use 'date time' format.");
         }
-        return task;
+        return addTask(task);
+    }
+
+    /**
+     * Adds an already constructed task, keeping its completion status. A task without an id is
+     * given the next free one; a task that already has one keeps it.
+     *
+     * @param task the task to add
+     * @return the added task
+     */
+    public Task addTask(Task task) {
+        assert task != null : "Task must not be null";
+        return write(() -> {
+            assignId(task);
+            items.add(task);
+            markSegmentDirty(items.size() - 1);
+            index(task);
+            return task;
+        });
+    }
+
+    /**
+     * Appends already constructed tasks in one pass, keeping their completion status. This is the
+     * bulk-insert path used when loading a saved list.
+     *
+     * @param tasks the tasks to add, in order
+     */
+    public void addAll(Collection<? extends Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        write(() -> {
+            for (Task task : tasks) {
+                assignId(task);
+            }
+            int first = items.size();
+            items.addAll(tasks);
+            dirtySegments.set(first / SEGMENT_SIZE, (items.size() - 1) / SEGMENT_SIZE + 1);
+            for (Task task : tasks) {
+                index(task);
+            }
+            return null;
+        });
     }
 
     public Task delete(int index) throws IndexOutOfBoundsException {
-        return items.remove(index);
+        return write(() -> {
+            Task task = items.remove(index);
+            unindex(task);
+            // Every later task shifts down by one, so its segment and all following ones change
+            dirtySegments.set(index / SEGMENT_SIZE, items.size() / SEGMENT_SIZE + 1);
+            return task;
+        });
     }
 
     public boolean mark(int index) {
+        return write(() -> setDone(index, true));
+    }
+
+    public boolean unmark(int index) {
+        return write(() -> setDone(index, false));
+    }
+
+    /**
+     * Marks or unmarks the task at the given position, reporting whether there is one.
+     */
+    private boolean setDone(int index, boolean isDone) {
         try {
-            items.get(index).markAsDone();
+            setDone(index, items.get(index), isDone);
+            markSegmentDirty(index);
         } catch (IndexOutOfBoundsException e) {
             return false;
         }
@@ -77,50 +186,492 @@ public class WaderList {
         return true;
     }
 
-    public boolean unmark(int index) {
-        try {
-            items.get(index).markAsNotDone();
-        } catch (IndexOutOfBoundsException e) {
-            return false;
+    /**
+     * Brings this list in line with the given tasks by changing only the records that differ,
+     * so that unchanged tasks keep their objects and ids. Records are compared by their saved text
+     * form. The common prefix and suffix are left alone; in between, a record that differs only in
+     * its completion status is marked or unmarked in place, other differing records are replaced,
+     * and any surplus is removed or inserted.
+     *
+     * @param updated the tasks the list should hold, in order
+     * @return the number of records that were changed, removed or inserted
+     */
+    public int applyDiff(List<Task> updated) {
+        return write(() -> applyDiffUnlocked(updated));
+    }
+
+    private int applyDiffUnlocked(List<Task> updated) {
+        int oldSize = items.size();
+        int newSize = updated.size();
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && isSameRecord(items.get(prefix), updated.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+                && isSameRecord(items.get(oldSize - 1 - suffix), updated.get(newSize - 1 - suffix))) {
+            suffix++;
         }
 
-        return true;
+        int changed = 0;
+        int overlap = Math.min(oldSize, newSize) - prefix - suffix;
+        for (int i = prefix; i < prefix + overlap; i++) {
+            Task current = items.get(i);
+            Task replacement = updated.get(i);
+            if (isSameRecord(current, replacement)) {
+                continue;
+            }
+            if (withoutStatus(current).equals(withoutStatus(replacement))) {
+                setDone(i, current, replacement.isDone());
+            } else {
+                unindex(current);
+                items.set(i, withNewId(replacement));
+                index(replacement);
+            }
+            markSegmentDirty(i);
+            changed++;
+        }
+        int from = prefix + overlap;
+        if (oldSize > newSize) {
+            List<Task> removed = items.subList(from, oldSize - suffix);
+            for (Task task : removed) {
+                unindex(task);
+            }
+            removed.clear();
+        } else if (newSize > oldSize) {
+            List<Task> inserted = new ArrayList<>(newSize - oldSize);
+            for (Task task : updated.subList(from, newSize - suffix)) {
+                inserted.add(withNewId(task));
+                index(task);
+            }
+            items.addAll(from, inserted);
+        }
+        if (oldSize != newSize) {
+            // Every later task shifted, so its segment and all following ones change
+            dirtySegments.set(from / SEGMENT_SIZE, Math.max(oldSize, newSize) / SEGMENT_SIZE + 1);
+            changed += Math.abs(newSize - oldSize);
+        }
+        return changed;
+    }
+
+    /**
+     * Sets the completion status of the task at the given position. A {@link TaskViewList} hands
+     * out views of its tasks, so the status is also written back to the list.
+     */
+    private void setDone(int index, Task task, boolean isDone) {
+        if (isDone) {
+            task.markAsDone();
+        } else {
+            task.markAsNotDone();
+        }
+        if (items instanceof TaskViewList) {
+            ((TaskViewList) items).setDone(index, isDone);
+        }
+    }
+
+    private static boolean isSameRecord(Task first, Task second) {
+        return first.toString().equals(second.toString());
+    }
+
+    /**
+     * Returns the saved text form of a task with its completion status left out.
+     */
+    private static String withoutStatus(Task task) {
+        String record = task.toString();
+        return record.substring(0, 4) + record.substring(5);
+    }
+
+    /**
+     * Detaches a task from the id it had in another list and gives it the next id of this one.
+     */
+    private Task withNewId(Task task) {
+        task.setId(Task.UNASSIGNED_ID);
+        assignId(task);
+        return task;
     }
 
+    /**
+     * Gives the task at the given position a new id, for storage that keys tasks by id and finds
+     * them out of order. The task is replaced by a copy carrying the id, so the backing list and
+     * the indexes never see one task under two ids.
+     *
+     * @param index the position of the task
+     * @param id the new id, which no other task in the list may have
+     */
+    void changeId(int index, long id) {
+        write(() -> {
+            Task task = items.get(index);
+            Task renamed = task.copy();
+            renamed.setId(id);
+            unindex(task);
+            items.set(index, renamed);
+            index(renamed);
+            nextId = Math.max(nextId, id + 1);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain the keyword, in list order. The first search
+     * builds a {@link TrigramIndex} over the descriptions, which is then kept up to date, so later
+     * searches only check the tasks sharing every trigram of the keyword. Keywords shorter than a
+     * trigram, keywords too common to narrow the search, and lists that materialize their tasks
+     * lazily are answered by scanning the tasks instead; columnar lists search each distinct
+     * description once.
+     *
+     * @param keyword the text to look for, matched case-sensitively anywhere in a description
+     * @return the matching tasks
+     */
     public List<Task> findTasks(String keyword) {
+        if (trigramIndex == null && items instanceof OrderStatisticTaskList) {
+            write(() -> {
+                if (trigramIndex == null) {
+                    TrigramIndex index = new TrigramIndex();
+                    items.forEach(index::add);
+                    trigramIndex = index;
+                }
+                return null;
+            });
+        }
+        return read(() -> findTasksUnlocked(keyword));
+    }
+
+    private List<Task> findTasksUnlocked(String keyword) {
+        if (items instanceof ColumnarTaskList) {
+            return ((ColumnarTaskList) items).findTasks(keyword);
+        }
+        if (!(items instanceof OrderStatisticTaskList)) {
+            return scanTasks(keyword);
+        }
+        long[] candidates = trigramIndex.candidates(keyword);
+        // Looking up a candidate's position costs O(log n), so a scan wins once most tasks qualify
+        if (candidates == null || candidates.length > items.size() / 8) {
+            return scanTasks(keyword);
+        }
+        int[] positions = new int[candidates.length];
+        int count = 0;
+        for (long id : candidates) {
+            int position = ((OrderStatisticTaskList) items).positionOf(id);
+            if (items.get(position).getDescription().contains(keyword)) {
+                positions[count++] = position;
+            }
+        }
+        Arrays.sort(positions, 0, count);
+        List<Task> matches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            matches.add(items.get(positions[i]));
+        }
+        return matches;
+    }
+
+    private List<Task> scanTasks(String keyword) {
         return items.stream().filter(task -> task.getDescription().contains(keyword)).toList();
     }
 
+    /**
+     * Returns the tasks whose description is exactly the given one, in list order. Columnar lists
+     * hold their descriptions in a {@link DescriptionDictionary}, so they compare integer codes
+     * rather than strings.
+     *
+     * @param description the description to look for, matched case-sensitively
+     * @return the matching tasks
+     */
+    public List<Task> findTasksWithDescription(String description) {
+        return read(() -> {
+            if (items instanceof ColumnarTaskList) {
+                return ((ColumnarTaskList) items).findTasksWithDescription(description);
+            }
+            return items.stream().filter(task -> task.getDescription().equals(description)).toList();
+        });
+    }
+
     public List<Task> getTasks() {
-        return new ArrayList<>(items);
+        return read(() -> new ArrayList<>(items));
+    }
+
+    /**
+     * Returns an independent copy of this list whose tasks are copies of the original tasks, so
+     * later changes to either list do not affect the other.
+     *
+     * @return a deep copy of this list
+     */
+    public WaderList copy() {
+        return read(() -> {
+            if (items instanceof ColumnarTaskList) {
+                return new WaderList(((ColumnarTaskList) items).copy(), nextId);
+            }
+            List<Task> copies = new ArrayList<>(items.size());
+            for (Task task : items) {
+                copies.add(task.copy());
+            }
+            WaderList copy = new WaderList();
+            copy.items.addAll(copies);
+            copy.nextId = nextId;
+            return copy;
+        });
+    }
+
+    /**
+     * Returns a copy of this list that holds its tasks in a {@link ColumnarTaskList}, which takes
+     * several times less memory for large lists. Tasks read from the copy are views created on
+     * access, so searches scan its columns rather than using the indexes of a tree-backed list.
+     *
+     * @return a columnar copy of this list
+     */
+    public WaderList toColumnar() {
+        return read(() -> new WaderList(new ColumnarTaskList(items), nextId));
+    }
+
+    /**
+     * Returns the task with the given id, wherever it is in the list. This is an O(1) lookup
+     * unless the list materializes its tasks lazily, in which case the list is searched.
+     *
+     * @param id the task id
+     * @return the task, or null if no task in the list has that id
+     */
+    public Task getTaskById(long id) {
+        return read(() -> {
+            if (items instanceof OrderStatisticTaskList) {
+                return ((OrderStatisticTaskList) items).getById(id);
+            }
+            int index = indexOfIdUnlocked(id);
+            return index == -1 ? null : items.get(index);
+        });
+    }
+
+    /**
+     * Returns the current 0-based position of the task with the given id, which changes as tasks
+     * before it are deleted. This costs O(log n) unless the list materializes its tasks lazily.
+     *
+     * @param id the task id
+     * @return the position, or -1 if no task in the list has that id
+     */
+    public int indexOfId(long id) {
+        return read(() -> indexOfIdUnlocked(id));
+    }
+
+    private int indexOfIdUnlocked(long id) {
+        if (items instanceof OrderStatisticTaskList) {
+            return ((OrderStatisticTaskList) items).positionOf(id);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a read-only view of the tasks for streaming them out without copying the list. The
+     * view is not locked, so it must only be used by the thread making changes to the list, or
+     * on a copy.
+     */
+    List<Task> tasksView() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Returns whether the tasks of this list are held in the given list.
+     */
+    boolean isBackedBy(List<Task> list) {
+        return items == list;
     }
 
     public String getTaskString(int index) {
-        return items.get(index).toString();
+        return read(() -> items.get(index).toString());
+    }
+
+    /**
+     * Returns the display string of every task, in list order, taken in a single read so that a
+     * change made by another thread cannot split the listing.
+     *
+     * @return the task strings
+     */
+    public List<String> getTaskStrings() {
+        return read(() -> {
+            List<String> strings = new ArrayList<>(items.size());
+            for (Task task : items) {
+                strings.add(task.toString());
+            }
+            return strings;
+        });
     }
 
     public int getSize() {
-        return items.size();
+        return read(items::size);
     }
 
     public boolean isEmpty() {
-        return items.isEmpty();
+        return read(items::isEmpty);
+    }
+
+    /**
+     * Returns the segments, each holding {@link #SEGMENT_SIZE} consecutive tasks, that changed
+     * since the dirty flags were last cleared.
+     *
+     * @return a copy of the dirty segment bitmap
+     */
+    public BitSet getDirtySegments() {
+        return read(() -> (BitSet) dirtySegments.clone());
+    }
+
+    /**
+     * Marks every segment as clean, typically after they have been persisted.
+     */
+    public void clearDirtySegments() {
+        write(() -> {
+            dirtySegments.clear();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a read of the list under the read lock, or under the write lock for lists whose reads
+     * change their own state.
+     */
+    private <T> T read(Supplier<T> reader) {
+        if (!(items instanceof OrderStatisticTaskList || items instanceof ColumnarTaskList)) {
+            return write(reader);
+        }
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change to the list, or a read that changes its state, under the write lock.
+     */
+    private <T> T write(Supplier<T> writer) {
+        lock.writeLock().lock();
+        try {
+            return writer.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gives the task the next free id unless it already has one, and makes sure ids handed out
+     * later never collide with it.
+     */
+    private void assignId(Task task) {
+        if (task.getId() == Task.UNASSIGNED_ID) {
+            task.setId(nextId++);
+        } else {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+    }
+
+    private void markSegmentDirty(int index) {
+        dirtySegments.set(index / SEGMENT_SIZE);
+    }
+
+    private void index(Task task) {
+        if (trigramIndex != null) {
+            trigramIndex.add(task);
+        }
+        if (dateIndex != null) {
+            dateIndex.add(task);
+        }
+        if (intervalIndex != null) {
+            intervalIndex.add(task);
+        }
+    }
+
+    private void unindex(Task task) {
+        if (trigramIndex != null) {
+            trigramIndex.remove(task);
+        }
+        if (dateIndex != null) {
+            dateIndex.remove(task);
+        }
+        if (intervalIndex != null) {
+            intervalIndex.remove(task);
+        }
     }
 
     /**
      * Gets the next upcoming tasks with dates, sorted by their date/time.
      * Only returns tasks that have dates (deadline and event tasks).
+     * The first call builds a {@link DateIndex} of the dated tasks, which is then kept up to date,
+     * so later calls cost O(log n + count). Columnar lists scan their type and start columns, and
+     * lists that materialize their tasks lazily are scanned.
      *
      * @param count the maximum number of upcoming tasks to return
      * @return a list of the next upcoming tasks, up to the specified count
      */
     public List<Task> getNextUpcomingTasks(int count) {
-        java.time.LocalDateTime now = java.time.LocalDateTime.now();
-        return items.stream()
-                .filter(Task::hasDate) // Only consider tasks with dates
-                .filter(task -> task.getDateTime().isAfter(now)) // Only future tasks
-                .sorted((t1, t2) -> t1.getDateTime().compareTo(t2.getDateTime())) // Sort by date
-                .limit(count) // Get the first 'count' tasks
-                .collect(java.util.stream.Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        if (dateIndex == null && items instanceof OrderStatisticTaskList) {
+            write(() -> {
+                if (dateIndex == null) {
+                    DateIndex index = new DateIndex();
+                    items.forEach(index::add);
+                    dateIndex = index;
+                }
+                return null;
+            });
+        }
+        return read(() -> getNextUpcomingTasksUnlocked(now, count));
+    }
+
+    private List<Task> getNextUpcomingTasksUnlocked(LocalDateTime now, int count) {
+        if (items instanceof ColumnarTaskList) {
+            return ((ColumnarTaskList) items).getNextUpcomingTasks(now, count);
+        }
+        if (!(items instanceof OrderStatisticTaskList)) {
+            return items.stream()
+                    .filter(Task::hasDate)
+                    .map(task -> Map.entry(task.getDateTime(), task))
+                    .filter(entry -> entry.getKey().isAfter(now))
+                    .sorted(Map.Entry.comparingByKey())
+                    .limit(count)
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toList());
+        }
+        return dateIndex.after(now, count);
+    }
+
+    /**
+     * Returns the events overlapping the period from one moment up to another, ordered by start.
+     * An event overlaps when it starts before the period ends and ends after the period starts.
+     * The first call builds an {@link IntervalIndex} of the events, which is then kept up to date,
+     * so later calls cost O(log n + k). Columnar lists scan their type and date columns, and lists
+     * that materialize their tasks lazily are scanned.
+     *
+     * @param from the start of the period
+     * @param to the end of the period, which is not part of it
+     * @return the overlapping events
+     */
+    public List<Task> getEventsOverlapping(LocalDateTime from, LocalDateTime to) {
+        if (intervalIndex == null && items instanceof OrderStatisticTaskList) {
+            write(() -> {
+                if (intervalIndex == null) {
+                    IntervalIndex index = new IntervalIndex();
+                    items.forEach(index::add);
+                    intervalIndex = index;
+                }
+                return null;
+            });
+        }
+        return read(() -> getEventsOverlappingUnlocked(from, to));
+    }
+
+    private List<Task> getEventsOverlappingUnlocked(LocalDateTime from, LocalDateTime to) {
+        if (items instanceof ColumnarTaskList) {
+            return ((ColumnarTaskList) items).getEventsOverlapping(from, to);
+        }
+        if (!(items instanceof OrderStatisticTaskList)) {
+            IntervalIndex events = new IntervalIndex();
+            for (Task task : items) {
+                events.add(task);
+            }
+            return events.overlapping(from, to);
+        }
+        return intervalIndex.overlapping(from, to);
     }
 }
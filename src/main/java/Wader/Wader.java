@@ -1,11 +1,27 @@
 package wader;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import wader.task.Task;
+import wader.util.ArenaStorage;
+import wader.util.AsyncSaver;
 import wader.util.DukeException;
+import wader.util.FileWatcher;
+import wader.util.InMemoryStorage;
+import wader.util.LsmStorage;
 import wader.util.Parser;
+import wader.util.PartitionedStorage;
+import wader.util.RecoveryReport;
+import wader.util.SegmentedStorage;
 import wader.util.Storage;
+import wader.util.StorageBackend;
+import wader.util.StorageConflictException;
 import wader.util.Ui;
 import wader.util.WaderList;
 
@@ -13,18 +29,199 @@ public class Wader {
 
     private WaderList tasks;
     private Ui ui;
-    private Storage storage;
+    private StorageBackend storage;
+    private AsyncSaver saver;
+    private FileWatcher watcher;
+    private String startupMessage;
+    /** The commands applied in async mode that may not be saved yet, by their change number. */
+    private final Map<Long, String> unsavedCommands = new LinkedHashMap<>();
+    private long changeCount;
+    /** The change number the snapshot being saved was taken at; used on the writer thread only. */
+    private long snapshotChangeCount;
+    private volatile long savedChangeCount;
+    /** A warning about unsaved changes lost in a reload, shown with the next response. */
+    private String reloadWarning;
 
+    /**
+     * Constructs a Wader backed by the given file. Persistence is configured through system
+     * properties: {@code wader.persistence} selects {@code journal} (the default), which makes
+     * each change durable before it is acknowledged, or {@code async}, which saves from a
+     * background thread after at most {@code wader.async.maxDelayMillis} or
+     * {@code wader.async.maxBatchSize} changes. Setting {@code wader.load} to {@code lazy} reads
+     * tasks from the file only when they are used, keeping at most {@code wader.lazy.cacheSize}
+     * of them in memory, while setting {@code wader.layout} to {@code columnar} holds them in
+     * parallel primitive arrays, which takes several times less memory for very large lists.
+     * {@code wader.storage} selects the backend: {@code text} (the default),
+     * {@code binary} for the memory-mapped binary format, {@code compressed}, {@code dictionary}
+     * to store each distinct description once, {@code lsm} for the log-structured store keyed by
+     * task id, {@code partitioned} for one file per month of dated tasks, {@code segmented} for
+     * fixed-size segment files of which only the changed ones are rewritten, {@code arena} to keep
+     * the tasks in a mapped file outside the heap, or {@code memory} to keep tasks off the disk
+     * entirely. An arena holds the list itself, so its changes are always made durable as they
+     * are made, whatever {@code wader.persistence} says.
+     *
+     * @param filePath the path of the storage file
+     */
     public Wader(String filePath) {
         assert filePath != null && !filePath.isEmpty() : "File path must not be null or empty";
         ui = new Ui();
-        storage = new Storage(filePath);
+        String backend = System.getProperty("wader.storage", "text");
+        // An arena is the live list's own memory, so a background save of a copy would race with it
+        boolean isAsync = System.getProperty("wader.persistence", "journal").equals("async")
+                && !backend.equals("arena");
+        storage = createStorage(backend, filePath);
         try {
-            tasks = storage.load();
+            tasks = loadTasks();
+            RecoveryReport report = storage.getRecoveryReport();
+            if (report != null && !report.isClean()) {
+                startupMessage = ui.showMessage(report.getSummary());
+            }
         } catch (DukeException e) {
-            ui.showError(e.getMessage());
+            startupMessage = ui.showError(e.getMessage());
             tasks = new WaderList();
         }
+        if (isAsync) {
+            long maxDelayMillis = Long.getLong("wader.async.maxDelayMillis", AsyncSaver.DEFAULT_MAX_DELAY_MILLIS);
+            int maxBatchSize = Integer.getInteger("wader.async.maxBatchSize", AsyncSaver.DEFAULT_MAX_BATCH_SIZE);
+            saver = new AsyncSaver(storage, this::snapshotTasks, () -> savedChangeCount = snapshotChangeCount,
+                    maxDelayMillis, maxBatchSize);
+        }
+    }
+
+    /**
+     * Loads the tasks from storage, lazily if {@code wader.load} asks for it, and into columns if
+     * {@code wader.layout} is {@code columnar}.
+     */
+    private WaderList loadTasks() throws DukeException {
+        if (isLazyLoad()) {
+            return storage.loadLazily(Integer.getInteger("wader.lazy.cacheSize", Storage.DEFAULT_LAZY_CACHE_SIZE));
+        }
+        if (System.getProperty("wader.layout", "tree").equals("columnar")) {
+            return storage.load().toColumnar();
+        }
+        return storage.load();
+    }
+
+    private static boolean isLazyLoad() {
+        return System.getProperty("wader.load", "eager").equals("lazy");
+    }
+
+    /**
+     * Reloads the tasks from storage and applies only the records that differ to the current
+     * list, so tasks that did not change keep their objects. A lazily loaded list is replaced
+     * instead, as the storage closes it once it hands out the reloaded one.
+     *
+     * <p>In async mode the list may hold changes the background saver has not saved, which the
+     * reload would otherwise drop. As on a journal conflict, adds do not depend on task numbers
+     * and are applied again to the reloaded list; any other unsaved change is lost, and the user
+     * is told so with the next response.
+     */
+    private void reloadTasks() throws DukeException {
+        if (saver == null) {
+            applyReloadedTasks(loadTasks());
+            return;
+        }
+        // After the reset no save of the list as it was before the reload can happen
+        saver.reset();
+        long saved = savedChangeCount;
+        unsavedCommands.keySet().removeIf(change -> change <= saved);
+        List<String> pending = new ArrayList<>(unsavedCommands.values());
+        unsavedCommands.clear();
+        applyReloadedTasks(loadTasks());
+        List<String> lost = new ArrayList<>();
+        for (String input : pending) {
+            Parser.Command command = Parser.parse(input);
+            switch (command.getType()) {
+                case TODO:
+                case DEADLINE:
+                case EVENT:
+                    handleCommand(command);
+                    break;
+                default:
+                    lost.add(input);
+                    break;
+            }
+        }
+        if (!lost.isEmpty()) {
+            reloadWarning = "The task list was changed in another Wader window, so these changes were not "
+                    + "saved: " + String.join(", ", lost);
+        }
+    }
+
+    private void applyReloadedTasks(WaderList reloaded) {
+        if (isLazyLoad()) {
+            tasks = reloaded;
+        } else {
+            tasks.applyDiff(reloaded.getTasks());
+        }
+    }
+
+    /**
+     * Starts watching the storage files, so that changes made by another process or a sync tool
+     * show up in the task list within milliseconds rather than on the next command. Backends
+     * that are not backed by files are not watched. Watching stops when the user says bye.
+     *
+     * @throws DukeException if the files cannot be watched
+     */
+    public void watchStorage() throws DukeException {
+        List<Path> files = storage.getWatchedFiles();
+        if (files.isEmpty() || watcher != null) {
+            return;
+        }
+        try {
+            watcher = new FileWatcher(files, this::reloadIfChanged, FileWatcher.DEFAULT_SETTLE_MILLIS);
+        } catch (IOException e) {
+            throw new DukeException("Unable to watch the task file: " + e.getMessage());
+        }
+    }
+
+    private synchronized void reloadIfChanged() {
+        try {
+            if (storage.hasChangedSinceLoad()) {
+                reloadTasks();
+            }
+        } catch (DukeException e) {
+            System.err.println("Reloading the task file failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the storage backend with the given name. Snapshot files always come with a journal,
+     * even when changes are saved asynchronously rather than journaled, so that every session
+     * sharing the file replays the changes other sessions journaled and folds them into its saves.
+     */
+    private static StorageBackend createStorage(String backend, String filePath) {
+        long threshold = Storage.DEFAULT_JOURNAL_THRESHOLD;
+        switch (backend) {
+            case "memory":
+                return new InMemoryStorage();
+            case "lsm":
+                return new LsmStorage(filePath);
+            case "partitioned":
+                return new PartitionedStorage(filePath);
+            case "segmented":
+                return new SegmentedStorage(filePath);
+            case "arena":
+                return new ArenaStorage(filePath);
+            case "binary":
+                return new Storage(filePath, Storage.Format.BINARY, threshold);
+            case "compressed":
+                return new Storage(filePath, Storage.Format.COMPRESSED, threshold);
+            case "dictionary":
+                return new Storage(filePath, Storage.Format.DICTIONARY, threshold);
+            default:
+                return new Storage(filePath, threshold);
+        }
+    }
+
+    /**
+     * Returns the message about loading the task file that was shown at startup, such as the
+     * records recovery had to quarantine.
+     *
+     * @return the formatted message, or null if loading had nothing to report
+     */
+    public String getStartupMessage() {
+        return startupMessage;
     }
 
     /**
@@ -35,48 +232,111 @@ public class Wader {
      * @param userInput the user's input command
      * @return the response message from processing the command
      */
-    public String getResponse(String userInput) {
+    public synchronized String getResponse(String userInput) {
         assert userInput != null && !userInput.isEmpty() : "User input must not be null or empty";
+        Parser.Command command = Parser.parse(userInput);
+        assert command != null : "Parsed command must not be null";
         try {
-            Parser.Command command = Parser.parse(userInput);
-            assert command != null : "Parsed command must not be null";
+            if (storage.hasChangedSinceLoad() || saver != null && saver.hasConflict()) {
+                // Another Wader session saved changes; pick them up before applying this command
+                reloadTasks();
+            }
+            String response = handleCommand(command);
+            if (reloadWarning != null) {
+                response = ui.showError(reloadWarning) + response;
+                reloadWarning = null;
+            }
+            return response;
+        } catch (StorageConflictException e) {
+            return resolveConflict(command, e);
+        } catch (DukeException e) {
+            return ui.showError(e.getMessage());
+        } catch (NumberFormatException e) {
+            return ui.showError("Invalid task number format.");
+        } catch (Exception e) {
+            return ui.showError("An unexpected error occurred: " + e.getMessage());
+        }
+    }
 
+    /**
+     * Recovers from a change that could not be saved because another Wader session changed the
+     * storage first. The tasks are reloaded; an add does not depend on task numbers, so it is
+     * applied again to the reloaded list, while any other command is rejected because its task
+     * number may now refer to a different task.
+     */
+    private String resolveConflict(Parser.Command command, StorageConflictException conflict) {
+        try {
+            reloadTasks();
             switch (command.getType()) {
-                case BYE:
-                    storage.save(tasks);
-                    return ui.showGoodbyeMessage();
-                case LIST:
-                    return ui.showTaskList(tasks);
-                case MARK:
-                    return handleMarkAndGetResponse(command.getFullCommand(), tasks);
-                case UNMARK:
-                    return handleUnmarkAndGetResponse(command.getFullCommand(), tasks);
                 case TODO:
-                    return handleTodoAndGetResponse(command.getFullCommand(), tasks);
                 case DEADLINE:
-                    return handleDeadlineAndGetResponse(command.getFullCommand(), tasks);
                 case EVENT:
-                    return handleEventAndGetResponse(command.getFullCommand(), tasks);
-                case DELETE:
-                    return handleDeleteAndGetResponse(command.getFullCommand(), tasks);
-                case FIND:
-                    return handleFindAndGetResponse(command.getFullCommand(), tasks);
-                case REMIND:
-                    return handleRemindAndGetResponse(tasks);
+                    return handleCommand(command);
                 default:
-                    throw new DukeException("OOPS!!! I'm sorry, but I don't know what that means :-(");
+                    return ui.showError(conflict.getMessage());
             }
         } catch (DukeException e) {
             return ui.showError(e.getMessage());
-        } catch (NumberFormatException e) {
-            return ui.showError("Invalid task number format.");
         } catch (Exception e) {
             return ui.showError("An unexpected error occurred: " + e.getMessage());
         }
     }
 
+    private String handleCommand(Parser.Command command) throws DukeException {
+        switch (command.getType()) {
+            case BYE:
+                stopWatching();
+                if (saver != null) {
+                    saver.close();
+                } else {
+                    storage.save(tasks);
+                }
+                return ui.showGoodbyeMessage();
+            case LIST:
+                return ui.showTaskList(tasks);
+            case MARK:
+                return handleMarkAndGetResponse(command.getFullCommand(), tasks);
+            case UNMARK:
+                return handleUnmarkAndGetResponse(command.getFullCommand(), tasks);
+            case TODO:
+                return handleTodoAndGetResponse(command.getFullCommand(), tasks);
+            case DEADLINE:
+                return handleDeadlineAndGetResponse(command.getFullCommand(), tasks);
+            case EVENT:
+                return handleEventAndGetResponse(command.getFullCommand(), tasks);
+            case DELETE:
+                return handleDeleteAndGetResponse(command.getFullCommand(), tasks);
+            case FIND:
+                return handleFindAndGetResponse(command.getFullCommand(), tasks);
+            case REMIND:
+                return handleRemindAndGetResponse(tasks);
+            case SCHEDULE:
+                return handleScheduleAndGetResponse(command.getFullCommand(), tasks);
+            default:
+                throw new DukeException("OOPS!!! I'm sorry, but I don't know what that means :-(");
+        }
+    }
+
     public static void main(String[] args) {
-        new Wader("storage/tasks.txt").serve();
+        Wader wader = new Wader("storage/tasks.txt");
+        try {
+            wader.watchStorage();
+        } catch (DukeException e) {
+            System.err.println(e.getMessage());
+        }
+        wader.serve();
+    }
+
+    private void stopWatching() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            // The watcher thread is a daemon and ends with the program anyway
+        }
+        watcher = null;
     }
 
     private void serve() {
@@ -108,12 +368,31 @@ public class Wader {
         }
     }
 
+    /**
+     * Persists a mutating command that has just been applied, either by journaling it or by
+     * handing the change to the background saver.
+     */
+    private void persist(String input) throws DukeException {
+        if (saver != null) {
+            unsavedCommands.put(++changeCount, input);
+            saver.notifyChanged();
+        } else {
+            storage.record(input, tasks);
+        }
+    }
+
+    private synchronized WaderList snapshotTasks() {
+        snapshotChangeCount = changeCount;
+        return tasks.copy();
+    }
+
     // New methods that return response strings for handleInput()
     private String handleMarkAndGetResponse(String input, WaderList waderList) throws DukeException {
         int index = Parser.parseTaskIndex(input, "mark");
         assert index >= 0 : "Task index must be non-negative";
         boolean res = waderList.mark(index);
         if (res) {
+            persist(input);
             return ui.showTaskMarked(waderList, index);
         } else {
             return ui.showError("Invalid task index.");
@@ -125,6 +404,7 @@ public class Wader {
         assert index >= 0 : "Task index must be non-negative";
         boolean res = waderList.unmark(index);
         if (res) {
+            persist(input);
             return ui.showTaskUnmarked(waderList, index);
         } else {
             return ui.showError("Invalid task index.");
@@ -135,6 +415,7 @@ public class Wader {
         String desc = Parser.parseTodoDescription(input);
         assert desc != null && !desc.isEmpty() : "Task description must not be null or empty";
         Task task = waderList.addToDoTask(desc);
+        persist(input);
         return ui.showTaskAdded(task, waderList);
     }
 
@@ -142,6 +423,7 @@ public class Wader {
         String[] parts = Parser.parseDeadlineCommand(input);
         assert parts.length == 2 : "Deadline command must have exactly two parts";
         Task task = waderList.addDeadlineTask(parts[0], parts[1]);
+        persist(input);
         return ui.showTaskAdded(task, waderList);
     }
 
@@ -149,6 +431,7 @@ public class Wader {
         String[] parts = Parser.parseEventCommand(input);
         assert parts.length == 3 : "Event command must have exactly three parts";
         Task task = waderList.addEventTask(parts[0], parts[1], parts[2]);
+        persist(input);
         return ui.showTaskAdded(task, waderList);
     }
 
@@ -157,6 +440,7 @@ public class Wader {
         assert index >= 0 : "Task index must be non-negative";
         try {
             Task removedTask = waderList.delete(index);
+            persist(input);
             return ui.showTaskDeleted(removedTask, waderList);
         } catch (IndexOutOfBoundsException e) {
             return ui.showError("Invalid task index");
@@ -170,8 +454,15 @@ public class Wader {
         return ui.showTaskList(foundTasks);
     }
 
-    private String handleRemindAndGetResponse(WaderList waderList) {
-        List<Task> nextTasks = waderList.getNextUpcomingTasks(3); // Get the next 3 tasks
+    private String handleRemindAndGetResponse(WaderList waderList) throws DukeException {
+        List<Task> nextTasks = storage.getNextUpcomingTasks(waderList, 3); // Get the next 3 tasks
         return ui.showNextUpcomingTasks(nextTasks);
     }
+
+    private String handleScheduleAndGetResponse(String input, WaderList waderList) throws DukeException {
+        LocalDateTime[] period = Parser.parseScheduleCommand(input);
+        assert period.length == 2 : "Schedule command must have a start and an end";
+        List<Task> events = waderList.getEventsOverlapping(period[0], period[1]);
+        return ui.showSchedule(events);
+    }
 }
@@ -0,0 +1,231 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import wader.Wader;
+import wader.task.Task;
+import wader.task.ToDoTask;
+
+public class ArenaStorageTest {
+
+    private String testFilePath;
+    private Path arenaFile;
+    private WaderList original;
+
+    @BeforeEach
+    public void setUp() throws DukeException {
+        testFilePath = "test_arena.txt";
+        arenaFile = Path.of(testFilePath + ".arena");
+        original = new WaderList();
+        original.addToDoTask("read book");
+        original.addDeadlineTask("return book", "2099-08-30 18:00");
+        original.addEventTask("caf\u00e9 meetup", "2099-08-29 14:00", "2099-08-29 16:00");
+        original.mark(1);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(arenaFile);
+        Files.deleteIfExists(Path.of(testFilePath + ".arena.tmp"));
+    }
+
+    @Test
+    public void save_thenLoad_restoresTasksAndIds() throws DukeException {
+        new ArenaStorage(testFilePath).save(original);
+
+        WaderList loaded = new ArenaStorage(testFilePath).load();
+
+        assertEquals(original.getSize(), loaded.getSize());
+        for (int i = 0; i < original.getSize(); i++) {
+            assertEquals(original.getTaskString(i), loaded.getTaskString(i));
+            assertEquals(original.getTasks().get(i).getId(), loaded.getTasks().get(i).getId());
+        }
+    }
+
+    @Test
+    public void record_changesToMappedList_surviveReopening() throws DukeException {
+        new ArenaStorage(testFilePath).save(original);
+        ArenaStorage mappedStorage = new ArenaStorage(testFilePath);
+        WaderList mapped = mappedStorage.load();
+
+        mapped.delete(0);
+        mapped.unmark(0);
+        for (int i = 0; i < 100; i++) {
+            mapped.addToDoTask("task " + i);
+        }
+        mappedStorage.record("todo task 99", mapped);
+
+        WaderList reopened = new ArenaStorage(testFilePath).load();
+        assertEquals(102, reopened.getSize());
+        assertTrue(reopened.getTaskString(0).startsWith("[D][ ] return book"));
+        assertEquals("[T][ ] task 99", reopened.getTaskString(101));
+        assertEquals(103, reopened.addToDoTask("another").getId());
+    }
+
+    @Test
+    public void save_otherList_replacesFileWithoutTouchingMappedList() throws DukeException {
+        ArenaStorage storage = new ArenaStorage(testFilePath);
+        WaderList mapped = storage.load();
+        mapped.addToDoTask("mapped task");
+
+        storage.save(original);
+
+        assertEquals(1, mapped.getSize());
+        assertEquals("[T][ ] mapped task", mapped.getTaskString(0));
+        WaderList reloaded = storage.load();
+        assertEquals(original.getSize(), reloaded.getSize());
+        assertEquals(original.getTaskString(2), reloaded.getTaskString(2));
+        assertEquals(original.getSize(), new ArenaStorage(testFilePath).load().getSize());
+    }
+
+    @Test
+    public void wader_asyncPersistence_keepsEveryTaskInOrder() throws DukeException {
+        System.setProperty("wader.storage", "arena");
+        System.setProperty("wader.persistence", "async");
+        System.setProperty("wader.async.maxDelayMillis", "0");
+        try {
+            Wader wader = new Wader(testFilePath);
+            for (int i = 0; i < 3000; i++) {
+                wader.getResponse("todo t" + i);
+            }
+            wader.getResponse("bye");
+        } finally {
+            System.clearProperty("wader.storage");
+            System.clearProperty("wader.persistence");
+            System.clearProperty("wader.async.maxDelayMillis");
+        }
+
+        WaderList reopened = new ArenaStorage(testFilePath).load();
+        assertEquals(3000, reopened.getSize());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals("[T][ ] t" + i, reopened.getTaskString(i));
+        }
+    }
+
+    @Test
+    public void load_afterDeletingLastTask_doesNotReuseItsId() throws DukeException {
+        new ArenaStorage(testFilePath).save(original);
+        ArenaStorage mappedStorage = new ArenaStorage(testFilePath);
+        WaderList mapped = mappedStorage.load();
+        mapped.delete(2);
+        mappedStorage.record("delete 3", mapped);
+
+        WaderList reopened = new ArenaStorage(testFilePath).load();
+
+        assertEquals(3, reopened.addToDoTask("another").getId());
+    }
+
+    @Test
+    public void randomEdits_mappedArena_surviveReopening() throws DukeException {
+        Random random = new Random(23);
+        List<String> expected = new ArrayList<>();
+        ArenaStorage mappedStorage = new ArenaStorage(testFilePath);
+        WaderList mapped = mappedStorage.load();
+        for (int step = 0; step < 300; step++) {
+            int choice = random.nextInt(3);
+            if (expected.isEmpty() || choice == 0) {
+                String description = "task " + step + " " + "x".repeat(random.nextInt(200));
+                mapped.addToDoTask(description);
+                expected.add("[T][ ] " + description);
+            } else if (choice == 1) {
+                int position = random.nextInt(expected.size());
+                mapped.delete(position);
+                expected.remove(position);
+            } else {
+                int position = random.nextInt(expected.size());
+                mapped.mark(position);
+                expected.set(position, expected.get(position).replace("[T][ ]", "[T][X]"));
+            }
+        }
+        mappedStorage.record("todo task", mapped);
+
+        WaderList reopened = new ArenaStorage(testFilePath).load();
+        assertEquals(expected.size(), reopened.getSize());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), reopened.getTaskString(i));
+        }
+        assertFalse(Files.exists(Path.of(testFilePath + ".arena.rebuild")));
+    }
+
+    @Test
+    public void load_versionOneArena_convertsAndKeepsIds() throws DukeException, IOException {
+        byte[] description = "read book".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer v1 = ByteBuffer.allocate(32 + 16 * OffHeapTaskList.SLOT_SIZE + 1024);
+        v1.putInt(0, OffHeapTaskList.MAGIC).putShort(4, (short) 1).putInt(8, 1).putInt(12, 16)
+                .putInt(16, description.length).putInt(24, 1024);
+        v1.putLong(32, 7).putInt(32 + 28, description.length).put(32 + 32, (byte) 1).put(32 + 33, (byte) 1);
+        v1.put(32 + 16 * OffHeapTaskList.SLOT_SIZE, description);
+        Files.write(arenaFile, v1.array());
+
+        WaderList loaded = new ArenaStorage(testFilePath).load();
+
+        assertEquals(1, loaded.getSize());
+        assertEquals("[T][X] read book", loaded.getTaskString(0));
+        assertEquals(7, loaded.getTasks().get(0).getId());
+        assertEquals(8, loaded.addToDoTask("another").getId());
+        assertEquals(OffHeapTaskList.VERSION, ByteBuffer.wrap(Files.readAllBytes(arenaFile)).getShort(4));
+    }
+
+    @Test
+    public void load_capacityBeyondFile_throwsDukeException() throws DukeException, IOException {
+        new ArenaStorage(testFilePath).save(original);
+        byte[] bytes = Files.readAllBytes(arenaFile);
+        ByteBuffer.wrap(bytes).putInt(12, Integer.MAX_VALUE);
+        Files.write(arenaFile, bytes);
+
+        assertThrows(DukeException.class, () -> new ArenaStorage(testFilePath).load());
+    }
+
+    @Test
+    public void load_notAnArena_throwsDukeException() throws IOException {
+        Files.write(arenaFile, "T | 0 | not an arena".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(DukeException.class, () -> new ArenaStorage(testFilePath).load());
+    }
+
+    @Test
+    public void randomEdits_directArena_matchArrayList() {
+        Random random = new Random(23);
+        List<Task> expected = new ArrayList<>(original.getTasks());
+        OffHeapTaskList arena = new OffHeapTaskList(expected);
+        for (int step = 0; step < 2000; step++) {
+            int choice = random.nextInt(4);
+            if (expected.isEmpty() || choice < 2) {
+                int position = random.nextInt(expected.size() + 1);
+                Task task = new ToDoTask("task " + step + " " + "x".repeat(random.nextInt(200)));
+                task.setId(step + 10);
+                arena.add(position, task);
+                expected.add(position, task);
+            } else if (choice == 2) {
+                int position = random.nextInt(expected.size());
+                assertEquals(expected.remove(position).toString(), arena.remove(position).toString());
+            } else {
+                int position = random.nextInt(expected.size());
+                arena.setDone(position, true);
+                expected.get(position).markAsDone();
+            }
+        }
+
+        assertEquals(expected.size(), arena.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), arena.get(i).toString());
+            assertEquals(expected.get(i).getId(), arena.get(i).getId());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AsyncSaverTest {
+
+    private String testFilePath;
+    private WaderList testList;
+    private AtomicInteger saveCount;
+    private Storage countingStorage;
+
+    @BeforeEach
+    public void setUp() {
+        testFilePath = "test_async.txt";
+        testList = new WaderList();
+        saveCount = new AtomicInteger();
+        countingStorage = new Storage(testFilePath) {
+            @Override
+            public void save(WaderList waderList) throws DukeException {
+                saveCount.incrementAndGet();
+                super.save(waderList);
+            }
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        try {
+            Files.deleteIfExists(Paths.get(testFilePath));
+        } catch (IOException e) {
+            // Ignore cleanup failures
+        }
+    }
+
+    @Test
+    public void notifyChanged_burstOfChanges_coalescesIntoOneSave() throws InterruptedException, DukeException {
+        AsyncSaver saver = new AsyncSaver(countingStorage, this::snapshot, 10_000, 1_000);
+        for (int i = 0; i < 100; i++) {
+            addTask("task " + i);
+            saver.notifyChanged();
+        }
+        saver.close();
+        saver.flush();
+
+        assertEquals(1, saveCount.get());
+        assertEquals(100, new Storage(testFilePath).load().getSize());
+    }
+
+    @Test
+    public void notifyChanged_batchSizeReached_savesWithoutWaitingForDelay()
+            throws InterruptedException, DukeException {
+        AsyncSaver saver = new AsyncSaver(countingStorage, this::snapshot, 60_000, 5);
+        for (int i = 0; i < 5; i++) {
+            addTask("task " + i);
+            saver.notifyChanged();
+        }
+
+        long start = System.currentTimeMillis();
+        saver.flush();
+
+        assertTrue(System.currentTimeMillis() - start < 30_000);
+        assertTrue(saveCount.get() >= 1);
+        saver.close();
+    }
+
+    @Test
+    public void notifyChanged_afterMaxDelay_savesLatestState() throws InterruptedException, DukeException {
+        AsyncSaver saver = new AsyncSaver(countingStorage, this::snapshot, 20, 1_000);
+        addTask("first");
+        saver.notifyChanged();
+        saver.flush();
+        addTask("second");
+        saver.notifyChanged();
+        saver.flush();
+        saver.close();
+
+        assertEquals(2, saveCount.get());
+        assertEquals(2, new Storage(testFilePath).load().getSize());
+    }
+
+    @Test
+    public void reset_whileBatchWaits_keepsSavingLaterChanges() throws InterruptedException, DukeException {
+        AsyncSaver saver = new AsyncSaver(countingStorage, this::snapshot, 200, 1_000);
+        addTask("first");
+        saver.notifyChanged();
+        // Reset while the writer waits out the batch delay, then let the delay run out
+        Thread.sleep(50);
+        saver.reset();
+        Thread.sleep(400);
+        addTask("second");
+        saver.notifyChanged();
+        saver.flush();
+        saver.close();
+
+        assertEquals(1, saveCount.get());
+        assertEquals(2, new Storage(testFilePath).load().getSize());
+    }
+
+    @Test
+    public void notifyChanged_afterClose_savesBeforeReturning() throws InterruptedException, DukeException {
+        AsyncSaver saver = new AsyncSaver(countingStorage, this::snapshot, 10_000, 1_000);
+        addTask("first");
+        saver.notifyChanged();
+        saver.close();
+        addTask("second");
+        saver.notifyChanged();
+
+        assertEquals(2, new Storage(testFilePath).load().getSize());
+        saver.flush();
+        assertEquals(2, new Storage(testFilePath).load().getSize());
+    }
+
+    @Test
+    public void notifyChanged_saveFails_retriesUntilSaved() throws InterruptedException, DukeException {
+        AtomicInteger failuresLeft = new AtomicInteger(2);
+        Storage failingStorage = new Storage(testFilePath) {
+            @Override
+            public void save(WaderList waderList) throws DukeException {
+                saveCount.incrementAndGet();
+                if (failuresLeft.getAndDecrement() > 0) {
+                    throw new DukeException("Disk full");
+                }
+                super.save(waderList);
+            }
+        };
+        AsyncSaver saver = new AsyncSaver(failingStorage, this::snapshot, 0, 1_000);
+        addTask("first");
+        saver.notifyChanged();
+        saver.flush();
+        saver.close();
+
+        assertEquals(3, saveCount.get());
+        assertEquals(1, new Storage(testFilePath).load().getSize());
+    }
+
+    @Test
+    public void close_saveKeepsFailing_givesUp() throws InterruptedException, DukeException {
+        Storage brokenStorage = new Storage(testFilePath) {
+            @Override
+            public void save(WaderList waderList) throws DukeException {
+                saveCount.incrementAndGet();
+                throw new DukeException("Disk full");
+            }
+        };
+        AsyncSaver saver = new AsyncSaver(brokenStorage, this::snapshot, 0, 1_000);
+        addTask("first");
+        saver.notifyChanged();
+        saver.close();
+        saver.flush();
+
+        assertTrue(saveCount.get() >= 3);
+    }
+
+    @Test
+    public void close_noChanges_savesNothing() throws InterruptedException {
+        AsyncSaver saver = new AsyncSaver(countingStorage, this::snapshot, 10, 10);
+        saver.close();
+        saver.flush();
+
+        assertEquals(0, saveCount.get());
+    }
+
+    private synchronized void addTask(String description) {
+        testList.addToDoTask(description);
+    }
+
+    private synchronized WaderList snapshot() {
+        return testList.copy();
+    }
+}
@@ -0,0 +1,131 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import wader.task.Task;
+
+public class ColumnarTaskListTest {
+
+    private WaderList original;
+
+    @BeforeEach
+    public void setUp() throws DukeException {
+        original = new WaderList();
+        original.addToDoTask("read book");
+        original.addDeadlineTask("return book", "2099-08-30 18:00");
+        original.addEventTask("book club", "2099-08-29 14:00", "2099-08-29 16:00");
+        original.addToDoTask("buy milk");
+        original.mark(1);
+    }
+
+    @Test
+    public void toColumnar_mixedTasks_keepsRecordsAndIds() {
+        WaderList columnar = original.toColumnar();
+
+        assertEquals(original.getSize(), columnar.getSize());
+        for (int i = 0; i < original.getSize(); i++) {
+            assertEquals(original.getTaskString(i), columnar.getTaskString(i));
+            assertEquals(original.getTasks().get(i).getId(), columnar.getTasks().get(i).getId());
+        }
+    }
+
+    @Test
+    public void markAndDelete_columnarList_writesBackToColumns() throws DukeException {
+        WaderList columnar = original.toColumnar();
+
+        assertTrue(columnar.unmark(1));
+        assertTrue(columnar.mark(3));
+        columnar.delete(0);
+        Task task = columnar.addToDoTask("walk dog");
+
+        assertFalse(columnar.getTasks().get(0).isDone());
+        assertTrue(columnar.getTasks().get(2).isDone());
+        assertEquals("walk dog", columnar.getTasks().get(3).getDescription());
+        assertEquals(4, task.getId());
+        assertEquals(4, columnar.copy().getSize());
+    }
+
+    @Test
+    public void queries_columnarList_matchTreeBackedList() {
+        WaderList columnar = original.toColumnar();
+        LocalDateTime from = LocalDateTime.of(2099, 8, 29, 15, 0);
+        LocalDateTime to = LocalDateTime.of(2099, 8, 31, 0, 0);
+
+        assertEquals(strings(original.findTasks("book")), strings(columnar.findTasks("book")));
+        assertEquals(strings(original.getNextUpcomingTasks(3)), strings(columnar.getNextUpcomingTasks(3)));
+        assertEquals(strings(original.getEventsOverlapping(from, to)),
+                strings(columnar.getEventsOverlapping(from, to)));
+    }
+
+    @Test
+    public void findTasksWithDescription_repeatedDescriptions_matchesExactly() throws DukeException {
+        original.addToDoTask("read book");
+        original.addToDoTask("read books");
+        WaderList columnar = original.toColumnar();
+
+        assertEquals(strings(original.findTasksWithDescription("read book")),
+                strings(columnar.findTasksWithDescription("read book")));
+        assertEquals(2, columnar.findTasksWithDescription("read book").size());
+        assertTrue(columnar.findTasksWithDescription("unknown").isEmpty());
+        assertSame(columnar.getTasks().get(0).getDescription(), columnar.getTasks().get(4).getDescription());
+    }
+
+    @Test
+    public void randomEdits_matchArrayList() {
+        Random random = new Random(22);
+        List<Task> expected = new ArrayList<>(original.getTasks());
+        ColumnarTaskList columnar = new ColumnarTaskList(expected);
+        for (int step = 0; step < 1000; step++) {
+            if (expected.isEmpty() || random.nextBoolean()) {
+                int position = random.nextInt(expected.size() + 1);
+                Task task = new WaderList().addToDoTask("task " + step);
+                if (random.nextBoolean()) {
+                    task.markAsDone();
+                }
+                columnar.add(position, task);
+                expected.add(position, task);
+            } else {
+                int position = random.nextInt(expected.size());
+                assertEquals(expected.remove(position).toString(), columnar.remove(position).toString());
+            }
+        }
+
+        assertEquals(strings(expected), strings(columnar));
+    }
+
+    @Test
+    public void edits_manyDistinctDescriptions_reclaimUnusedCodes() {
+        ColumnarTaskList columnar = new ColumnarTaskList(original.getTasks());
+        WaderList tasks = new WaderList();
+        for (int step = 0; step < 1000; step++) {
+            columnar.set(0, tasks.addToDoTask("edit " + step));
+            columnar.add(tasks.addToDoTask("added " + step));
+            columnar.remove(columnar.size() - 1);
+        }
+
+        assertTrue(columnar.getDescriptionCount() <= 2 * original.getSize() + 16);
+        assertEquals("edit 999", columnar.get(0).getDescription());
+        assertEquals(original.getTaskString(3), columnar.get(3).toString());
+        assertEquals(1, columnar.findTasksWithDescription("buy milk").size());
+        assertTrue(columnar.findTasks("added").isEmpty());
+    }
+
+    private static List<String> strings(List<Task> tasks) {
+        List<String> strings = new ArrayList<>();
+        for (Task task : tasks) {
+            strings.add(task.toString());
+        }
+        return strings;
+    }
+}
@@ -0,0 +1,88 @@
+package wader.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures read throughput of a shared WaderList as reader threads are added, alone and alongside
+ * a thread that keeps marking and unmarking tasks. Readers share the read lock rather than
+ * queueing for it, so throughput should grow with the number of cores. Run with
+ * {@code ./gradlew benchmark -Pbenchmark=ConcurrentReadBenchmark --args='[tasks] [maxReaders]'}, where
+ * the readers default to one per core.
+ */
+public class ConcurrentReadBenchmark {
+    private static final long MEASURE_MILLIS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        WaderList waderList = new WaderList();
+        for (int i = 0; i < taskCount; i++) {
+            waderList.addToDoTask("read chapter " + i);
+        }
+        // Build the trigram index up front so every measured read is a pure read
+        waderList.findTasks("chapter 1234");
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxReaders = args.length > 1 ? Integer.parseInt(args[1]) : cores;
+        System.out.printf("%d tasks, %d cores%n", taskCount, cores);
+        for (boolean withWriter : new boolean[] {false, true}) {
+            double single = 0;
+            for (int readers = 1; readers <= maxReaders; readers *= 2) {
+                double perSecond = measure(waderList, readers, withWriter);
+                single = readers == 1 ? perSecond : single;
+                System.out.printf("%s%d readers: %.0f reads/s, %.2fx%n", withWriter ? "1 writer, " : "", readers,
+                        perSecond, perSecond / single);
+            }
+        }
+    }
+
+    private static double measure(WaderList waderList, int readerCount, boolean withWriter)
+            throws InterruptedException {
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readerCount; r++) {
+            int seed = r;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                int size = waderList.getSize();
+                int i = seed % size;
+                while (isRunning.get()) {
+                    waderList.getTaskString(i);
+                    waderList.findTasks("chapter " + i + "7");
+                    reads.add(2);
+                    i = (i + 7919) % size;
+                }
+            }));
+        }
+        if (withWriter) {
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; isRunning.get(); i = (i + 1) % waderList.getSize()) {
+                    waderList.mark(i);
+                    waderList.unmark(i);
+                    Thread.onSpinWait();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        Thread.sleep(MEASURE_MILLIS);
+        isRunning.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return reads.sum() * 1000.0 / MEASURE_MILLIS;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
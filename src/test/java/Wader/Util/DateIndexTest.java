@@ -0,0 +1,55 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import wader.task.DeadlineTask;
+import wader.task.EventTask;
+import wader.task.Task;
+import wader.task.ToDoTask;
+
+public class DateIndexTest {
+
+    private static Task withId(Task task, long id) {
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    public void after_mixedTasks_returnsLaterDatedTasksInOrder() {
+        LocalDateTime now = LocalDateTime.of(2025, 8, 30, 12, 0, 30);
+        DateIndex index = new DateIndex();
+        index.add(withId(new DeadlineTask("late", now.plusDays(2)), 0));
+        index.add(withId(new ToDoTask("undated"), 1));
+        index.add(withId(new DeadlineTask("past", now.minusSeconds(30)), 2));
+        index.add(withId(new EventTask("soon", now.plusMinutes(1), now.plusHours(1)), 3));
+        index.add(withId(new DeadlineTask("also soon", now.plusMinutes(1)), 4));
+
+        List<Task> upcoming = index.after(now, 3);
+
+        assertEquals(3, upcoming.size());
+        assertEquals("soon", upcoming.get(0).getDescription());
+        assertEquals("also soon", upcoming.get(1).getDescription());
+        assertEquals("late", upcoming.get(2).getDescription());
+    }
+
+    @Test
+    public void after_removedTask_isSkipped() {
+        LocalDateTime now = LocalDateTime.of(2025, 8, 30, 12, 0);
+        DateIndex index = new DateIndex();
+        Task first = withId(new DeadlineTask("first", now.plusHours(1)), 0);
+        index.add(first);
+        index.add(withId(new DeadlineTask("second", now.plusHours(2)), 1));
+        index.add(withId(new DeadlineTask("due now", now), 2));
+
+        index.remove(first);
+
+        List<Task> upcoming = index.after(now, 3);
+        assertEquals(1, upcoming.size());
+        assertEquals("second", upcoming.get(0).getDescription());
+    }
+}
@@ -0,0 +1,36 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class DescriptionDictionaryTest {
+
+    @Test
+    public void encode_repeatedDescription_returnsSameCode() {
+        DescriptionDictionary dictionary = new DescriptionDictionary();
+        String first = "pay rent";
+
+        int code = dictionary.encode(first);
+
+        assertEquals(code, dictionary.encode(new String("pay rent")));
+        assertSame(first, dictionary.decode(code));
+        assertEquals(1, dictionary.size());
+        assertEquals(-1, dictionary.codeOf("pay bills"));
+    }
+
+    @Test
+    public void encode_manyDescriptions_keepsCodesAcrossGrowth() {
+        DescriptionDictionary dictionary = new DescriptionDictionary();
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, dictionary.encode("task " + i));
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, dictionary.codeOf("task " + i));
+            assertEquals("task " + i, dictionary.decode(i));
+        }
+        assertEquals(10000, dictionary.size());
+    }
+}
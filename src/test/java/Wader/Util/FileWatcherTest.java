@@ -0,0 +1,55 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class FileWatcherTest {
+
+    private final Path watchedFile = Paths.get("test_watcher.txt");
+    private final Path otherFile = Paths.get("test_watcher_other.txt");
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(watchedFile);
+        Files.deleteIfExists(otherFile);
+    }
+
+    @Test
+    public void watch_fileReplaced_runsCallback() throws IOException, InterruptedException {
+        CountDownLatch changed = new CountDownLatch(1);
+        FileWatcher watcher = new FileWatcher(List.of(watchedFile), changed::countDown,
+                FileWatcher.DEFAULT_SETTLE_MILLIS);
+        try {
+            Files.writeString(watchedFile, "[T][ ] read book\n");
+
+            assertTrue(changed.await(5, TimeUnit.SECONDS));
+        } finally {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void watch_otherFileChanged_ignoresIt() throws IOException, InterruptedException {
+        CountDownLatch changed = new CountDownLatch(1);
+        FileWatcher watcher = new FileWatcher(List.of(watchedFile), changed::countDown,
+                FileWatcher.DEFAULT_SETTLE_MILLIS);
+        try {
+            Files.writeString(otherFile, "[T][ ] read book\n");
+
+            assertFalse(changed.await(200, TimeUnit.MILLISECONDS));
+        } finally {
+            watcher.close();
+        }
+    }
+}
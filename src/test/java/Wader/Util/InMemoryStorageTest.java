@@ -0,0 +1,32 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class InMemoryStorageTest {
+
+    @Test
+    public void load_nothingSaved_returnsEmptyList() {
+        assertTrue(new InMemoryStorage().load().isEmpty());
+    }
+
+    @Test
+    public void save_thenLoad_returnsIndependentCopy() throws DukeException {
+        InMemoryStorage storage = new InMemoryStorage();
+        WaderList list = new WaderList();
+        list.addToDoTask("read book");
+        list.addDeadlineTask("submit report", "2025-08-30 18:00");
+        storage.save(list);
+
+        list.mark(0);
+        WaderList loaded = storage.load();
+        loaded.delete(1);
+
+        assertFalse(storage.load().getTasks().get(0).isDone());
+        assertEquals(2, storage.load().getSize());
+        assertEquals("[D][ ] submit report (by: Aug 30 2025 6PM)", storage.load().getTaskString(1));
+    }
+}
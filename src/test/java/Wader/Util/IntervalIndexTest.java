@@ -0,0 +1,73 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import wader.task.DeadlineTask;
+import wader.task.EventTask;
+import wader.task.Task;
+
+public class IntervalIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 8, 22, 0, 0);
+
+    private static Task newEvent(long id, int fromHour, int toHour) {
+        Task task = new EventTask("event " + id, BASE.plusHours(fromHour), BASE.plusHours(toHour));
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    public void overlapping_adjacentAndInstantEvents_followsHalfOpenSpans() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(newEvent(0, 9, 10));
+        index.add(newEvent(1, 10, 12));
+        index.add(newEvent(2, 12, 12));
+        index.add(newEvent(3, 13, 14));
+        Task deadline = new DeadlineTask("not an event", BASE.plusHours(11));
+        deadline.setId(4);
+        index.add(deadline);
+
+        List<Task> events = index.overlapping(BASE.plusHours(10), BASE.plusHours(13));
+
+        assertEquals(2, events.size());
+        assertEquals("event 1", events.get(0).getDescription());
+        assertEquals("event 2", events.get(1).getDescription());
+    }
+
+    @Test
+    public void overlapping_randomEventsAndRemovals_matchesScan() {
+        Random random = new Random(21);
+        IntervalIndex index = new IntervalIndex();
+        List<EventTask> events = new ArrayList<>();
+        for (long id = 0; id < 500; id++) {
+            int from = random.nextInt(1000);
+            EventTask event = (EventTask) newEvent(id, from, from + random.nextInt(48));
+            events.add(event);
+            index.add(event);
+        }
+        for (int i = 0; i < 100; i++) {
+            index.remove(events.remove(random.nextInt(events.size())));
+        }
+        events.sort(Comparator.comparing(EventTask::getDateTime).thenComparing(Task::getId));
+
+        for (int query = 0; query < 50; query++) {
+            LocalDateTime from = BASE.plusHours(random.nextInt(1000));
+            LocalDateTime to = from.plusHours(1 + random.nextInt(24));
+            List<Task> expected = new ArrayList<>();
+            for (EventTask event : events) {
+                if (event.getDateTime().isBefore(to) && event.getEndDateTime().isAfter(from)) {
+                    expected.add(event);
+                }
+            }
+
+            assertEquals(expected, index.overlapping(from, to));
+        }
+    }
+}
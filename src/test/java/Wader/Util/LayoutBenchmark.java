@@ -0,0 +1,48 @@
+package wader.util;
+
+/**
+ * Compares the heap taken per task by the tree-backed, columnar and off-heap task lists. Run with
+ * {@code ./gradlew benchmark -Pbenchmark=LayoutBenchmark --args=[tasks]}.
+ */
+public class LayoutBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long baseline = usedHeap();
+        WaderList tree = new WaderList();
+        for (int i = 0; i < taskCount; i++) {
+            switch (i % 3) {
+                case 0:
+                    tree.addToDoTask("read chapter " + i);
+                    break;
+                case 1:
+                    tree.addDeadlineTask("submit report " + i, "2025-08-30 18:00");
+                    break;
+                default:
+                    tree.addEventTask("meeting " + i, "2025-08-30 14:00", "2025-08-30 16:00");
+                    break;
+            }
+        }
+        long treeBytes = usedHeap() - baseline;
+
+        WaderList columnar = tree.toColumnar();
+        WaderList offHeap = new WaderList(new OffHeapTaskList(tree.tasksView()));
+        tree = null;
+        long bothBytes = usedHeap() - baseline;
+        columnar = null;
+        long offHeapBytes = usedHeap() - baseline;
+
+        System.out.printf("%d tasks: tree %d, columnar %d, off-heap %d heap bytes/task (%d tasks)%n", taskCount,
+                treeBytes / taskCount, (bothBytes - offHeapBytes) / taskCount, offHeapBytes / taskCount,
+                offHeap.getSize());
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
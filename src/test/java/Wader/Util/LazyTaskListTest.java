@@ -0,0 +1,156 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import wader.task.Task;
+
+public class LazyTaskListTest {
+
+    private String testFilePath;
+    private WaderList original;
+
+    @BeforeEach
+    public void setUp() throws DukeException {
+        testFilePath = "test_lazy.txt";
+        original = new WaderList();
+        for (int i = 0; i < 50; i++) {
+            original.addToDoTask("todo " + i);
+            original.addDeadlineTask("deadline " + i, "2025-08-30 18:00");
+        }
+        original.mark(3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("."), testFilePath + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            // Ignore cleanup failures
+        }
+    }
+
+    @Test
+    public void loadLazily_textSnapshot_matchesEagerLoad() throws DukeException {
+        new Storage(testFilePath).save(original);
+
+        WaderList lazy = new Storage(testFilePath).loadLazily(8);
+
+        assertEquals(original.getSize(), lazy.getSize());
+        for (int i = 0; i < original.getSize(); i++) {
+            assertEquals(original.getTaskString(i), lazy.getTaskString(i));
+        }
+    }
+
+    @Test
+    public void loadLazily_binarySnapshot_matchesEagerLoad() throws DukeException {
+        new Storage(testFilePath, Storage.Format.BINARY).save(original);
+
+        WaderList lazy = new Storage(testFilePath).loadLazily(8);
+
+        assertEquals(original.getSize(), lazy.getSize());
+        for (int i = original.getSize() - 1; i >= 0; i--) {
+            assertEquals(original.getTaskString(i), lazy.getTaskString(i));
+        }
+    }
+
+    @Test
+    public void mark_taskEvictedFromCache_keepsStatus() throws DukeException {
+        new Storage(testFilePath).save(original);
+        WaderList lazy = new Storage(testFilePath).loadLazily(2);
+
+        lazy.mark(0);
+        lazy.unmark(3);
+        for (int i = 0; i < lazy.getSize(); i++) {
+            lazy.getTaskString(i);
+        }
+
+        assertTrue(lazy.getTasks().get(0).isDone());
+        assertFalse(lazy.getTasks().get(3).isDone());
+    }
+
+    @Test
+    public void addAndDelete_lazyList_keepsOrder() throws DukeException {
+        new Storage(testFilePath).save(original);
+        WaderList lazy = new Storage(testFilePath).loadLazily(4);
+
+        lazy.addToDoTask("added");
+        lazy.delete(0);
+        lazy.delete(0);
+
+        assertEquals(original.getSize() - 1, lazy.getSize());
+        assertEquals("todo 1", lazy.getTasks().get(0).getDescription());
+        assertEquals("added", lazy.getTasks().get(lazy.getSize() - 1).getDescription());
+    }
+
+    @Test
+    public void loadLazily_journaled_replaysJournal() throws DukeException {
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        journaled.save(original);
+        WaderList list = journaled.load();
+        list.addToDoTask("read book");
+        journaled.record("todo read book", list);
+        list.delete(0);
+        journaled.record("delete 1", list);
+
+        WaderList lazy = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD).loadLazily(4);
+
+        assertEquals(original.getSize(), lazy.getSize());
+        assertEquals("deadline 0", lazy.getTasks().get(0).getDescription());
+        assertEquals("read book", lazy.getTasks().get(lazy.getSize() - 1).getDescription());
+    }
+
+    @Test
+    public void loadLazily_again_closesPreviousList() throws DukeException {
+        Storage storage = new Storage(testFilePath);
+        storage.save(original);
+        WaderList first = storage.loadLazily(2);
+
+        WaderList second = storage.loadLazily(2);
+
+        assertThrows(UncheckedIOException.class, () -> first.getTaskString(original.getSize() - 1));
+        assertEquals(original.getTaskString(original.getSize() - 1), second.getTaskString(original.getSize() - 1));
+    }
+
+    @Test
+    public void save_journaledLazyList_keepsTasksAndIds() throws DukeException {
+        Storage storage = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        storage.save(original);
+        WaderList lazy = storage.loadLazily(2);
+        lazy.addToDoTask("added");
+        lazy.mark(0);
+        lazy.delete(1);
+        List<String> expected = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (Task task : lazy.getTasks()) {
+            expected.add(task.toString());
+            ids.add(task.getId());
+        }
+
+        storage.save(lazy);
+
+        for (int i = lazy.getSize() - 1; i >= 0; i--) {
+            Task task = lazy.getTasks().get(i);
+            assertEquals(expected.get(i), task.toString());
+            assertEquals((long) ids.get(i), task.getId());
+        }
+        assertEquals(expected.size(), new Storage(testFilePath).load().getSize());
+    }
+}
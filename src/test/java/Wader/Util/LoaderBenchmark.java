@@ -0,0 +1,58 @@
+package wader.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compares cold-load time of the sequential text loader against the parallel chunked loader. Run
+ * with {@code ./gradlew benchmark -Pbenchmark=LoaderBenchmark --args=[tasks]}.
+ */
+public class LoaderBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path file = Files.createTempFile("wader-bench", ".txt");
+        try {
+            writeTasks(file, taskCount);
+            System.out.printf("%d tasks, %d MiB, %d cores%n", taskCount, Files.size(file) >> 20,
+                    Runtime.getRuntime().availableProcessors());
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                int sequential = Storage.loadText(file.toFile(), null).getSize();
+                long sequentialNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int parallel = new ParallelLoader().load(file).getSize();
+                long parallelNanos = System.nanoTime() - start;
+
+                System.out.printf("round %d: sequential %d ms (%d), parallel %d ms (%d), speedup %.2fx%n", round,
+                        sequentialNanos / 1_000_000, sequential, parallelNanos / 1_000_000, parallel,
+                        (double) sequentialNanos / parallelNanos);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeTasks(Path file, int taskCount) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < taskCount; i++) {
+                switch (i % 3) {
+                    case 0:
+                        writer.write("[T][ ] read chapter " + i + "\n");
+                        break;
+                    case 1:
+                        writer.write("[D][X] submit report " + i + " (by: Aug 30 2025 6pm)\n");
+                        break;
+                    default:
+                        writer.write("[E][ ] meeting " + i + " (from: Aug 22 2025 2pm to: Aug 25 2025 11pm)\n");
+                        break;
+                }
+            }
+        }
+    }
+}
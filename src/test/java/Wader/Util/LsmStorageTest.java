@@ -0,0 +1,199 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import wader.task.Task;
+import wader.task.ToDoTask;
+
+public class LsmStorageTest {
+
+    private String testFilePath;
+
+    @BeforeEach
+    public void setUp() {
+        testFilePath = "test_lsm.txt";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        try (Stream<Path> files = Files.walk(Path.of(testFilePath + ".lsm"))) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            // Ignore cleanup failures
+        }
+    }
+
+    @Test
+    public void record_withoutSave_replaysJournalOnLoad() throws DukeException {
+        LsmStorage storage = new LsmStorage(testFilePath);
+        WaderList list = storage.load();
+        list.addToDoTask("read book");
+        storage.record("todo read book", list);
+        list.addDeadlineTask("submit report", "2025-08-30 18:00");
+        storage.record("deadline submit report /by 2025-08-30 18:00", list);
+        list.mark(1);
+        storage.record("mark 2", list);
+        list.delete(0);
+        storage.record("delete 1", list);
+
+        WaderList loaded = new LsmStorage(testFilePath).load();
+
+        assertEquals(1, loaded.getSize());
+        assertEquals("[D][X] submit report (by: Aug 30 2025 6PM)", loaded.getTaskString(0));
+        assertEquals(1, loaded.getTasks().get(0).getId());
+    }
+
+    @Test
+    public void record_manyChanges_flushesAndMergesRuns() throws DukeException {
+        LsmStorage storage = new LsmStorage(testFilePath, 4, 2);
+        WaderList list = storage.load();
+        for (int i = 0; i < 40; i++) {
+            list.addToDoTask("todo " + i);
+            storage.record("todo todo " + i, list);
+        }
+        for (int i = 0; i < 10; i++) {
+            list.delete(i);
+            storage.record("delete " + (i + 1), list);
+        }
+        storage.awaitMerge();
+        storage.save(list);
+        storage.awaitMerge();
+
+        WaderList loaded = new LsmStorage(testFilePath).load();
+
+        assertTrue(storage.getRunCount() <= 3);
+        assertEquals(30, loaded.getSize());
+        for (int i = 0; i < loaded.getSize(); i++) {
+            assertEquals(list.getTaskString(i), loaded.getTaskString(i));
+        }
+    }
+
+    @Test
+    public void save_listNotLoadedFromStore_replacesContents() throws DukeException {
+        LsmStorage storage = new LsmStorage(testFilePath);
+        WaderList first = storage.load();
+        first.addToDoTask("old task");
+        storage.record("todo old task", first);
+
+        WaderList replacement = new WaderList();
+        replacement.addToDoTask("new task");
+        replacement.addToDoTask("another task");
+        storage.save(replacement);
+        replacement.delete(0);
+        storage.record("delete 1", replacement);
+
+        WaderList loaded = new LsmStorage(testFilePath).load();
+
+        assertEquals(1, loaded.getSize());
+        assertEquals("[T][ ] another task", loaded.getTaskString(0));
+    }
+
+    @Test
+    public void load_afterDeletingLastTask_doesNotReuseItsId() throws DukeException {
+        LsmStorage storage = new LsmStorage(testFilePath, 1, 1);
+        WaderList list = storage.load();
+        list.addToDoTask("read book");
+        storage.record("todo read book", list);
+        list.addToDoTask("write essay");
+        storage.record("todo write essay", list);
+        list.delete(1);
+        storage.record("delete 2", list);
+        storage.awaitMerge();
+
+        LsmStorage reopened = new LsmStorage(testFilePath);
+        WaderList loaded = reopened.load();
+        Task added = loaded.addToDoTask("buy milk");
+
+        assertEquals(2, added.getId());
+    }
+
+    @Test
+    public void save_listWithIdsOutOfOrder_recordsLaterChangesUnderNewIds() throws DukeException {
+        Task first = new ToDoTask("read book");
+        first.setId(5);
+        Task second = new ToDoTask("write essay");
+        second.setId(3);
+        WaderList list = new WaderList();
+        list.addAll(List.of(first, second));
+        LsmStorage storage = new LsmStorage(testFilePath);
+        storage.save(list);
+
+        list.mark(1);
+        storage.record("mark 2", list);
+        WaderList loaded = new LsmStorage(testFilePath).load();
+
+        assertEquals(2, loaded.getSize());
+        assertEquals("[T][ ] read book", loaded.getTaskString(0));
+        assertEquals("[T][X] write essay", loaded.getTaskString(1));
+        assertEquals(list.getTasks().get(1).getId(), loaded.getTasks().get(1).getId());
+    }
+
+    @Test
+    public void save_copyOfStoredList_writesOnlyChangedTasks() throws DukeException, IOException {
+        LsmStorage storage = new LsmStorage(testFilePath);
+        WaderList list = new WaderList();
+        for (int i = 0; i < 1000; i++) {
+            list.addToDoTask("task " + i);
+        }
+        storage.save(list);
+
+        WaderList copy = list.copy();
+        copy.mark(500);
+        copy.addToDoTask("new task");
+        copy.delete(0);
+        storage.save(copy);
+
+        assertEquals(3, Files.readAllLines(newestRun()).size());
+        WaderList loaded = new LsmStorage(testFilePath).load();
+        assertEquals(1000, loaded.getSize());
+        assertEquals("[T][X] task 500", loaded.getTaskString(499));
+        assertEquals("[T][ ] new task", loaded.getTaskString(999));
+    }
+
+    @Test
+    public void load_whileMergeRuns_keepsMergedRun() throws DukeException, IOException {
+        LsmStorage storage = new LsmStorage(testFilePath, 20000, 1);
+        WaderList list = storage.load();
+        for (int i = 0; i < 40000; i++) {
+            list.addToDoTask("task " + i);
+            storage.record("todo task " + i, list);
+        }
+        // Load once the merge has started writing its run, which the manifest does not list yet
+        while (countRuns() < 3 && storage.getRunCount() > 1) {
+            Thread.onSpinWait();
+        }
+        storage.load();
+        storage.awaitMerge();
+
+        WaderList loaded = new LsmStorage(testFilePath).load();
+
+        assertEquals(40000, loaded.getSize());
+        assertEquals("[T][ ] task 39999", loaded.getTaskString(39999));
+    }
+
+    private long countRuns() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(testFilePath + ".lsm"))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("run-")).count();
+        }
+    }
+
+    private Path newestRun() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(testFilePath + ".lsm"))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("run-"))
+                    .max(Comparator.comparingLong(file -> Long.parseLong(file.getFileName().toString().substring(4))))
+                    .orElseThrow();
+        }
+    }
+}
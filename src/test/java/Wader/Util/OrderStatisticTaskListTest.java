@@ -0,0 +1,74 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import wader.task.Task;
+import wader.task.ToDoTask;
+
+public class OrderStatisticTaskListTest {
+
+    private static Task newTask(long id) {
+        Task task = new ToDoTask("task " + id);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    public void randomEdits_matchArrayList() {
+        Random random = new Random(17);
+        OrderStatisticTaskList tree = new OrderStatisticTaskList();
+        List<Task> expected = new ArrayList<>();
+        List<Task> initial = new ArrayList<>();
+        long nextId = 0;
+        for (; nextId < 100; nextId++) {
+            initial.add(newTask(nextId));
+        }
+        tree.addAll(initial);
+        expected.addAll(initial);
+
+        for (int step = 0; step < 2000; step++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                int position = random.nextInt(expected.size() + 1);
+                Task task = newTask(nextId++);
+                tree.add(position, task);
+                expected.add(position, task);
+            } else {
+                int position = random.nextInt(expected.size());
+                assertEquals(expected.remove(position), tree.remove(position));
+            }
+        }
+
+        assertEquals(expected.size(), tree.size());
+        assertEquals(expected, new ArrayList<>(tree));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), tree.get(i));
+            assertEquals(i, tree.positionOf(expected.get(i).getId()));
+        }
+    }
+
+    @Test
+    public void getById_afterRemoveAndSet_tracksCurrentTasks() {
+        OrderStatisticTaskList tree = new OrderStatisticTaskList();
+        for (long id = 0; id < 5; id++) {
+            tree.add(newTask(id));
+        }
+
+        tree.remove(1);
+        Task replacement = newTask(9);
+        tree.set(2, replacement);
+
+        assertNull(tree.getById(1));
+        assertNull(tree.getById(3));
+        assertEquals(replacement, tree.getById(9));
+        assertEquals(2, tree.positionOf(9));
+        assertEquals(-1, tree.positionOf(1));
+        assertEquals(3, tree.positionOf(4));
+    }
+}
@@ -0,0 +1,72 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ParallelLoaderTest {
+
+    private Path testFile;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        testFile = Paths.get("test_parallel.txt");
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdown();
+        try {
+            Files.deleteIfExists(testFile);
+        } catch (IOException e) {
+            // Ignore cleanup failures
+        }
+    }
+
+    @Test
+    public void load_emptyFile_returnsEmptyList() throws IOException {
+        Files.createFile(testFile);
+
+        assertTrue(new ParallelLoader(pool, 64).load(testFile).isEmpty());
+    }
+
+    @Test
+    public void load_manySmallChunks_preservesOrderAndTasks() throws IOException, DukeException {
+        WaderList original = new WaderList();
+        for (int i = 0; i < 500; i++) {
+            original.addToDoTask("todo " + i);
+            original.addDeadlineTask("deadline " + i, "2025-08-30 18:00");
+            original.addEventTask("event " + i, "2025-08-30 14:00", "2025-08-31 16:00");
+        }
+        original.mark(7);
+        new Storage(testFile.toString()).save(original);
+
+        WaderList loadedList = new ParallelLoader(pool, 64).load(testFile);
+
+        assertEquals(original.getSize(), loadedList.getSize());
+        for (int i = 0; i < original.getSize(); i++) {
+            assertEquals(original.getTaskString(i), loadedList.getTaskString(i));
+        }
+    }
+
+    @Test
+    public void load_blankLinesAndNoTrailingNewline_skipsBlanks() throws IOException {
+        Files.writeString(testFile, "[T][ ] first\n\n   \n[T][X] second");
+
+        WaderList loadedList = new ParallelLoader(pool, 8).load(testFile);
+
+        assertEquals(2, loadedList.getSize());
+        assertEquals("[T][X] second", loadedList.getTaskString(1));
+    }
+}
@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
+
 import org.junit.jupiter.api.Test;
 
 public class ParserTest {
@@ -208,6 +210,37 @@ public class ParserTest {
         // The exact split depends on which pattern matches first
     }
 
+    // Test parseScheduleCommand() method
+    @Test
+    public void parseScheduleCommand_bareDates_coversWholeDays() throws DukeException {
+        LocalDateTime[] period = Parser.parseScheduleCommand("schedule /from 2025-08-22 /to 2025-08-25");
+        assertEquals(LocalDateTime.of(2025, 8, 22, 0, 0), period[0]);
+        assertEquals(LocalDateTime.of(2025, 8, 26, 0, 0), period[1]);
+    }
+
+    @Test
+    public void parseScheduleCommand_datesWithTimes_returnsSlot() throws DukeException {
+        LocalDateTime[] period = Parser.parseScheduleCommand("schedule /from 2025-08-30 14:00 /to 2025-08-30 16:00");
+        assertEquals(LocalDateTime.of(2025, 8, 30, 14, 0), period[0]);
+        assertEquals(LocalDateTime.of(2025, 8, 30, 16, 0), period[1]);
+    }
+
+    @Test
+    public void parseScheduleCommand_endBeforeStart_throwsDukeException() {
+        DukeException exception = assertThrows(DukeException.class, () -> {
+            Parser.parseScheduleCommand("schedule /from 2025-08-30 16:00 /to 2025-08-30 14:00");
+        });
+        assertEquals("OOPS!!! The end of the period must be after its start.", exception.getMessage());
+    }
+
+    @Test
+    public void parseScheduleCommand_missingTo_throwsDukeException() {
+        DukeException exception = assertThrows(DukeException.class, () -> {
+            Parser.parseScheduleCommand("schedule /from 2025-08-30");
+        });
+        assertEquals("OOPS!!! Invalid schedule format.", exception.getMessage());
+    }
+
     // Test parseDeleteIndex() method
     @Test
     public void parseDeleteIndex_validInput_returnsZeroBasedIndex() throws DukeException {
@@ -0,0 +1,121 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import wader.task.Task;
+
+public class PartitionedStorageTest {
+
+    private String testFilePath;
+    private Path directory;
+    private WaderList original;
+
+    @BeforeEach
+    public void setUp() throws DukeException {
+        testFilePath = "test_partitioned.txt";
+        directory = Path.of(testFilePath + ".partitions");
+        original = new WaderList();
+        original.addDeadlineTask("old report", "2000-01-15 18:00");
+        original.addToDoTask("read book");
+        original.addEventTask("conference", "2099-03-02 09:00", "2099-03-04 17:00");
+        original.addDeadlineTask("future report", "2099-02-20 18:00");
+        original.addDeadlineTask("later report", "2099-05-01 12:00");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            // Ignore cleanup failures
+        }
+    }
+
+    @Test
+    public void save_thenLoad_restoresListOrder() throws DukeException {
+        new PartitionedStorage(testFilePath).save(original);
+
+        WaderList loaded = new PartitionedStorage(testFilePath).load();
+
+        assertTrue(Files.exists(directory.resolve("2000-01.txt")));
+        assertTrue(Files.exists(directory.resolve("undated.txt")));
+        assertEquals(original.getSize(), loaded.getSize());
+        for (int i = 0; i < original.getSize(); i++) {
+            assertEquals(original.getTaskString(i), loaded.getTaskString(i));
+        }
+    }
+
+    @Test
+    public void record_markTask_rewritesOnlyItsPartition() throws DukeException, IOException {
+        PartitionedStorage storage = new PartitionedStorage(testFilePath);
+        storage.save(original);
+        WaderList list = storage.load();
+        Path untouched = directory.resolve("2099-05.txt");
+        Files.writeString(untouched, "4 [D][ ] sentinel (by: May 1 2099 12PM)\n", StandardCharsets.UTF_8);
+
+        list.mark(2);
+        storage.record("mark 3", list);
+        list.delete(0);
+        storage.record("delete 1", list);
+
+        WaderList loaded = new PartitionedStorage(testFilePath).load();
+        assertTrue(loaded.getTaskString(1).startsWith("[E][X] conference"));
+        assertEquals("sentinel", loaded.getTasks().get(3).getDescription());
+        assertTrue(Files.notExists(directory.resolve("2000-01.txt")));
+    }
+
+    @Test
+    public void getNextUpcomingTasks_damagedPastPartition_answersFromList() throws DukeException, IOException {
+        PartitionedStorage storage = new PartitionedStorage(testFilePath);
+        storage.save(original);
+        WaderList list = storage.load();
+        Files.writeString(directory.resolve("2000-01.txt"), "not a task\n", StandardCharsets.UTF_8);
+
+        List<Task> upcoming = storage.getNextUpcomingTasks(list, 2);
+
+        assertEquals(2, upcoming.size());
+        assertEquals("future report", upcoming.get(0).getDescription());
+        assertEquals("conference", upcoming.get(1).getDescription());
+    }
+
+    @Test
+    public void getNextUpcomingTasks_savedList_returnsListTasksInMinuteOrder() throws DukeException {
+        PartitionedStorage storage = new PartitionedStorage(testFilePath);
+        WaderList list = new WaderList();
+        list.addDeadlineTask("late report", "2099-02-20 18:45");
+        Task early = list.addDeadlineTask("early report", "2099-02-20 18:15");
+        storage.save(list);
+
+        List<Task> upcoming = storage.getNextUpcomingTasks(list, 2);
+
+        assertEquals(2, upcoming.size());
+        assertSame(early, upcoming.get(0));
+        assertEquals("late report", upcoming.get(1).getDescription());
+    }
+
+    @Test
+    public void getNextUpcomingTasks_unsavedChanges_searchesList() throws DukeException {
+        PartitionedStorage storage = new PartitionedStorage(testFilePath);
+        storage.save(original);
+        WaderList list = storage.load();
+        list.addDeadlineTask("urgent report", "2099-01-10 09:00");
+
+        List<Task> upcoming = storage.getNextUpcomingTasks(list, 1);
+
+        assertEquals("urgent report", upcoming.get(0).getDescription());
+    }
+}
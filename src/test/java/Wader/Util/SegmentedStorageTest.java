@@ -0,0 +1,140 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import wader.Wader;
+
+public class SegmentedStorageTest {
+
+    private static final int TASK_COUNT = WaderList.SEGMENT_SIZE * 3 + 10;
+
+    private SegmentedStorage storage;
+    private String testFilePath;
+    private WaderList testList;
+
+    @BeforeEach
+    public void setUp() {
+        testFilePath = "test_segments";
+        storage = new SegmentedStorage(testFilePath);
+        testList = new WaderList();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            testList.addToDoTask("task " + i);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        // Clean up the segment directory after each test
+        try (Stream<Path> files = Files.walk(Paths.get(testFilePath + ".segments"))) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            // Ignore cleanup failures
+        }
+    }
+
+    @Test
+    public void load_noManifest_returnsEmptyList() throws DukeException {
+        assertTrue(storage.load().isEmpty());
+    }
+
+    @Test
+    public void saveAndLoad_multipleSegments_preservesOrderAndStatus() throws DukeException {
+        testList.mark(WaderList.SEGMENT_SIZE + 1);
+        storage.save(testList);
+
+        WaderList loadedList = new SegmentedStorage(testFilePath).load();
+
+        assertEquals(TASK_COUNT, loadedList.getSize());
+        assertEquals("task 0", loadedList.getTasks().get(0).getDescription());
+        assertEquals("task " + (TASK_COUNT - 1), loadedList.getTasks().get(TASK_COUNT - 1).getDescription());
+        assertTrue(loadedList.getTasks().get(WaderList.SEGMENT_SIZE + 1).isDone());
+        assertTrue(loadedList.getDirtySegments().isEmpty());
+    }
+
+    @Test
+    public void save_singleMark_rewritesOnlyItsSegment() throws DukeException, IOException {
+        storage.save(testList);
+        List<String> before = segmentFiles();
+
+        testList.mark(WaderList.SEGMENT_SIZE * 2);
+        storage.save(testList);
+        List<String> after = segmentFiles();
+
+        assertEquals(4, after.size());
+        assertEquals(before.get(0), after.get(0));
+        assertEquals(before.get(1), after.get(1));
+        assertFalse(before.get(2).equals(after.get(2)));
+        assertEquals(before.get(3), after.get(3));
+        assertTrue(new SegmentedStorage(testFilePath).load().getTasks().get(WaderList.SEGMENT_SIZE * 2).isDone());
+    }
+
+    @Test
+    public void save_deleteInFirstSegment_rewritesShiftedSegments() throws DukeException {
+        storage.save(testList);
+
+        testList.delete(0);
+        storage.save(testList);
+        WaderList loadedList = new SegmentedStorage(testFilePath).load();
+
+        assertEquals(TASK_COUNT - 1, loadedList.getSize());
+        assertEquals("task 1", loadedList.getTasks().get(0).getDescription());
+        assertEquals("task " + WaderList.SEGMENT_SIZE,
+                loadedList.getTasks().get(WaderList.SEGMENT_SIZE - 1).getDescription());
+    }
+
+    @Test
+    public void save_listShrinksBySegment_removesObsoleteSegmentFiles() throws DukeException, IOException {
+        storage.save(testList);
+
+        for (int i = 0; i < 10; i++) {
+            testList.delete(testList.getSize() - 1);
+        }
+        storage.save(testList);
+
+        assertEquals(3, segmentFiles().size());
+        assertEquals(TASK_COUNT - 10, new SegmentedStorage(testFilePath).load().getSize());
+    }
+
+    @Test
+    public void wader_segmentedBackend_rewritesOnlyChangedSegment() throws DukeException, IOException {
+        storage.save(testList);
+        List<String> before = segmentFiles();
+        System.setProperty("wader.storage", "segmented");
+        try {
+            new Wader(testFilePath).getResponse("mark 2");
+        } finally {
+            System.clearProperty("wader.storage");
+        }
+
+        List<String> after = segmentFiles();
+        assertFalse(before.get(0).equals(after.get(0)));
+        assertEquals(before.subList(1, before.size()), after.subList(1, after.size()));
+        assertTrue(new SegmentedStorage(testFilePath).load().getTasks().get(1).isDone());
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        List<String> manifest = Files.readAllLines(Paths.get(testFilePath + ".segments", "manifest"));
+        try (Stream<Path> files = Files.list(Paths.get(testFilePath + ".segments"))) {
+            assertEquals(manifest.size() - 2, files.filter(f -> f.getFileName().toString().startsWith("segment-"))
+                    .count());
+        }
+        return manifest.subList(2, manifest.size());
+    }
+}
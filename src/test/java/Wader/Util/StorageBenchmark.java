@@ -0,0 +1,81 @@
+package wader.util;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compares the storage backends under a mixed workload of adds, marks and deletes on a preloaded
+ * list, followed by a full save and a reload. Run with
+ * {@code ./gradlew benchmark -Pbenchmark=StorageBenchmark --args=[tasks] [commands]}.
+ */
+public class StorageBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int commandCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Map<String, Function<String, StorageBackend>> backends = new LinkedHashMap<>();
+        backends.put("memory", path -> new InMemoryStorage());
+        backends.put("text", path -> new Storage(path, Storage.DEFAULT_JOURNAL_THRESHOLD));
+        backends.put("binary", path -> new Storage(path, Storage.Format.BINARY, Storage.DEFAULT_JOURNAL_THRESHOLD));
+        backends.put("compressed", path -> new Storage(path, Storage.Format.COMPRESSED,
+                Storage.DEFAULT_JOURNAL_THRESHOLD));
+
+        System.out.printf("%d tasks, %d commands%n", taskCount, commandCount);
+        for (Map.Entry<String, Function<String, StorageBackend>> backend : backends.entrySet()) {
+            Path directory = Files.createTempDirectory("wader-bench");
+            try {
+                String path = directory.resolve("tasks.txt").toString();
+                StorageBackend storage = backend.getValue().apply(path);
+                WaderList list = new WaderList();
+                for (int i = 0; i < taskCount; i++) {
+                    list.addToDoTask("read chapter " + i);
+                }
+                storage.save(list);
+
+                long start = System.nanoTime();
+                for (int i = 0; i < commandCount; i++) {
+                    String command = runCommand(list, i);
+                    storage.record(command, list);
+                }
+                long commandNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                storage.save(list);
+                long saveNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int loaded = storage.load().getSize();
+                long loadNanos = System.nanoTime() - start;
+
+                System.out.printf("%-10s commands %6d us/op, save %5d ms, load %5d ms (%d tasks)%n", backend.getKey(),
+                        commandNanos / 1000 / commandCount, saveNanos / 1_000_000, loadNanos / 1_000_000, loaded);
+            } finally {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                    for (Path file : files) {
+                        Files.delete(file);
+                    }
+                }
+                Files.delete(directory);
+            }
+        }
+    }
+
+    private static String runCommand(WaderList list, int i) {
+        int index = i * 7919 % list.getSize();
+        switch (i % 3) {
+            case 0:
+                list.addToDoTask("task " + i);
+                return "todo task " + i;
+            case 1:
+                list.mark(index);
+                return "mark " + (index + 1);
+            default:
+                list.delete(index);
+                return "delete " + (index + 1);
+        }
+    }
+}
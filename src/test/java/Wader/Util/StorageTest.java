@@ -1,19 +1,30 @@
 package wader.util;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import wader.task.EventTask;
+
 public class StorageTest {
 
     private Storage storage;
@@ -29,9 +40,11 @@ public class StorageTest {
 
     @AfterEach
     public void tearDown() {
-        // Clean up test file after each test
-        try {
-            Files.deleteIfExists(Paths.get(testFilePath));
+        // Clean up test file and its journal after each test
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("."), testFilePath + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
         } catch (IOException e) {
             // Ignore cleanup failures
         }
@@ -65,6 +78,30 @@ public class StorageTest {
         assertTrue(file.length() > 0);
     }
 
+    @Test
+    public void save_existingFile_replacesContentWithoutLeavingTempFile() throws DukeException, IOException {
+        Files.writeString(Paths.get(testFilePath), "[T][ ] stale task\n");
+        testList.addToDoTask("fresh task");
+
+        storage.save(testList);
+
+        assertEquals("[T][ ] fresh task\n", Files.readString(Paths.get(testFilePath)));
+        assertFalse(Files.exists(Paths.get(testFilePath + ".tmp")));
+    }
+
+    @Test
+    public void save_largeList_savesEveryTask() throws DukeException {
+        for (int i = 0; i < 100_000; i++) {
+            testList.addToDoTask("task " + i);
+        }
+
+        storage.save(testList);
+        WaderList loadedList = storage.load();
+
+        assertEquals(100_000, loadedList.getSize());
+        assertEquals("task 99999", loadedList.getTasks().get(99_999).getDescription());
+    }
+
     @Test
     public void save_invalidFilePath_throwsDukeException() {
         Storage invalidStorage = new Storage("/invalid/path/that/does/not/exist/file.txt");
@@ -110,6 +147,26 @@ public class StorageTest {
         assertTrue(loadedList.getSize() >= 1); // At least some tasks should be loaded
     }
 
+    @Test
+    public void load_validTaskFile_preservesDatesAndStatus() throws DukeException, IOException {
+        FileWriter writer = new FileWriter(testFilePath);
+        writer.write("[T][X] read book\n");
+        writer.write("[D][ ] submit report (by: Aug 30 2025 6PM)\n");
+        writer.write("[E][X] meeting (from: Sep 2 2025 2PM to: Sep 3 2025 4PM)\n");
+        writer.close();
+
+        WaderList loadedList = storage.load();
+
+        assertEquals(3, loadedList.getSize());
+        assertTrue(loadedList.getTasks().get(0).isDone());
+        assertFalse(loadedList.getTasks().get(1).isDone());
+        assertEquals(LocalDateTime.of(2025, 8, 30, 18, 0), loadedList.getTasks().get(1).getDateTime());
+        assertEquals(LocalDateTime.of(2025, 9, 2, 14, 0), loadedList.getTasks().get(2).getDateTime());
+        assertEquals(LocalDateTime.of(2025, 9, 3, 16, 0),
+                ((EventTask) loadedList.getTasks().get(2)).getEndDateTime());
+        assertTrue(loadedList.getTasks().get(2).isDone());
+    }
+
     @Test
     public void load_corruptedFile_handlesGracefully() throws IOException, DukeException {
         // Create a file with corrupted/invalid task format
@@ -163,6 +220,24 @@ public class StorageTest {
         assertTrue(loadedList.getSize() >= 0); // Should not crash
     }
 
+    @Test
+    public void storage_saveAndLoad_keepsDoneFlags() throws DukeException {
+        testList.addToDoTask("buy groceries");
+        testList.addToDoTask("read book");
+        testList.addDeadlineTask("submit report", "2025-08-30 18:00");
+        testList.addEventTask("meeting", "2025-08-30 14:00", "2025-08-30 16:00");
+        testList.mark(1);
+        testList.mark(3);
+
+        storage.save(testList);
+        WaderList loadedList = storage.load();
+
+        assertFalse(loadedList.getTasks().get(0).isDone());
+        assertTrue(loadedList.getTasks().get(1).isDone());
+        assertFalse(loadedList.getTasks().get(2).isDone());
+        assertTrue(loadedList.getTasks().get(3).isDone());
+    }
+
     @Test
     public void storage_multipleOperations_basicFunctionality() throws DukeException {
         // Add initial tasks
@@ -200,4 +275,468 @@ public class StorageTest {
                 loadedList.getTasks().get(2).getDescription());
         assertEquals("event", loadedList.getTasks().get(3).getDescription());
     }
+
+    // Test journal mode
+    @Test
+    public void load_journaledCommandsWithoutSave_replaysJournal() throws DukeException {
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList list = journaled.load();
+        list.addToDoTask("read book");
+        journaled.record("todo read book", list);
+        list.addDeadlineTask("submit report", "2025-08-30 18:00");
+        journaled.record("deadline submit report /by 2025-08-30 18:00", list);
+        list.mark(1);
+        journaled.record("mark 2", list);
+        list.delete(0);
+        journaled.record("delete 1", list);
+
+        WaderList loadedList = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD).load();
+
+        assertEquals(1, loadedList.getSize());
+        assertEquals("submit report", loadedList.getTasks().get(0).getDescription());
+        assertTrue(loadedList.getTasks().get(0).isDone());
+    }
+
+    @Test
+    public void save_journaled_foldsJournalIntoSnapshot() throws DukeException {
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList list = journaled.load();
+        list.addToDoTask("read book");
+        journaled.record("todo read book", list);
+
+        journaled.save(list);
+
+        assertTrue(new File(testFilePath).length() > 0);
+        assertEquals(0, new File(testFilePath + ".journal").length());
+        assertEquals(1, new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD).load().getSize());
+    }
+
+    @Test
+    public void record_pastThreshold_compactsWithoutLosingRecords() throws DukeException {
+        Storage journaled = new Storage(testFilePath, 64);
+        WaderList list = journaled.load();
+        for (int i = 0; i < 20; i++) {
+            list.addToDoTask("task " + i);
+            journaled.record("todo task " + i, list);
+        }
+        journaled.save(list);
+
+        WaderList loadedList = new Storage(testFilePath, 64).load();
+
+        assertEquals(20, loadedList.getSize());
+        assertEquals("task 19", loadedList.getTasks().get(19).getDescription());
+    }
+
+    @Test
+    public void load_interruptedCompaction_usesCompactedSnapshotOnce() throws DukeException, IOException {
+        // Simulate a crash after the compacted snapshot was made durable but before it replaced
+        // the old snapshot and the rotated journal was removed
+        Files.writeString(Paths.get(testFilePath + ".compact"), "[T][ ] read book\n");
+        Files.writeString(Paths.get(testFilePath + ".journal.old"), "0 todo read book\n");
+        Files.writeString(Paths.get(testFilePath + ".journal"), "1 todo write essay\n2 todo torn");
+
+        WaderList loadedList = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD).load();
+
+        assertEquals(2, loadedList.getSize());
+        assertEquals("read book", loadedList.getTasks().get(0).getDescription());
+        assertEquals("write essay", loadedList.getTasks().get(1).getDescription());
+    }
+
+    // Test offset index
+    @Test
+    public void record_markWithEmptyJournal_patchesSnapshotInPlace() throws DukeException, IOException {
+        testList.addToDoTask("read book");
+        testList.addToDoTask("write essay");
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        journaled.save(testList);
+        WaderList list = journaled.load();
+
+        list.mark(1);
+        journaled.record("mark 2", list);
+
+        assertEquals("[T][ ] read book\n[T][X] write essay\n", Files.readString(Paths.get(testFilePath)));
+        assertEquals(0, new File(testFilePath + ".journal").length());
+        assertTrue(journaled.readTask(1).isDone());
+    }
+
+    @Test
+    public void record_binaryUnmarkWithEmptyJournal_patchesSnapshotInPlace() throws DukeException {
+        testList.addDeadlineTask("submit report", "2025-08-30 18:00");
+        testList.mark(0);
+        Storage journaled = new Storage(testFilePath, Storage.Format.BINARY, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        journaled.save(testList);
+        WaderList list = journaled.load();
+
+        list.unmark(0);
+        journaled.record("unmark 1", list);
+
+        assertFalse(journaled.readTask(0).isDone());
+        assertFalse(new Storage(testFilePath).load().getTasks().get(0).isDone());
+    }
+
+    @Test
+    public void load_staleOffsetIndex_rebuildsIndex() throws DukeException, IOException {
+        testList.addToDoTask("read book");
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        journaled.save(testList);
+        Files.writeString(Paths.get(testFilePath), "\n  [T][ ] first\n\n[T][ ] second\n");
+
+        Storage reloaded = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList list = reloaded.load();
+        list.mark(1);
+        reloaded.record("mark 2", list);
+
+        assertEquals("first", reloaded.readTask(0).getDescription());
+        assertEquals("\n  [T][ ] first\n\n[T][X] second\n",
+                Files.readString(Paths.get(testFilePath)));
+    }
+
+    @Test
+    public void record_markAfterJournaledAdd_isJournaled() throws DukeException, IOException {
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        testList.addToDoTask("read book");
+        journaled.save(testList);
+        WaderList list = journaled.load();
+        list.addToDoTask("write essay");
+        journaled.record("todo write essay", list);
+
+        list.mark(0);
+        journaled.record("mark 1", list);
+
+        assertEquals("[T][ ] read book\n", Files.readString(Paths.get(testFilePath)));
+        assertTrue(new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD).load().getTasks().get(0).isDone());
+    }
+
+    // Test recovery
+    @Test
+    public void load_unparseableLine_quarantinesLineAndKeepsRest() throws DukeException, IOException {
+        Files.writeString(Paths.get(testFilePath),
+                "[T][ ] read book\n[D][ ] submit report (by: Smarch 40 2025 6PM)\n[T][X] write essay\n");
+
+        WaderList loadedList = storage.load();
+
+        assertEquals(2, loadedList.getSize());
+        assertEquals(1, storage.getRecoveryReport().getQuarantinedRecords());
+        assertTrue(Files.readString(Paths.get(testFilePath + ".quarantine")).contains("Smarch 40"));
+    }
+
+    @Test
+    public void load_malformedLines_quarantinesEveryLine() throws DukeException, IOException {
+        Files.writeString(Paths.get(testFilePath), "[T][ ] read book\n[T]\n[D][ ] submit report\n"
+                + "[E][ ] conference (from: Aug 22 2025 2PM)\n[Q][ ] mystery\n[T][X] write essay\n");
+
+        WaderList loadedList = storage.load();
+
+        assertEquals(2, loadedList.getSize());
+        assertEquals(4, storage.getRecoveryReport().getQuarantinedRecords());
+        String quarantined = Files.readString(Paths.get(testFilePath + ".quarantine"));
+        assertTrue(quarantined.contains("submit report"));
+        assertTrue(quarantined.contains("conference"));
+        assertTrue(quarantined.contains("mystery"));
+    }
+
+    @Test
+    public void load_binaryRecordFailsChecksum_quarantinesRecord() throws DukeException, IOException {
+        testList.addToDoTask("read book");
+        testList.addToDoTask("write essay");
+        testList.addToDoTask("go running");
+        new Storage(testFilePath, Storage.Format.BINARY).save(testList);
+        byte[] bytes = Files.readAllBytes(Paths.get(testFilePath));
+        bytes[bytes.length - 1] ^= 1; // corrupt the last description
+        Files.write(Paths.get(testFilePath), bytes);
+
+        WaderList loadedList = storage.load();
+
+        assertEquals(2, loadedList.getSize());
+        assertEquals("write essay", loadedList.getTasks().get(1).getDescription());
+        assertEquals(1, storage.getRecoveryReport().getQuarantinedRecords());
+    }
+
+    @Test
+    public void load_tornJournalTail_truncatesAndKeepsAppending() throws DukeException, IOException {
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList list = journaled.load();
+        list.addToDoTask("read book");
+        journaled.record("todo read book", list);
+        Files.writeString(Paths.get(testFilePath + ".journal"), "1:0 todo tor", StandardOpenOption.APPEND);
+
+        Storage reloaded = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList loadedList = reloaded.load();
+        loadedList.addToDoTask("write essay");
+        reloaded.record("todo write essay", loadedList);
+
+        assertEquals(12, reloaded.getRecoveryReport().getTruncatedBytes());
+        assertEquals(2, new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD).load().getSize());
+    }
+
+    @Test
+    public void load_journalRecordFailsChecksum_skipsRecord() throws DukeException, IOException {
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList list = journaled.load();
+        list.addToDoTask("read book");
+        journaled.record("todo read book", list);
+        Path journalPath = Paths.get(testFilePath + ".journal");
+        Files.writeString(journalPath, Files.readString(journalPath).replace("read", "reed"));
+
+        Storage reloaded = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+
+        assertEquals(0, reloaded.load().getSize());
+        assertEquals(1, reloaded.getRecoveryReport().getQuarantinedRecords());
+        assertFalse(reloaded.getRecoveryReport().getSummary().isEmpty());
+    }
+
+    @Test
+    public void load_middleJournalRecordFailsChecksum_stopsReplayAtIt() throws DukeException, IOException {
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList list = journaled.load();
+        for (String command : new String[] {"todo read book", "todo write essay", "todo go running"}) {
+            list.addToDoTask(command.substring(5));
+            journaled.record(command, list);
+        }
+        list.delete(1);
+        journaled.record("delete 2", list);
+        list.mark(1);
+        journaled.record("mark 2", list);
+        Path journalPath = Paths.get(testFilePath + ".journal");
+        Files.writeString(journalPath, Files.readString(journalPath).replace("delete 2", "delete 3"));
+
+        Storage reloaded = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList loadedList = reloaded.load();
+
+        assertEquals(3, loadedList.getSize());
+        assertEquals("write essay", loadedList.getTasks().get(1).getDescription());
+        assertFalse(loadedList.getTasks().get(1).isDone());
+        assertEquals(2, reloaded.getRecoveryReport().getQuarantinedRecords());
+        loadedList.addToDoTask("buy milk");
+        reloaded.record("todo buy milk", loadedList);
+        assertEquals(4, new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD).load().getSize());
+    }
+
+    @Test
+    public void load_journalSequenceGap_stopsReplayAtGap() throws DukeException, IOException {
+        Storage journaled = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList list = journaled.load();
+        list.addToDoTask("read book");
+        journaled.record("todo read book", list);
+        list.delete(0);
+        journaled.record("delete 1", list);
+        list.addToDoTask("write essay");
+        journaled.record("todo write essay", list);
+        Path journalPath = Paths.get(testFilePath + ".journal");
+        List<String> lines = Files.readAllLines(journalPath);
+        Files.write(journalPath, List.of(lines.get(0), lines.get(2)));
+
+        Storage reloaded = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList loadedList = reloaded.load();
+
+        assertEquals(1, loadedList.getSize());
+        assertEquals("read book", loadedList.getTasks().get(0).getDescription());
+        assertEquals(1, reloaded.getRecoveryReport().getQuarantinedRecords());
+    }
+
+    // Test binary snapshot format
+    @Test
+    public void storage_binarySaveAndLoad_preservesTasks() throws DukeException {
+        testList.addToDoTask("read book");
+        testList.addDeadlineTask("submit report", "2025-08-30 18:30");
+        testList.addEventTask("meeting \u00e9t\u00e9", "2025-08-30 14:00", "2025-09-01 16:15");
+        testList.mark(1);
+
+        new Storage(testFilePath, Storage.Format.BINARY).save(testList);
+        WaderList loadedList = storage.load();
+
+        assertEquals(3, loadedList.getSize());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(testList.getTaskString(i), loadedList.getTaskString(i));
+        }
+        assertTrue(loadedList.getTasks().get(1).isDone());
+        assertEquals(testList.getTasks().get(1).getDateTime(), loadedList.getTasks().get(1).getDateTime());
+        assertEquals(((EventTask) testList.getTasks().get(2)).getEndDateTime(),
+                ((EventTask) loadedList.getTasks().get(2)).getEndDateTime());
+    }
+
+    // Test compressed snapshot format
+    @Test
+    public void storage_compressedSaveAndLoad_preservesTasksAcrossBlocks() throws DukeException {
+        for (int i = 0; i < CompressedSnapshot.DEFAULT_BLOCK_SIZE * 2 + 7; i++) {
+            testList.addToDoTask("todo " + i);
+            testList.addDeadlineTask("deadline " + i, "2025-08-30 18:00");
+        }
+        testList.mark(5);
+        Storage compressed = new Storage(testFilePath, Storage.Format.COMPRESSED);
+        compressed.save(testList);
+
+        WaderList loadedList = storage.load();
+
+        assertEquals(testList.getSize(), loadedList.getSize());
+        for (int i = 0; i < testList.getSize(); i++) {
+            assertEquals(testList.getTaskString(i), loadedList.getTaskString(i));
+        }
+        assertEquals(testList.getTaskString(2000), compressed.readTask(2000).toString());
+    }
+
+    @Test
+    public void save_compressed_isSmallerThanText() throws DukeException {
+        for (int i = 0; i < 1000; i++) {
+            testList.addDeadlineTask("submit report " + i, "2025-08-30 18:00");
+        }
+        storage.save(testList);
+        long textSize = new File(testFilePath).length();
+
+        new Storage(testFilePath, Storage.Format.COMPRESSED).save(testList);
+
+        assertTrue(new File(testFilePath).length() * 4 < textSize);
+    }
+
+    @Test
+    public void load_compressedJournaled_replaysJournal() throws DukeException {
+        testList.addToDoTask("read book");
+        Storage journaled = new Storage(testFilePath, Storage.Format.COMPRESSED, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        journaled.save(testList);
+        WaderList list = journaled.load();
+        list.mark(0);
+        journaled.record("mark 1", list);
+
+        WaderList loadedList = new Storage(testFilePath, Storage.Format.COMPRESSED,
+                Storage.DEFAULT_JOURNAL_THRESHOLD).loadLazily(4);
+
+        assertTrue(loadedList.getTasks().get(0).isDone());
+        assertFalse(new File(testFilePath + ".idx").exists());
+    }
+
+    // Test dictionary snapshot format
+    @Test
+    public void storage_dictionarySaveAndLoad_sharesRepeatedDescriptions() throws DukeException {
+        for (int i = 0; i < 500; i++) {
+            testList.addToDoTask("water plants");
+            testList.addEventTask("standup", "2025-08-30 09:00", "2025-08-30 09:15");
+            testList.addDeadlineTask("report " + i, "2025-08-30 18:00");
+        }
+        testList.mark(4);
+        new Storage(testFilePath, Storage.Format.BINARY).save(testList);
+        long binarySize = new File(testFilePath).length();
+
+        new Storage(testFilePath, Storage.Format.DICTIONARY).save(testList);
+        WaderList loadedList = storage.load();
+
+        assertTrue(new File(testFilePath).length() < binarySize);
+        assertEquals(testList.getSize(), loadedList.getSize());
+        for (int i = 0; i < testList.getSize(); i++) {
+            assertEquals(testList.getTaskString(i), loadedList.getTaskString(i));
+        }
+        assertSame(loadedList.getTasks().get(1).getDescription(), loadedList.getTasks().get(4).getDescription());
+        assertEquals(500, loadedList.findTasksWithDescription("standup").size());
+    }
+
+    @Test
+    public void load_dictionaryRecordBlockFailsChecksum_keepsOtherBlocks() throws DukeException, IOException {
+        for (int i = 0; i < 600; i++) {
+            testList.addToDoTask("task " + i % 3);
+        }
+        new Storage(testFilePath, Storage.Format.DICTIONARY).save(testList);
+        byte[] bytes = Files.readAllBytes(Paths.get(testFilePath));
+        bytes[bytes.length - 6] ^= 1; // corrupt the last record
+        Files.write(Paths.get(testFilePath), bytes);
+
+        WaderList loadedList = storage.load();
+
+        assertEquals(2 * DictionarySnapshot.BLOCK_SIZE, loadedList.getSize());
+        assertEquals("task 2", loadedList.getTasks().get(5).getDescription());
+        assertEquals(1, storage.getRecoveryReport().getQuarantinedRecords());
+    }
+
+    @Test
+    public void load_dictionaryBlockFailsChecksum_dropsOnlyTasksUsingIt() throws DukeException, IOException {
+        for (int i = 0; i < 300; i++) {
+            testList.addToDoTask("task " + i);
+        }
+        new Storage(testFilePath, Storage.Format.DICTIONARY).save(testList);
+        byte[] bytes = Files.readAllBytes(Paths.get(testFilePath));
+        String content = new String(bytes, StandardCharsets.ISO_8859_1);
+        bytes[content.indexOf("task 299")] ^= 1; // corrupt a description in the second block
+        Files.write(Paths.get(testFilePath), bytes);
+
+        WaderList loadedList = storage.load();
+
+        assertEquals(DictionarySnapshot.BLOCK_SIZE, loadedList.getSize());
+        assertEquals("task 255", loadedList.getTasks().get(255).getDescription());
+        assertEquals(1 + 300 - DictionarySnapshot.BLOCK_SIZE, storage.getRecoveryReport().getQuarantinedRecords());
+    }
+
+    @Test
+    public void load_dictionaryHeaderDamaged_movesSnapshotAside() throws DukeException, IOException {
+        testList.addToDoTask("read book");
+        new Storage(testFilePath, Storage.Format.DICTIONARY).save(testList);
+        byte[] bytes = Files.readAllBytes(Paths.get(testFilePath));
+        bytes[10] ^= 1;
+        Files.write(Paths.get(testFilePath), bytes);
+
+        assertThrows(DukeException.class, () -> storage.load());
+        storage.save(new WaderList());
+
+        assertEquals(0, Files.size(Paths.get(testFilePath)));
+        assertArrayEquals(bytes, Files.readAllBytes(Paths.get(testFilePath + ".quarantine.1")));
+    }
+
+    @Test
+    public void exportText_binaryStorage_writesTextFormat() throws DukeException, IOException {
+        testList.addToDoTask("read book");
+        testList.mark(0);
+        String exportPath = testFilePath + ".export";
+
+        new Storage(testFilePath, Storage.Format.BINARY).exportText(testList, exportPath);
+
+        assertEquals("[T][X] read book\n", Files.readString(Paths.get(exportPath)));
+    }
+
+    @Test
+    public void record_afterOtherSessionWrote_rejectsUntilReloaded() throws DukeException {
+        Storage first = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        Storage second = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD);
+        WaderList firstList = first.load();
+        WaderList secondList = second.load();
+        assertFalse(first.hasChangedSinceLoad());
+
+        secondList.addToDoTask("from second");
+        second.record("todo from second", secondList);
+        firstList.addToDoTask("from first");
+
+        assertTrue(first.hasChangedSinceLoad());
+        assertThrows(StorageConflictException.class, () -> first.record("todo from first", firstList));
+
+        WaderList reloaded = first.load();
+        reloaded.addToDoTask("from first");
+        first.record("todo from first", reloaded);
+        WaderList merged = new Storage(testFilePath, Storage.DEFAULT_JOURNAL_THRESHOLD).load();
+        assertEquals("[T][ ] from second", merged.getTaskString(0));
+        assertEquals("[T][ ] from first", merged.getTaskString(1));
+    }
+
+    @Test
+    public void save_staleSession_doesNotOverwriteNewerFile() throws DukeException {
+        Storage first = new Storage(testFilePath);
+        Storage second = new Storage(testFilePath);
+        WaderList firstList = first.load();
+        WaderList secondList = second.load();
+        secondList.addToDoTask("kept");
+        second.save(secondList);
+
+        assertThrows(StorageConflictException.class, () -> first.save(firstList));
+        assertEquals(1, new Storage(testFilePath).load().getSize());
+        assertFalse(second.hasChangedSinceLoad());
+    }
+
+    @Test
+    public void hasChangedSinceLoad_snapshotEditedWithoutLock_returnsTrue() throws DukeException, IOException {
+        testList.addToDoTask("read book");
+        storage.save(testList);
+        storage.load();
+        assertFalse(storage.hasChangedSinceLoad());
+
+        Files.writeString(Paths.get(testFilePath), "[T][X] read book\n[T][ ] write notes\n");
+
+        assertTrue(storage.hasChangedSinceLoad());
+        assertEquals(2, storage.load().getSize());
+        assertFalse(storage.hasChangedSinceLoad());
+    }
 }
@@ -0,0 +1,46 @@
+package wader.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import wader.task.Task;
+import wader.task.ToDoTask;
+
+public class TrigramIndexTest {
+
+    private static Task newTask(long id, String description) {
+        Task task = new ToDoTask(description);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    public void candidates_substringOfWord_findsTasksHoldingEveryTrigram() {
+        TrigramIndex index = new TrigramIndex();
+        index.add(newTask(0, "team meeting"));
+        index.add(newTask(1, "greet guests"));
+        index.add(newTask(2, "abc bcd eet"));
+
+        assertArrayEquals(new long[] {0, 1, 2}, index.candidates("eet"));
+        assertArrayEquals(new long[] {0}, index.candidates("meet"));
+        assertArrayEquals(new long[0], index.candidates("xyz"));
+        assertNull(index.candidates("ee"));
+    }
+
+    @Test
+    public void candidates_afterRemove_dropsRemovedTask() {
+        TrigramIndex index = new TrigramIndex();
+        Task first = newTask(4, "meeting");
+        index.add(newTask(7, "meeting notes"));
+        index.add(first);
+        index.add(newTask(5, "meet"));
+
+        assertArrayEquals(new long[] {4, 5, 7}, index.candidates("meet"));
+
+        index.remove(first);
+
+        assertArrayEquals(new long[] {5, 7}, index.candidates("meet"));
+    }
+}
@@ -5,6 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -41,6 +48,63 @@ public class WaderListTest {
         assertTrue(task instanceof ToDoTask);
     }
 
+    @Test
+    public void addTask_afterDelete_neverReusesId() throws DukeException {
+        waderList.addToDoTask("task 1");
+        waderList.addDeadlineTask("task 2", "2025-08-30 18:00");
+        waderList.delete(1);
+        Task task = waderList.addToDoTask("task 3");
+
+        assertEquals(0, waderList.getTasks().get(0).getId());
+        assertEquals(2, task.getId());
+        assertEquals(2, waderList.copy().getTasks().get(1).getId());
+    }
+
+    @Test
+    public void getTaskById_afterDelete_findsTaskAtNewPosition() throws DukeException {
+        waderList.addToDoTask("task 1");
+        Task task = waderList.addDeadlineTask("task 2", "2025-08-30 18:00");
+        waderList.addToDoTask("task 3");
+        waderList.delete(0);
+
+        assertEquals(task, waderList.getTaskById(task.getId()));
+        assertEquals(0, waderList.indexOfId(task.getId()));
+        assertEquals(-1, waderList.indexOfId(0));
+    }
+
+    @Test
+    public void applyDiff_changedRecords_keepsUnchangedTasks() throws DukeException {
+        waderList.addToDoTask("task 1");
+        waderList.addToDoTask("task 2");
+        waderList.addToDoTask("task 3");
+        Task first = waderList.getTasks().get(0);
+        Task second = waderList.getTasks().get(1);
+        WaderList updated = waderList.copy();
+        updated.mark(1);
+        updated.delete(2);
+        updated.addDeadlineTask("task 4", "2025-08-30 18:00");
+
+        int changed = waderList.applyDiff(updated.getTasks());
+
+        assertEquals(2, changed);
+        assertTrue(first == waderList.getTasks().get(0));
+        assertTrue(second == waderList.getTasks().get(1));
+        assertTrue(second.isDone());
+        assertEquals("task 4", waderList.getTasks().get(2).getDescription());
+        assertEquals(3, waderList.getTasks().get(2).getId());
+    }
+
+    @Test
+    public void applyDiff_insertedInMiddle_insertsOnlyNewTask() {
+        waderList.addToDoTask("task 1");
+        waderList.addToDoTask("task 3");
+        List<Task> updated = List.of(new ToDoTask("task 1"), new ToDoTask("task 2"), new ToDoTask("task 3"));
+
+        assertEquals(1, waderList.applyDiff(updated));
+        assertEquals("task 2", waderList.getTasks().get(1).getDescription());
+        assertEquals(2, waderList.getTasks().get(1).getId());
+    }
+
     @Test
     public void addToDoTask_emptyDescription_addsTaskWithEmptyDescription() {
         Task task = waderList.addToDoTask("");
@@ -326,6 +390,14 @@ public class WaderListTest {
         });
     }
 
+    @Test
+    public void getTaskStrings_withTasks_returnsStringsInOrder() {
+        Task first = waderList.addToDoTask("task 1");
+        Task second = waderList.addToDoTask("task 2");
+
+        assertEquals(List.of(first.toString(), second.toString()), waderList.getTaskStrings());
+    }
+
     // Test getSize() method
     @Test
     public void getSize_emptyList_returnsZero() {
@@ -463,6 +535,56 @@ public class WaderListTest {
         assertEquals("read submission guidelines", foundTasks.get(1).getDescription());
     }
 
+    @Test
+    public void findTasks_afterAddAndDelete_searchesCurrentTasks() throws DukeException {
+        waderList.addToDoTask("read book");
+        waderList.addToDoTask("return notebook");
+        assertEquals(2, waderList.findTasks("book").size());
+
+        waderList.delete(0);
+        waderList.addToDoTask("book flights");
+
+        var foundTasks = waderList.findTasks("book");
+
+        assertEquals(2, foundTasks.size());
+        assertEquals("return notebook", foundTasks.get(0).getDescription());
+        assertEquals("book flights", foundTasks.get(1).getDescription());
+        assertTrue(waderList.findTasks("read").isEmpty());
+    }
+
+    @Test
+    public void findTasks_keywordSpanningWords_matchesSubstring() throws DukeException {
+        waderList.addToDoTask("read the book");
+        waderList.addToDoTask("the book club");
+        waderList.addToDoTask("book the room");
+        waderList.findTasks("warm up the index");
+
+        assertEquals("read the book", waderList.findTasks("ad the bo").get(0).getDescription());
+        assertEquals(1, waderList.findTasks(" the book").size());
+        assertEquals(2, waderList.findTasks("the book").size());
+        assertEquals(3, waderList.findTasks(" ").size());
+    }
+
+    @Test
+    public void findTasks_substringInLargeList_verifiesCandidates() throws DukeException {
+        for (int i = 0; i < 100; i++) {
+            waderList.addToDoTask("filler " + i);
+        }
+        waderList.addToDoTask("team meeting");
+        waderList.addToDoTask("meet bee eet");
+        waderList.findTasks("warm up the index");
+        waderList.delete(0);
+        waderList.addToDoTask("sweet tea");
+
+        var foundTasks = waderList.findTasks("eet");
+
+        assertEquals(3, foundTasks.size());
+        assertEquals("team meeting", foundTasks.get(0).getDescription());
+        assertEquals("sweet tea", foundTasks.get(2).getDescription());
+        assertEquals(1, waderList.findTasks("meeting").size());
+        assertTrue(waderList.findTasks("beet").isEmpty());
+    }
+
     // Test getNextUpcomingTasks() method
     @Test
     public void getNextUpcomingTasks_allTasksPast_returnsEmpty() throws DukeException {
@@ -520,6 +642,22 @@ public class WaderListTest {
         assertEquals("later deadline", upcomingTasks.get(2).getDescription());
     }
 
+    @Test
+    public void getNextUpcomingTasks_afterDeleteAndAdd_usesCurrentTasks() throws DukeException {
+        waderList.addDeadlineTask("first", "2099-01-01 10:00");
+        waderList.addDeadlineTask("second", "2099-01-02 10:00");
+        assertEquals("first", waderList.getNextUpcomingTasks(1).get(0).getDescription());
+
+        waderList.delete(0);
+        waderList.addEventTask("earlier", "2098-12-31 09:00", "2098-12-31 10:00");
+
+        var upcoming = waderList.getNextUpcomingTasks(3);
+
+        assertEquals(2, upcoming.size());
+        assertEquals("earlier", upcoming.get(0).getDescription());
+        assertEquals("second", upcoming.get(1).getDescription());
+    }
+
     @Test
     public void getNextUpcomingTasks_emptyList_returnsEmpty() {
         var upcomingTasks = waderList.getNextUpcomingTasks(3);
@@ -673,4 +811,157 @@ public class WaderListTest {
         assertEquals(3, waderList.getSize());
         assertEquals("task 4", waderList.getTasks().get(2).getDescription());
     }
+
+    @Test
+    public void getDirtySegments_markAndDelete_flagsAffectedSegments() {
+        for (int i = 0; i < WaderList.SEGMENT_SIZE * 3; i++) {
+            waderList.addToDoTask("task " + i);
+        }
+        waderList.clearDirtySegments();
+
+        waderList.mark(WaderList.SEGMENT_SIZE + 5);
+        assertEquals("{1}", waderList.getDirtySegments().toString());
+
+        waderList.delete(WaderList.SEGMENT_SIZE * 2 - 1);
+        assertEquals("{1, 2}", waderList.getDirtySegments().toString());
+
+        waderList.clearDirtySegments();
+        assertTrue(waderList.getDirtySegments().isEmpty());
+    }
+
+    @Test
+    public void addAll_builtTasks_appendsInOrderWithStatus() {
+        waderList.addToDoTask("existing");
+        Task done = new ToDoTask("done task");
+        done.markAsDone();
+
+        waderList.addAll(List.of(done, new DeadlineTask("deadline", "2025-08-30", "18:00")));
+
+        assertEquals(3, waderList.getSize());
+        assertTrue(waderList.getTasks().get(1).isDone());
+        assertEquals("deadline", waderList.getTasks().get(2).getDescription());
+    }
+
+    // Test concurrent use
+    @Test
+    public void addAndMark_concurrentWriters_loseNoUpdates() throws InterruptedException {
+        int threadCount = 8;
+        int tasksPerThread = 2000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < tasksPerThread; i++) {
+                    Task task = waderList.addToDoTask("task " + thread + " " + i);
+                    if (i % 2 == 0) {
+                        waderList.mark(waderList.indexOfId(task.getId()));
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<Task> tasks = waderList.getTasks();
+        assertEquals(threadCount * tasksPerThread, tasks.size());
+        Set<Long> ids = new HashSet<>();
+        int done = 0;
+        for (Task task : tasks) {
+            ids.add(task.getId());
+            done += task.isDone() ? 1 : 0;
+        }
+        assertEquals(tasks.size(), ids.size());
+        assertEquals(tasks.size() / 2, done);
+    }
+
+    @Test
+    public void reads_duringConcurrentWrites_seeConsistentLists() throws InterruptedException {
+        int taskCount = 5000;
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < taskCount; i++) {
+                waderList.addToDoTask("task " + i);
+                if (i % 10 == 9) {
+                    waderList.delete(0);
+                }
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (writer.isAlive()) {
+                        // Tasks are appended and removed from the front, so ids always ascend
+                        long previous = -1;
+                        for (Task task : waderList.findTasks("task")) {
+                            assertTrue(task.getId() > previous);
+                            previous = task.getId();
+                        }
+                        int size = waderList.getSize();
+                        if (size > 0) {
+                            assertTrue(waderList.getTaskString(0).startsWith("[T][ ] task "));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        writer.start();
+        readers.forEach(Thread::start);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> failures.peek().toString());
+        assertEquals(taskCount - taskCount / 10, waderList.getSize());
+    }
+
+    @Test
+    public void getTaskStrings_duringConcurrentWrites_returnsConsecutiveTasks() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            waderList.addToDoTask("task " + i);
+        }
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 100; i < 5000; i++) {
+                waderList.addToDoTask("task " + i);
+                waderList.delete(0);
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (writer.isAlive()) {
+                    // The list is a sliding window, so a consistent listing never skips a task
+                    List<String> strings = waderList.getTaskStrings();
+                    int first = Integer.parseInt(strings.get(0).substring("[T][ ] task ".length()));
+                    for (int i = 0; i < strings.size(); i++) {
+                        assertEquals("[T][ ] task " + (first + i), strings.get(i));
+                    }
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertTrue(failures.isEmpty(), () -> failures.peek().toString());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
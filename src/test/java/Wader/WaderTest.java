@@ -5,13 +5,18 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import wader.util.Storage;
+
 public class WaderTest {
 
     private Wader wader;
@@ -25,9 +30,11 @@ public class WaderTest {
 
     @AfterEach
     public void tearDown() {
-        // Clean up test file after each test
-        try {
-            Files.deleteIfExists(Paths.get(testFilePath));
+        // Clean up test file and its journal after each test
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get("."), testFilePath + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
         } catch (IOException e) {
             // Ignore cleanup failures
         }
@@ -71,6 +78,19 @@ public class WaderTest {
         assertTrue(response.contains("added") || response.contains("Got it"));
     }
 
+    @Test
+    public void getResponse_scheduleCommand_listsOverlappingEvents() {
+        wader.getResponse("event standup /from 2025-08-22 09:00 /to 2025-08-22 09:15");
+        wader.getResponse("event offsite /from 2025-08-24 09:00 /to 2025-08-26 17:00");
+        wader.getResponse("event review /from 2025-08-28 14:00 /to 2025-08-28 15:00");
+
+        String response = wader.getResponse("schedule /from 2025-08-25 /to 2025-08-28 14:30");
+
+        assertTrue(response.contains("1. [E][ ] offsite"));
+        assertTrue(response.contains("2. [E][ ] review"));
+        assertFalse(response.contains("standup"));
+    }
+
     @Test
     public void getResponse_markCommand_marksTaskCorrectly() {
         // Add a task first
@@ -229,6 +249,21 @@ public class WaderTest {
         assertFalse(listResponse.isEmpty()); // Should get some response
     }
 
+    @Test
+    public void wader_persistenceTest_survivesMissingBye() {
+        wader.getResponse("todo persistent task");
+        wader.getResponse("todo another task");
+        wader.getResponse("mark 2");
+        wader.getResponse("delete 1");
+
+        // No bye, as if the process had crashed
+        Wader newWader = new Wader(testFilePath);
+
+        String listResponse = newWader.getResponse("list");
+        assertTrue(listResponse.contains("1.[T][X] another task"));
+        assertFalse(listResponse.contains("persistent task"));
+    }
+
     @Test
     public void wader_edgeCasesHandling_worksCorrectly() {
         // Test various edge cases
@@ -255,6 +290,81 @@ public class WaderTest {
         assertTrue(response4.contains("don't know") || response4.contains("invalid") || response4.contains("OOPS"));
     }
 
+    @Test
+    public void getResponse_otherSessionChangedFile_reloadsFirst() {
+        Wader other = new Wader(testFilePath);
+        other.getResponse("todo from other");
+
+        assertTrue(wader.getResponse("list").contains("from other"));
+        assertTrue(wader.getResponse("todo mine").contains("2 tasks"));
+        assertTrue(other.getResponse("list").contains("mine"));
+    }
+
+    @Test
+    public void getResponse_asyncSaveConflict_keepsAcknowledgedAdds() throws Exception {
+        Wader first = newAsyncWader();
+        Wader second = newAsyncWader();
+        try {
+            // Both adds are acknowledged before either is saved, so one of the saves conflicts
+            first.getResponse("todo fromFirst");
+            second.getResponse("todo fromSecond");
+            Thread.sleep(1000);
+            first.getResponse("list");
+            second.getResponse("list");
+            Thread.sleep(1000);
+
+            for (Wader session : List.of(first, second)) {
+                String listResponse = session.getResponse("list");
+                assertTrue(listResponse.contains("fromFirst"));
+                assertTrue(listResponse.contains("fromSecond"));
+            }
+            assertEquals(2, new Storage(testFilePath).load().getSize());
+        } finally {
+            first.getResponse("bye");
+            second.getResponse("bye");
+        }
+    }
+
+    @Test
+    public void getResponse_asyncSessionWithJournaledSession_seesJournaledTasks() throws Exception {
+        Wader async = newAsyncWader();
+        try {
+            wader.getResponse("todo journaled");
+
+            assertTrue(async.getResponse("list").contains("journaled"));
+        } finally {
+            async.getResponse("bye");
+        }
+    }
+
+    @Test
+    public void wader_memoryStorage_keepsTasksOffDisk() {
+        System.setProperty("wader.storage", "memory");
+        try {
+            Wader inMemory = new Wader(testFilePath);
+            inMemory.getResponse("todo read book");
+            inMemory.getResponse("mark 1");
+            inMemory.getResponse("bye");
+
+            assertTrue(inMemory.getResponse("list").contains("[X] read book"));
+            assertFalse(Files.exists(Paths.get(testFilePath)));
+            assertFalse(Files.exists(Paths.get(testFilePath + ".journal")));
+        } finally {
+            System.clearProperty("wader.storage");
+        }
+    }
+
+    private Wader newAsyncWader() {
+        System.setProperty("wader.persistence", "async");
+        System.setProperty("wader.async.maxDelayMillis", "100");
+        try {
+            return new Wader(testFilePath);
+        } finally {
+            System.clearProperty("wader.persistence");
+            System.clearProperty("wader.async.maxDelayMillis");
+        }
+    }
+
     @Test
     public void wader_stressTest_handlesMultipleTasks() {
         // Add many tasks to test performance